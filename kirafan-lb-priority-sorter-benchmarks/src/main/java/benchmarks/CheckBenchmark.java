@@ -0,0 +1,108 @@
+package benchmarks;
+
+import domain.CreaStatus;
+import domain.model.GameCharacter;
+import logic.Mapper;
+import logic.checks.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+* Measures each check of GameCharacterPriorityComparator in isolation:
+*   priorityKeys: the check's share of a sort (getPriorityKey for every non-limit broken character between
+*   beginSort and endSort, like GameCharacterPriorityComparator.getPriorityKeys)
+*   compare: compare on every pair of consecutive characters (like Collections.sort(list, comparator) would do)
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckBenchmark {
+    @Param({"EventBonus", "PersonalPreference", "MissingElementClassCombination", "Crea", "SkillSet", "HighestWoke",
+            "NoWeapon"})
+    public String check;
+
+    @Param({"250", "1000"})
+    public int size;
+
+    @Param({"0.0", "0.5"})
+    public double elementClassSkew;
+
+    @Param({"5"})
+    public int skillsPerCharacter;
+
+    @Param({"0.5"})
+    public double weaponRatio;
+
+    private Check checkUnderTest;
+    private List<GameCharacter> nonLimitBrokenCharacters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RosterGenerator.Roster roster = new RosterGenerator(size, elementClassSkew, skillsPerCharacter, weaponRatio, 42)
+                .generate();
+        List<GameCharacter> characters = roster.getCharacters();
+        nonLimitBrokenCharacters = characters.stream()
+                .filter(c -> !c.isLimitBroken())
+                .collect(Collectors.toList());
+
+        switch (check) {
+            case "EventBonus":
+                checkUnderTest = new EventBonusCheck(roster.getEvent());
+                break;
+
+            case "PersonalPreference":
+                checkUnderTest = new PersonalPreferenceCheck(7);
+                break;
+
+            case "MissingElementClassCombination":
+                checkUnderTest = new MissingElementClassCombinationCheck(Mapper.getCharactersByElementAndClass(characters));
+                break;
+
+            case "Crea":
+                checkUnderTest = new CreaCheck(CreaStatus.INCOMPLETE);
+                break;
+
+            case "SkillSet":
+                checkUnderTest = new SkillSetCheck(Mapper.getCharactersByElementAndClass(characters));
+                break;
+
+            case "HighestWoke":
+                checkUnderTest = new HighestWokeCheck(Mapper.getCharactersBySeries(characters));
+                break;
+
+            case "NoWeapon":
+                checkUnderTest = new NoWeaponCheck(Mapper.getWeaponsByExclusiveCharacter(roster.getWeapons()));
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown check " + check);
+        }
+    }
+
+    @Benchmark
+    public void priorityKeys(Blackhole blackhole) {
+        checkUnderTest.beginSort();
+
+        try {
+            for (GameCharacter chara : nonLimitBrokenCharacters) {
+                blackhole.consume(checkUnderTest.getPriorityKey(chara));
+            }
+        } finally {
+            checkUnderTest.endSort();
+        }
+    }
+
+    @Benchmark
+    public void compare(Blackhole blackhole) {
+        for (int i = 1; i < nonLimitBrokenCharacters.size(); i++) {
+            blackhole.consume(checkUnderTest.compare(nonLimitBrokenCharacters.get(i - 1), nonLimitBrokenCharacters.get(i)));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import domain.model.GameCharacter;
+import logic.GameCharacterPriorityComparator;
+import logic.GlobalListHandler;
+import logic.Mapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+* Measures GlobalListHandler.sortNonLimitBrokenCharacters end to end, i.e. what the GUI does when the lists are loaded
+* (fullSort) and after a single character has been edited (reRankAfterEdit), and compares the two ways of sorting a list
+* with GameCharacterPriorityComparator directly: keySort (every check for every character) and tieredSort (later checks
+* only for the characters which the earlier checks left tied, see sortByTiers).
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrioritySortBenchmark {
+    @Param({"100", "250", "1000"})
+    public int size;
+
+    @Param({"0.0", "0.5"})
+    public double elementClassSkew;
+
+    @Param({"5"})
+    public int skillsPerCharacter;
+
+    @Param({"0.5"})
+    public double weaponRatio;
+
+    private RosterGenerator.Roster roster;
+    private List<GameCharacter> shuffledNonLimitBrokenCharacters;
+    private GlobalListHandler listHandler;
+    private GameCharacterPriorityComparator comparator;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        roster = new RosterGenerator(size, elementClassSkew, skillsPerCharacter, weaponRatio, 42).generate();
+        shuffledNonLimitBrokenCharacters = roster.getCharacters().stream()
+                .filter(c -> !c.isLimitBroken())
+                .collect(Collectors.toList());
+        Collections.shuffle(shuffledNonLimitBrokenCharacters, new Random(42));
+
+        listHandler = new GlobalListHandler(roster.getEvent());
+        listHandler.setAllCharacters(new ArrayList<>(roster.getCharacters()));
+        listHandler.setEventCharacters(roster.getCharacters().stream()
+                .filter(roster.getEvent()::isBonusCharacter)
+                .collect(Collectors.toList()));
+        listHandler.setAllWeapons(new ArrayList<>(roster.getWeapons()));
+        listHandler.setNonLimitBrokenCharacters(new ArrayList<>(shuffledNonLimitBrokenCharacters));
+        listHandler.sortNonLimitBrokenCharacters();
+        random = new Random(42);
+        comparator = new GameCharacterPriorityComparator(Mapper.getCharactersByElementAndClass(roster.getCharacters()),
+                Mapper.getCharactersBySeries(roster.getCharacters()),
+                Mapper.getWeaponsByExclusiveCharacter(roster.getWeapons()), roster.getEvent());
+    }
+
+    @Benchmark
+    public List<GameCharacter> fullSort() {
+        // Replacing the list makes the next sort sort the whole list (the skill totals stay cached in Mapper like in the GUI)
+        listHandler.setNonLimitBrokenCharacters(new ArrayList<>(shuffledNonLimitBrokenCharacters));
+        listHandler.sortNonLimitBrokenCharacters();
+
+        return listHandler.getNonLimitBrokenCharacters();
+    }
+
+    @Benchmark
+    public List<GameCharacter> fullSortWithColdSkillTotals() {
+        roster.getCharacters().forEach(Mapper::invalidateSkillTotalPowers);
+
+        return fullSort();
+    }
+
+    @Benchmark
+    public List<GameCharacter> keySort() {
+        List<GameCharacter> characters = new ArrayList<>(shuffledNonLimitBrokenCharacters);
+        comparator.sort(characters);
+
+        return characters;
+    }
+
+    @Benchmark
+    public List<GameCharacter> tieredSort() {
+        List<GameCharacter> characters = new ArrayList<>(shuffledNonLimitBrokenCharacters);
+        comparator.sortByTiers(characters);
+
+        return characters;
+    }
+
+    @Benchmark
+    public List<GameCharacter> reRankAfterEdit() {
+        // Edits a random non-limit broken character like the character window does and re-ranks the list
+        List<GameCharacter> nonLimitBrokenCharacters = listHandler.getNonLimitBrokenCharacters();
+        GameCharacter chara = nonLimitBrokenCharacters.get(random.nextInt(nonLimitBrokenCharacters.size()));
+        chara.setPersonalPreference((chara.getPersonalPreference() + 1) % 11);
+        listHandler.updateCharacter(chara, true);
+        listHandler.sortNonLimitBrokenCharacters();
+
+        return nonLimitBrokenCharacters;
+    }
+}
@@ -0,0 +1,150 @@
+package benchmarks;
+
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+* Generates synthetic rosters (characters, weapons and an event) for the benchmarks. The same seed always generates the
+* same roster, so results of different runs can be compared.
+*
+*   size: amount of characters
+*   elementClassSkew: 0 spreads the characters evenly between the 30 element/class combinations, 1 puts every character
+*   in the same combination (i.e. the worst case for MissingElementClassCombinationCheck and SkillSetCheck)
+*   skillsPerCharacter: amount of skills each character has
+*   weaponRatio: exclusive weapons per character (0.5 means that every other character has an exclusive weapon)
+*/
+public class RosterGenerator {
+    public static class Roster {
+        private final List<GameCharacter> characters;
+        private final List<Weapon> weapons;
+        private final GameEvent event;
+
+        private Roster(List<GameCharacter> characters, List<Weapon> weapons, GameEvent event) {
+            this.characters = characters;
+            this.weapons = weapons;
+            this.event = event;
+        }
+
+        public List<GameCharacter> getCharacters() {
+            return characters;
+        }
+
+        public List<Weapon> getWeapons() {
+            return weapons;
+        }
+
+        public GameEvent getEvent() {
+            return event;
+        }
+    }
+
+    private static final int SERIES_AMOUNT = 20;
+    private static final double LIMIT_BROKEN_RATIO = 0.3;
+    private static final double EVENT_BONUS_RATIO = 0.05;
+
+    private int size;
+    private double elementClassSkew;
+    private int skillsPerCharacter;
+    private double weaponRatio;
+    private long seed;
+
+    public RosterGenerator(int size, double elementClassSkew, int skillsPerCharacter, double weaponRatio, long seed) {
+        this.size = size;
+        this.elementClassSkew = elementClassSkew;
+        this.skillsPerCharacter = skillsPerCharacter;
+        this.weaponRatio = weaponRatio;
+        this.seed = seed;
+    }
+
+    public Roster generate() {
+        Random random = new Random(seed);
+        CharacterElement[] elements = CharacterElement.values();
+        CharacterClass[] classes = CharacterClass.values();
+        CreaStatus[] creaStatuses = CreaStatus.values();
+        List<Series> series = new ArrayList<>();
+
+        for (int i = 0; i < SERIES_AMOUNT; i++) {
+            series.add(new Series("Series " + i, creaStatuses[random.nextInt(creaStatuses.length)], "series" + i));
+        }
+
+        List<GameCharacter> characters = new ArrayList<>();
+        GameEvent event = new GameEvent("1");
+
+        for (int i = 0; i < size; i++) {
+            // With the probability of the skew the character is put into the first element/class combination
+            boolean skewed = random.nextDouble() < elementClassSkew;
+            CharacterElement element = skewed ? elements[0] : elements[random.nextInt(elements.length)];
+            CharacterClass characterClass = skewed ? classes[0] : classes[random.nextInt(classes.length)];
+
+            GameCharacter chara = new GameCharacter.Builder("chara" + i, series.get(random.nextInt(SERIES_AMOUNT)),
+                    element, characterClass)
+                    .overwriteID("chara" + i)
+                    .withSkills(generateSkills(random))
+                    .limitBroken(random.nextDouble() < LIMIT_BROKEN_RATIO)
+                    .offensiveStatIs(2000 + random.nextInt(1000))
+                    .defenseIs(1500 + random.nextInt(1000))
+                    .magicDefenseIs(1500 + random.nextInt(1000))
+                    .wokeLevelIs(random.nextInt(5))
+                    .personalPreferenceIs(random.nextInt(11))
+                    .build();
+
+            characters.add(chara);
+
+            if (random.nextDouble() < EVENT_BONUS_RATIO) {
+                event.addBonusCharacter(chara);
+            }
+        }
+
+        List<Weapon> weapons = new ArrayList<>();
+
+        for (int i = 0; i < Math.round(size * weaponRatio); i++) {
+            GameCharacter exclusiveCharacter = characters.get(random.nextInt(size));
+            Weapon weapon = new Weapon.Builder("weapon" + i)
+                    .overwriteID("weapon" + i)
+                    .offensiveStatIs(random.nextInt(500))
+                    .defenseIs(random.nextInt(300))
+                    .magicDefenseIs(random.nextInt(300))
+                    .withSkill(generateSkill(random))
+                    .isExclusiveTo(exclusiveCharacter)
+                    .build();
+
+            weapons.add(weapon);
+
+            if (random.nextBoolean()) {
+                exclusiveCharacter.setPreferredWeapon(weapon);
+            }
+        }
+
+        return new Roster(characters, weapons, event);
+    }
+
+    private List<Skill> generateSkills(Random random) {
+        List<Skill> skills = new ArrayList<>();
+        // Every character has a totteoki (which SkillSetCheck uses to calculate damage)
+        skills.add(new Skill(SkillType.TOTTEOKI, null, SkillTarget.ENEMY_SINGLE, 1500 + random.nextInt(2000)));
+
+        for (int i = 1; i < skillsPerCharacter; i++) {
+            skills.add(generateSkill(random));
+        }
+
+        return skills;
+    }
+
+    private Skill generateSkill(Random random) {
+        SkillType[] buffsAndDebuffs = {SkillType.ATK, SkillType.MAT, SkillType.DEF, SkillType.MDF,
+                SkillType.getAppropriateElementalResistance(CharacterElement.values()[random.nextInt(6)]),
+                SkillType.CRIT_DAMAGE, SkillType.WEAK_ELEMENT_BONUS};
+        SkillType type = buffsAndDebuffs[random.nextInt(buffsAndDebuffs.length)];
+        SkillChange change = random.nextBoolean() ? SkillChange.UP : SkillChange.DOWN;
+        SkillTarget target = SkillTarget.values()[random.nextInt(SkillTarget.values().length)];
+
+        return new Skill(type, change, target, 5 + random.nextInt(40));
+    }
+}
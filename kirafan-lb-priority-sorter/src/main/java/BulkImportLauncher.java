@@ -0,0 +1,111 @@
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import logic.BulkImporter;
+import logic.Database;
+import logic.DatabaseHandler;
+import logic.JsonDBTemplateLoader;
+import logic.TransactionJournal;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/*
+* Imports series, weapons and characters from CSV or JSON files (see BulkImporter) into the json files without starting
+* JavaFX. All of the objects are written as a single transaction through the same journal as the GUI uses (see
+* TransactionJournal), so a crash can not leave e.g. characters whose series was never written. A journal left behind by
+* a crashed GUI session is recovered before importing. Nothing is written if any of the files has errors.
+*
+* Usage: BulkImportLauncher [--db <json files directory>] [--series <file>] [--weapons <file>] [--characters <file>]
+*
+* Files ending with .json are read as JSON, other files as CSV. The snapshot of the json files (see Snapshot) is
+* recreated the next time the program is started.
+*/
+public class BulkImportLauncher {
+    public static void main(String[] args) {
+        String dbFilesLocation = System.getProperty("user.dir") + "/json";
+        String seriesFile = null;
+        String weaponsFile = null;
+        String charactersFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+
+            if (i + 1 >= args.length) {
+                printUsage("Missing value for " + option);
+                return;
+            }
+
+            String value = args[++i];
+
+            if (option.equals("--db")) {
+                dbFilesLocation = value;
+            } else if (option.equals("--series")) {
+                seriesFile = value;
+            } else if (option.equals("--weapons")) {
+                weaponsFile = value;
+            } else if (option.equals("--characters")) {
+                charactersFile = value;
+            } else {
+                printUsage("Unknown option " + option + " " + value);
+                return;
+            }
+        }
+
+        JsonDBTemplateLoader template = new JsonDBTemplateLoader(dbFilesLocation, "domain.model");
+        Database<GameCharacter> characterDatabase = new Database<>(template, "characters");
+        Database<GameEvent> eventDatabase = new Database<>(template, "events");
+        Database<Series> seriesDatabase = new Database<>(template, "series");
+        Database<Weapon> weaponDatabase = new Database<>(template, "weapons");
+        DatabaseHandler databaseHandler = new DatabaseHandler(characterDatabase, eventDatabase, seriesDatabase, weaponDatabase);
+        // initializeCollections finishes writing a transaction which was interrupted by a crash
+        databaseHandler.setTransactionJournal(new TransactionJournal(new File(dbFilesLocation, "transactions.journal")));
+        databaseHandler.initializeCollections();
+        databaseHandler.initializeEvent();
+
+        BulkImporter importer = new BulkImporter();
+        boolean read = true;
+
+        try {
+            if (seriesFile != null) {
+                try (Reader reader = openFile(seriesFile)) {
+                    read &= importer.readSeries(reader, BulkImporter.Format.of(seriesFile));
+                }
+            }
+
+            if (weaponsFile != null) {
+                try (Reader reader = openFile(weaponsFile)) {
+                    read &= importer.readWeapons(reader, BulkImporter.Format.of(weaponsFile));
+                }
+            }
+
+            if (charactersFile != null) {
+                try (Reader reader = openFile(charactersFile)) {
+                    read &= importer.readCharacters(reader, BulkImporter.Format.of(charactersFile));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e);
+            System.exit(1);
+        }
+
+        if (!read || !importer.importAll(databaseHandler)) {
+            System.exit(1);
+        }
+
+        System.out.println("Imported " + importer.getSeries().size() + " series, " + importer.getWeapons().size()
+                + " weapons and " + importer.getCharacters().size() + " characters");
+    }
+
+    private static Reader openFile(String fileName) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8));
+    }
+
+    private static void printUsage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: BulkImportLauncher [--db <json files directory>] [--series <file>] [--weapons <file>] "
+                + "[--characters <file>]");
+        System.exit(1);
+    }
+}
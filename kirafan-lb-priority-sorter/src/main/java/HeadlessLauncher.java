@@ -0,0 +1,127 @@
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import logic.CheckPipeline;
+import logic.Database;
+import logic.DatabaseHandler;
+import logic.JsonDBTemplateLoader;
+import logic.RankingExporter;
+import logic.Snapshot;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/*
+* Ranks the non-limit broken characters without starting JavaFX and writes the ranking to stdout or to a file.
+*
+* Usage: HeadlessLauncher [--db <json files directory>] [--format csv|json|ndjson] [--output <file>] [--snapshot <file>]
+*                         [--rules <file>] [--top <k>]
+*
+* The default json files directory is the same as the GUI's (<working directory>/json) and the default format is CSV.
+* With --rules the characters are ranked with the checks of the given rules file (see CheckPipeline) instead of the
+* default checks. Each character is written with the check which ranked it below the character above it (see RankingExporter).
+* With --top only the k highest priority characters are selected (see TopRanking), which is faster than ranking all of
+* them. With --snapshot the characters are read from the given snapshot file (see Snapshot) if it is up to date, and otherwise
+* they are read from the json files and the snapshot file is created again.
+*/
+public class HeadlessLauncher {
+    public static void main(String[] args) {
+        String dbFilesLocation = System.getProperty("user.dir") + "/json";
+        RankingExporter.Format format = RankingExporter.Format.CSV;
+        String outputFile = null;
+        String snapshotFile = null;
+        CheckPipeline pipeline = CheckPipeline.DEFAULT;
+        int top = -1; // -1 ranks all of the characters
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+
+            if (i + 1 >= args.length) {
+                printUsage("Missing value for " + option);
+                return;
+            }
+
+            String value = args[++i];
+
+            if (option.equals("--db")) {
+                dbFilesLocation = value;
+            } else if (option.equals("--format") && value.equalsIgnoreCase("csv")) {
+                format = RankingExporter.Format.CSV;
+            } else if (option.equals("--format") && value.equalsIgnoreCase("json")) {
+                format = RankingExporter.Format.JSON;
+            } else if (option.equals("--format") && value.equalsIgnoreCase("ndjson")) {
+                format = RankingExporter.Format.NDJSON;
+            } else if (option.equals("--output")) {
+                outputFile = value;
+            } else if (option.equals("--snapshot")) {
+                snapshotFile = value;
+            } else if (option.equals("--top") && value.matches("\\d{1,9}")) {
+                top = Integer.parseInt(value);
+            } else if (option.equals("--rules")) {
+                pipeline = CheckPipeline.load(new File(value));
+
+                if (pipeline == null) {
+                    System.exit(1);
+                }
+            } else {
+                printUsage("Unknown option " + option + " " + value);
+                return;
+            }
+        }
+
+        /*
+        * All four collections are read with the same JsonDBTemplate so the json files are loaded only once (and not at
+        * all if the snapshot is up to date)
+        */
+        JsonDBTemplateLoader template = new JsonDBTemplateLoader(dbFilesLocation, "domain.model");
+        Database<GameCharacter> characterDatabase = new Database<>(template, "characters");
+        Database<GameEvent> eventDatabase = new Database<>(template, "events");
+        Database<Series> seriesDatabase = new Database<>(template, "series");
+        Database<Weapon> weaponDatabase = new Database<>(template, "weapons");
+        DatabaseHandler databaseHandler = new DatabaseHandler(characterDatabase, eventDatabase, seriesDatabase, weaponDatabase);
+        Snapshot snapshot = snapshotFile == null ? null : Snapshot.open(new File(snapshotFile), new File(dbFilesLocation));
+
+        if (snapshot != null) {
+            databaseHandler.initializeFromSnapshot(snapshot);
+        } else {
+            databaseHandler.initializeCollections();
+            databaseHandler.initializeEvent();
+
+            if (snapshotFile != null) {
+                databaseHandler.writeSnapshot(new File(snapshotFile), new File(dbFilesLocation));
+            }
+        }
+
+        RankingExporter.Ranking ranking = top < 0
+                ? RankingExporter.rankWithReasons(pipeline, databaseHandler.getAllCharacters(),
+                        databaseHandler.getAllWeapons(), databaseHandler.getEvent())
+                : RankingExporter.rankTopWithReasons(pipeline, databaseHandler.getAllCharacters(),
+                        databaseHandler.getAllWeapons(), databaseHandler.getEvent(), top);
+
+        if (outputFile == null) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+
+            if (!RankingExporter.export(ranking, format, writer)) {
+                System.exit(1);
+            }
+        } else {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile),
+                    StandardCharsets.UTF_8))) {
+                if (!RankingExporter.export(ranking, format, writer)) {
+                    System.exit(1);
+                }
+            } catch (IOException e) {
+                System.err.println(e);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static void printUsage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: HeadlessLauncher [--db <json files directory>] [--format csv|json|ndjson] [--output <file>] "
+                + "[--snapshot <file>] [--rules <file>] [--top <k>]");
+        System.exit(1);
+    }
+}
@@ -4,34 +4,138 @@ import domain.model.Series;
 import domain.model.Weapon;
 import javafx.application.Application;
 import javafx.stage.Stage;
+import logic.CheckPipeline;
 import logic.Database;
 import logic.DatabaseHandler;
+import logic.JsonDBTemplateLoader;
+import logic.Snapshot;
+import logic.TransactionJournal;
+import logic.WriteBehindQueue;
 import logic.controllers.Controller;
 import logic.controllers.MainWindowController;
 
+import java.io.File;
 import java.net.URL;
 
 public class Main extends Application {
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    private WriteBehindQueue writeBehindQueue;
+    private DatabaseHandler databaseHandler;
+    private File snapshotFile;
+
     @Override
     public void start(Stage window) throws Exception {
         String dbFilesLocation = System.getProperty("user.dir") + "/json";
         String modelPackageName = "domain.model";
 
-        Database<GameCharacter> characterDatabase = new Database<>(dbFilesLocation, modelPackageName, "characters");
-        Database<GameEvent> eventDatabase = new Database<>(dbFilesLocation, modelPackageName, "events");
-        Database<Series> seriesDatabase = new Database<>(dbFilesLocation, modelPackageName, "series");
-        Database<Weapon> weaponDatabase = new Database<>(dbFilesLocation, modelPackageName, "weapons");
-        DatabaseHandler databaseHandler = new DatabaseHandler(characterDatabase, eventDatabase, seriesDatabase, weaponDatabase);
-        databaseHandler.initializeCollections();
-        databaseHandler.initializeEvent();
+        /*
+        * Changes are written into the json files in batches by a background thread (see WriteBehindQueue), so that e.g.
+        * deleting a series with many characters does not rewrite the json files once per character. The flushes go
+        * through a journal, so a crash in the middle of a flush can not leave the json files half-updated. Changes made
+        * after the last flush (by default the last second) are lost if the program crashes, so the durability and the
+        * flush interval can be set when starting the program (see readDurability and readFlushIntervalMillis).
+        *
+        * If the snapshot of the json files is up to date, the program starts from it and the json files are read on a
+        * background thread (they are needed only when something is changed). Otherwise the json files are read right
+        * away and the snapshot is created again.
+        */
+        File dbFilesFolder = new File(dbFilesLocation);
+        snapshotFile = new File(dbFilesFolder, Snapshot.FILE_NAME);
+        JsonDBTemplateLoader template = new JsonDBTemplateLoader(dbFilesLocation, modelPackageName);
+        TransactionJournal journal = new TransactionJournal(new File(dbFilesFolder, "transactions.journal"));
+        writeBehindQueue = new WriteBehindQueue(readDurability(), readFlushIntervalMillis(), journal);
+        Database<GameCharacter> characterDatabase = writeBehindQueue.createDatabase(template, "characters");
+        Database<GameEvent> eventDatabase = writeBehindQueue.createDatabase(template, "events");
+        Database<Series> seriesDatabase = writeBehindQueue.createDatabase(template, "series");
+        Database<Weapon> weaponDatabase = writeBehindQueue.createDatabase(template, "weapons");
+        databaseHandler = new DatabaseHandler(characterDatabase, eventDatabase, seriesDatabase, weaponDatabase);
+
+        // A journal left behind by a crash has changes which are not in the json files yet, so the snapshot is not used
+        Snapshot snapshot = journal.exists() ? null : Snapshot.open(snapshotFile, dbFilesFolder);
+
+        if (snapshot != null) {
+            databaseHandler.initializeFromSnapshot(snapshot);
+            template.loadInBackground();
+        } else {
+            databaseHandler.initializeCollections();
+            writeBehindQueue.recover();
+            databaseHandler.initializeEvent();
+
+            /*
+            * A failed migration has been rolled back, and no snapshot is written until the ids have been migrated (see
+            * DatabaseHandler.writeSnapshot), so the json files are read and the migration is tried again on the next start
+            */
+            if (databaseHandler.migrateIds()) {
+                writeBehindQueue.flush();
+                databaseHandler.writeSnapshot(snapshotFile, dbFilesFolder);
+            }
+        }
 
         URL url = getClass().getClassLoader().getResource("fxml/main.fxml");
         MainWindowController controller = new MainWindowController();
         controller.setDatabaseHandler(databaseHandler);
+        controller.setCheckPipeline(loadCheckPipeline(new File(dbFilesFolder, "priority.rules")));
         String windowTitle = "Kirafan limit break priority sorter";
         Controller.openWindow(url, controller, windowTitle);
     }
 
+    private static WriteBehindQueue.Durability readDurability() {
+        // Starting the program with -Dkirafan.durability=WRITE_THROUGH writes every change into the json files right away
+        String durability = System.getProperty("kirafan.durability");
+
+        if (durability == null) {
+            return WriteBehindQueue.Durability.WRITE_BEHIND;
+        }
+
+        try {
+            return WriteBehindQueue.Durability.valueOf(durability.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown durability " + durability + ", the changes are written behind");
+
+            return WriteBehindQueue.Durability.WRITE_BEHIND;
+        }
+    }
+
+    private static long readFlushIntervalMillis() {
+        // E.g. -Dkirafan.flushIntervalMillis=200 writes the changes into the json files five times a second
+        long flushIntervalMillis = Long.getLong("kirafan.flushIntervalMillis", DEFAULT_FLUSH_INTERVAL_MILLIS);
+
+        if (flushIntervalMillis <= 0) {
+            System.out.println("The flush interval must be positive, using " + DEFAULT_FLUSH_INTERVAL_MILLIS + " ms");
+
+            return DEFAULT_FLUSH_INTERVAL_MILLIS;
+        }
+
+        return flushIntervalMillis;
+    }
+
+    private CheckPipeline loadCheckPipeline(File rulesFile) {
+        // The default checks are used if there is no rules file or if it is not valid
+        if (!rulesFile.exists()) {
+            return CheckPipeline.DEFAULT;
+        }
+
+        CheckPipeline pipeline = CheckPipeline.load(rulesFile);
+
+        return pipeline != null ? pipeline : CheckPipeline.DEFAULT;
+    }
+
+    @Override
+    public void stop() {
+        /*
+        * Writes the changes which have not been written yet, and a new snapshot if the json files have been changed
+        * (unless the ids could not be migrated)
+        */
+        if (writeBehindQueue != null) {
+            writeBehindQueue.close();
+
+            if (!Snapshot.isFresh(snapshotFile, snapshotFile.getParentFile())) {
+                databaseHandler.writeSnapshot(snapshotFile, snapshotFile.getParentFile());
+            }
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,38 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+* Creates the ids of characters, series and weapons. Older versions of the program used new Date().toString() as the id,
+* which has a resolution of one second, so objects created within the same second (e.g. when importing) got the same id.
+*
+* An id is a 64-bit number written as 16 hexadecimal digits: the upper bits are the creation time in milliseconds and the
+* lowest 12 bits a sequence number, so up to 4096 ids can be created per millisecond. Every id is greater than the
+* previous one (even if the clock is turned back), so the ids never collide and sort in the order they were created.
+*/
+public class IdGenerator {
+    private static final int SEQUENCE_BITS = 12;
+    private static final int ID_LENGTH = 16;
+
+    private static final AtomicLong lastId = new AtomicLong();
+
+    public static String nextId() {
+        long id = lastId.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis() << SEQUENCE_BITS));
+
+        return String.format("%016x", id);
+    }
+
+    public static boolean isGeneratedId(String id) {
+        // Returns true if the id has the format of the ids created by nextId
+        return id != null && id.length() == ID_LENGTH && id.chars().allMatch(c -> Character.digit(c, 16) >= 0
+                && !Character.isUpperCase(c));
+    }
+
+    public static void reserve(String id) {
+        // Makes sure that nextId returns only ids greater than the given existing id (in case the clock has been turned back)
+        if (isGeneratedId(id)) {
+            long value = Long.parseUnsignedLong(id, 16);
+            lastId.updateAndGet(last -> Math.max(last, value));
+        }
+    }
+}
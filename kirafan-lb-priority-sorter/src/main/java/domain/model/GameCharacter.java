@@ -4,12 +4,12 @@ import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import domain.CharacterClass;
 import domain.CharacterElement;
+import domain.IdGenerator;
 import domain.Skill;
 import io.jsondb.annotation.Document;
 import io.jsondb.annotation.Id;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
@@ -35,7 +35,7 @@ public class GameCharacter implements Comparable<GameCharacter> {
             this.series = series;
             this.characterElement = characterElement;
             this.characterClass = characterClass;
-            id = new Date().toString();
+            id = IdGenerator.nextId();
             skills = new ArrayList<>();
             preferredWeapon = null;
             limitBroken = false;
@@ -259,7 +259,8 @@ public class GameCharacter implements Comparable<GameCharacter> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getId());
+        // Same value as Objects.hash(getId()), without allocating a varargs array for every HashMap lookup
+        return 31 + Objects.hashCode(getId());
     }
 
     @Override
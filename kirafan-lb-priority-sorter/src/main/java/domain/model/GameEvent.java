@@ -1,17 +1,31 @@
 package domain.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.jsondb.annotation.Document;
 import io.jsondb.annotation.Id;
 
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Set;
+import java.util.function.Function;
+
+/*
+* The bonus characters and the available series of the event are stored as ids, so that updating a character or a series
+* does not require rewriting the event as well (the objects are looked up by id, see DatabaseHandler.getEventCharacters).
+*
+* Event documents written by older versions of the program store full copies of the characters and series instead
+* (properties bonusCharacters and availableSeries). Those are still read, and hasOldFormat returns true for an event read
+* from such a document so that it can be rewritten with ids (see DatabaseHandler.initializeEvent). The schemaVersion is
+* not changed, since JsonDB would load a collection with a different schemaVersion as read-only.
+*/
 @Document(collection = "events", schemaVersion = "1.0")
 public class GameEvent {
     @Id
     private String id;
-    private List<GameCharacter> bonusCharacters; // Characters which give out bonus during the event
-    private List<Series> availableSeries; // Series which have limit breaks available during the event
+    private Set<String> bonusCharacterIds; // Ids of the characters which give out bonus during the event
+    private Set<String> availableSeriesIds; // Ids of the series which have limit breaks available during the event
+    private boolean oldFormat;
 
     // Jackson requires a public constructor with no parameters
     public GameEvent() {
@@ -19,8 +33,8 @@ public class GameEvent {
 
     public GameEvent(String id) {
         this.id = id;
-        bonusCharacters = new ArrayList<>();
-        availableSeries = new ArrayList<>();
+        bonusCharacterIds = new LinkedHashSet<>();
+        availableSeriesIds = new LinkedHashSet<>();
     }
 
     public String getId() {
@@ -31,47 +45,88 @@ public class GameEvent {
         this.id = id;
     }
 
-    public List<GameCharacter> getBonusCharacters() {
-        return bonusCharacters;
+    public Set<String> getBonusCharacterIds() {
+        return bonusCharacterIds;
+    }
+
+    public void setBonusCharacterIds(Set<String> bonusCharacterIds) {
+        this.bonusCharacterIds = bonusCharacterIds == null ? null : new LinkedHashSet<>(bonusCharacterIds);
     }
 
+    @JsonIgnore
     public void setBonusCharacters(List<GameCharacter> bonusCharacters) {
-        this.bonusCharacters = bonusCharacters;
+        bonusCharacterIds = toIds(bonusCharacters, GameCharacter::getId);
+    }
+
+    @JsonProperty("bonusCharacters")
+    private void readOldBonusCharacters(List<GameCharacter> bonusCharacters) {
+        setBonusCharacters(bonusCharacters);
+        oldFormat = true;
+    }
+
+    public boolean isBonusCharacter(GameCharacter character) {
+        return bonusCharacterIds != null && bonusCharacterIds.contains(character.getId());
     }
 
     public void addBonusCharacter(GameCharacter character) {
-        if (!bonusCharacters.contains(character)) {
-            bonusCharacters.add(character);
-        }
+        bonusCharacterIds.add(character.getId());
     }
 
     public void removeBonusCharacter(GameCharacter character) {
-        bonusCharacters.remove(character);
+        bonusCharacterIds.remove(character.getId());
     }
 
     public void clearBonusCharacters() {
-        bonusCharacters.clear();
+        bonusCharacterIds.clear();
     }
 
-    public List<Series> getAvailableSeries() {
-        return availableSeries;
+    public Set<String> getAvailableSeriesIds() {
+        return availableSeriesIds;
     }
 
+    public void setAvailableSeriesIds(Set<String> availableSeriesIds) {
+        this.availableSeriesIds = availableSeriesIds == null ? null : new LinkedHashSet<>(availableSeriesIds);
+    }
+
+    @JsonIgnore
     public void setAvailableSeries(List<Series> availableSeries) {
-        this.availableSeries = availableSeries;
+        availableSeriesIds = toIds(availableSeries, Series::getId);
+    }
+
+    @JsonProperty("availableSeries")
+    private void readOldAvailableSeries(List<Series> availableSeries) {
+        setAvailableSeries(availableSeries);
+        oldFormat = true;
+    }
+
+    public boolean isAvailableSeries(Series series) {
+        return availableSeriesIds != null && availableSeriesIds.contains(series.getId());
     }
 
     public void addAvailableSeries(Series series) {
-        if (!this.availableSeries.contains(series)) {
-            this.availableSeries.add(series);
-        }
+        availableSeriesIds.add(series.getId());
     }
 
     public void removeAvailableSeries(Series series) {
-        this.availableSeries.remove(series);
+        availableSeriesIds.remove(series.getId());
     }
 
     public void clearAvailableSeries() {
-        availableSeries.clear();
+        availableSeriesIds.clear();
+    }
+
+    public boolean hasOldFormat() {
+        return oldFormat;
+    }
+
+    private static <T> Set<String> toIds(List<T> objects, Function<T, String> idFunction) {
+        if (objects == null) {
+            return null;
+        }
+
+        Set<String> ids = new LinkedHashSet<>();
+        objects.forEach(o -> ids.add(idFunction.apply(o)));
+
+        return ids;
     }
 }
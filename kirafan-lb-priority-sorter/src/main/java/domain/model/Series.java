@@ -1,10 +1,10 @@
 package domain.model;
 
 import domain.CreaStatus;
+import domain.IdGenerator;
 import io.jsondb.annotation.Document;
 import io.jsondb.annotation.Id;
 
-import java.util.Date;
 import java.util.Objects;
 
 @Document(collection = "series", schemaVersion = "1.0")
@@ -24,7 +24,7 @@ public class Series implements Comparable<Series> {
     }
 
     public Series(String name, CreaStatus creaStatus) {
-        this(name, creaStatus, new Date().toString());
+        this(name, creaStatus, IdGenerator.nextId());
     }
 
     public String getId() {
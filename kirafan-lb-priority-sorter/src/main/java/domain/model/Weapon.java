@@ -3,12 +3,12 @@ package domain.model;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import domain.IdGenerator;
 import domain.Skill;
 import io.jsondb.annotation.Document;
 import io.jsondb.annotation.Id;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,7 +25,7 @@ public class Weapon implements Comparable<Weapon> {
         private String exclusiveCharacterId;
 
         public Builder(String name) {
-            id = new Date().toString();
+            id = IdGenerator.nextId();
             this.name = name;
             offensiveStat = 0;
             defense = 0;
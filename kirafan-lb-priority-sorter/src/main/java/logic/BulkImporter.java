@@ -0,0 +1,556 @@
+package logic;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.Series;
+import domain.model.Weapon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+* Reads series, weapons and characters from CSV or JSON files and adds them with a single DataHandler.addAll call, so
+* that e.g. a whole list of characters is written into the json files as one transaction instead of one write per
+* character.
+*
+* A CSV file has a header row with the names of the columns (in any order, missing columns get their default values)
+* and one object per line, a JSON file has an array of objects with the same fields. The files are read one object at a
+* time. The fields are:
+*   series: id, name, creaStatus
+*   weapons: id, name, offensiveStat, defense, magicDefense, skills, exclusiveCharacter
+*   characters: id, name, series, element, class, offensiveStat, defense, magicDefense, skills, preferredWeapon,
+*               limitBroken, wokeLevel, personalPreference
+*
+* The id is optional, objects without one get a new id. Enum values are either the name of the constant or its English
+* name (e.g. ALLY_SELF or Self), ignoring case. Skills are separated with semicolons (or given as a JSON array) and each
+* skill is its type, change, target and power separated with spaces, e.g. "ATK UP ALLY_SELF 24.5; TOTTEOKI ENEMY_ALL 3759"
+* (the change, target and power can be left out). The series, exclusive character and preferred weapon are referred
+* to by id or by name, and they can be either existing objects or objects read from the files.
+*
+* The records are validated while they are read and the references are resolved in importAll. If there are any errors
+* they are all printed and nothing is added.
+*/
+public class BulkImporter {
+    public enum Format {
+        CSV,
+        JSON;
+
+        public static Format of(String fileName) {
+            return fileName.toLowerCase().endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private List<Series> series;
+    private List<Weapon> weapons;
+    private List<GameCharacter> characters;
+    private Map<Object, Reference> references; // References of the read objects which are resolved in importAll
+    private List<String> errors;
+
+    private static class Reference {
+        private final String record; // e.g. "characters record 3", for error messages
+        private final String series;
+        private final String weapon;
+        private final String character;
+
+        private Reference(String record, String series, String weapon, String character) {
+            this.record = record;
+            this.series = series;
+            this.weapon = weapon;
+            this.character = character;
+        }
+    }
+
+    public BulkImporter() {
+        series = new ArrayList<>();
+        weapons = new ArrayList<>();
+        characters = new ArrayList<>();
+        references = new IdentityHashMap<>();
+        errors = new ArrayList<>();
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+
+    public List<Weapon> getWeapons() {
+        return weapons;
+    }
+
+    public List<GameCharacter> getCharacters() {
+        return characters;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public boolean readSeries(Reader reader, Format format) {
+        return read(reader, format, "series", record -> {
+            String name = getRequired(record, "name");
+            CreaStatus creaStatus = getEnum(record, record.get("creaStatus"), CreaStatus.class);
+            Series s = new Series(name, creaStatus == null ? CreaStatus.NONE : creaStatus, getId(record));
+            series.add(s);
+        });
+    }
+
+    public boolean readWeapons(Reader reader, Format format) {
+        return read(reader, format, "weapons", record -> {
+            Weapon weapon = new Weapon.Builder(getRequired(record, "name"))
+                    .overwriteID(getId(record))
+                    .offensiveStatIs(getInt(record, "offensiveStat"))
+                    .defenseIs(getInt(record, "defense"))
+                    .magicDefenseIs(getInt(record, "magicDefense"))
+                    .withSkills(getSkills(record))
+                    .build();
+            weapons.add(weapon);
+            references.put(weapon, new Reference(record.name, null, null, record.get("exclusiveCharacter")));
+        });
+    }
+
+    public boolean readCharacters(Reader reader, Format format) {
+        return read(reader, format, "characters", record -> {
+            String name = getRequired(record, "name");
+            String seriesReference = getRequired(record, "series");
+            CharacterElement element = getEnum(record, getRequired(record, "element"), CharacterElement.class);
+            CharacterClass characterClass = getEnum(record, getRequired(record, "class"), CharacterClass.class);
+
+            GameCharacter character = new GameCharacter.Builder(name, null, element, characterClass)
+                    .overwriteID(getId(record))
+                    .offensiveStatIs(getInt(record, "offensiveStat"))
+                    .defenseIs(getInt(record, "defense"))
+                    .magicDefenseIs(getInt(record, "magicDefense"))
+                    .withSkills(getSkills(record))
+                    .limitBroken(getBoolean(record, "limitBroken"))
+                    .wokeLevelIs(getInt(record, "wokeLevel"))
+                    .personalPreferenceIs(getInt(record, "personalPreference"))
+                    .build();
+            characters.add(character);
+            references.put(character, new Reference(record.name, seriesReference, record.get("preferredWeapon"), null));
+        });
+    }
+
+    public boolean importAll(DataHandler dataHandler) {
+        /*
+        * Resolves the references of the read objects against the existing objects of the handler and the read objects,
+        * and adds the read objects to the handler as a single transaction. Returns false (and adds nothing) if any
+        * record is invalid.
+        */
+        Index<Series> seriesIndex = new Index<>(dataHandler.getAllSeries(), series, Series::getId, Series::getName);
+        Index<Weapon> weaponIndex = new Index<>(dataHandler.getAllWeapons(), weapons, Weapon::getId, Weapon::getName);
+        Index<GameCharacter> characterIndex = new Index<>(dataHandler.getAllCharacters(), characters,
+                GameCharacter::getId, GameCharacter::getName);
+
+        for (Weapon weapon : weapons) {
+            Reference reference = references.get(weapon);
+
+            if (reference.character != null) {
+                GameCharacter exclusiveCharacter = characterIndex.resolve(reference.character, reference.record,
+                        "exclusiveCharacter");
+
+                if (exclusiveCharacter != null) {
+                    weapon.setExclusiveCharacter(exclusiveCharacter);
+                    weapon.setExclusiveCharacterId(exclusiveCharacter.getId());
+                }
+            }
+        }
+
+        for (GameCharacter character : characters) {
+            Reference reference = references.get(character);
+
+            if (reference.series != null) {
+                character.setSeries(seriesIndex.resolve(reference.series, reference.record, "series"));
+            }
+
+            if (reference.weapon != null) {
+                Weapon preferredWeapon = weaponIndex.resolve(reference.weapon, reference.record, "preferredWeapon");
+
+                // Like in the character window, a character can only prefer a weapon which is not exclusive to another
+                if (preferredWeapon != null && preferredWeapon.getExclusiveCharacterId() != null
+                        && !preferredWeapon.getExclusiveCharacterId().equals(character.getId())) {
+                    errors.add(reference.record + ": preferredWeapon " + reference.weapon
+                            + " is exclusive to another character");
+                }
+
+                character.setPreferredWeapon(preferredWeapon);
+            }
+        }
+
+        seriesIndex.checkNewIds("series");
+        weaponIndex.checkNewIds("weapons");
+        characterIndex.checkNewIds("characters");
+
+        if (!errors.isEmpty()) {
+            errors.forEach(System.out::println);
+            System.out.println("Failed to import, " + errors.size() + " errors");
+            return false;
+        }
+
+        return dataHandler.addAll(series, characters, weapons);
+    }
+
+    private class Index<T> {
+        // The existing and the read objects by id and by name
+        private final Map<String, T> existingById;
+        private final Map<String, T> readById;
+        private final Map<String, List<T>> byName;
+        private final List<String> duplicateIds; // Ids of the read objects which are already used
+
+        private Index(List<T> existingObjects, List<T> readObjects, Function<T, String> getId, Function<T, String> getName) {
+            existingById = new HashMap<>();
+            readById = new HashMap<>();
+            byName = new HashMap<>();
+            duplicateIds = new ArrayList<>();
+
+            for (T t : existingObjects) {
+                existingById.put(getId.apply(t), t);
+                byName.computeIfAbsent(getName.apply(t), name -> new ArrayList<>()).add(t);
+            }
+
+            for (T t : readObjects) {
+                String id = getId.apply(t);
+
+                if (existingById.containsKey(id) || readById.put(id, t) != null) {
+                    duplicateIds.add(id);
+                }
+
+                byName.computeIfAbsent(getName.apply(t), name -> new ArrayList<>()).add(t);
+            }
+        }
+
+        private void checkNewIds(String collectionName) {
+            duplicateIds.forEach(id -> errors.add(collectionName + ": id " + id + " already exists"));
+        }
+
+        private T resolve(String reference, String record, String field) {
+            T t = existingById.containsKey(reference) ? existingById.get(reference) : readById.get(reference);
+
+            if (t != null) {
+                return t;
+            }
+
+            List<T> withName = byName.getOrDefault(reference, Collections.emptyList());
+
+            if (withName.size() == 1) {
+                return withName.get(0);
+            }
+
+            errors.add(record + ": " + field + " " + reference
+                    + (withName.isEmpty() ? " does not exist" : " is ambiguous, refer to it by id"));
+
+            return null;
+        }
+    }
+
+    // Reading the records
+
+    private class Record {
+        private final String name; // e.g. "characters record 3"
+        private final Map<String, String> fields;
+
+        private Record(String name, Map<String, String> fields) {
+            this.name = name;
+            this.fields = fields;
+        }
+
+        private String get(String field) {
+            String value = fields.get(field);
+
+            return value == null || value.trim().isEmpty() ? null : value.trim();
+        }
+
+        private void error(String message) {
+            errors.add(name + ": " + message);
+        }
+    }
+
+    private boolean read(Reader reader, Format format, String collectionName, Consumer<Record> recordReader) {
+        // Returns false if the file could not be read at all, errors in single records are collected into errors
+        try {
+            if (format == Format.JSON) {
+                readJson(reader, collectionName, recordReader);
+            } else {
+                readCsv(reader, collectionName, recordReader);
+            }
+
+            return true;
+        } catch (IOException e) {
+            System.out.println("Failed to read " + collectionName + ": " + e.getMessage());
+            errors.add(collectionName + ": " + e.getMessage());
+
+            return false;
+        }
+    }
+
+    private void readCsv(Reader reader, String collectionName, Consumer<Record> recordReader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String headerLine = lines.readLine();
+
+        if (headerLine == null) {
+            return;
+        }
+
+        List<String> headers = parseCsvLine(headerLine);
+        String line;
+        int lineNumber = 1;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            int recordLineNumber = lineNumber;
+            StringBuilder record = new StringBuilder(line);
+            boolean quoted = hasOddNumberOfQuotes(line);
+
+            // A quoted value may contain line breaks (see RankingExporter.escapeCsv), so the record continues on the next line
+            while (quoted && (line = lines.readLine()) != null) {
+                lineNumber++;
+                record.append('\n').append(line);
+                quoted = quoted != hasOddNumberOfQuotes(line);
+            }
+
+            if (record.toString().trim().isEmpty()) {
+                continue;
+            }
+
+            List<String> values = parseCsvLine(record.toString());
+            Map<String, String> fields = new HashMap<>();
+
+            for (int i = 0; i < headers.size() && i < values.size(); i++) {
+                fields.put(headers.get(i).trim(), values.get(i));
+            }
+
+            recordReader.accept(new Record(collectionName + " line " + recordLineNumber, fields));
+        }
+    }
+
+    private static boolean hasOddNumberOfQuotes(String line) {
+        // An escaped quote ("") counts twice, so only the quotes which open or close a value change the result
+        boolean odd = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                odd = !odd;
+            }
+        }
+
+        return odd;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        // Splits a record at the commas which are not inside quotes (see RankingExporter.escapeCsv)
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+
+        values.add(value.toString());
+
+        return values;
+    }
+
+    private void readJson(Reader reader, String collectionName, Consumer<Record> recordReader) throws IOException {
+        // Only one object of the array is in memory at a time
+        try (JsonParser parser = mapper.getFactory().createParser(reader)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("expected an array of objects");
+            }
+
+            int recordNumber = 0;
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                recordNumber++;
+                JsonNode node = mapper.readTree(parser);
+                Map<String, String> fields = new HashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> nodeFields = node.fields();
+
+                while (nodeFields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = nodeFields.next();
+                    fields.put(field.getKey(), toText(field.getValue()));
+                }
+
+                recordReader.accept(new Record(collectionName + " record " + recordNumber, fields));
+            }
+
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("expected an array of objects");
+            }
+        }
+    }
+
+    private static String toText(JsonNode node) {
+        // Arrays (of skills) are joined the same way as in CSV files
+        if (node.isNull()) {
+            return null;
+        }
+
+        if (!node.isArray()) {
+            return node.asText();
+        }
+
+        StringJoiner joiner = new StringJoiner(";");
+        node.forEach(element -> joiner.add(element.asText()));
+
+        return joiner.toString();
+    }
+
+    // Reading the fields of a record
+
+    private static String getId(Record record) {
+        String id = record.get("id");
+
+        return id == null ? IdGenerator.nextId() : id;
+    }
+
+    private static String getRequired(Record record, String field) {
+        String value = record.get(field);
+
+        if (value == null) {
+            record.error(field + " is required");
+        }
+
+        return value;
+    }
+
+    private static int getInt(Record record, String field) {
+        String value = record.get(field);
+
+        if (value == null) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            record.error(field + " " + value + " is not an integer");
+            return 0;
+        }
+    }
+
+    private static boolean getBoolean(Record record, String field) {
+        String value = record.get(field);
+
+        if (value == null || value.equalsIgnoreCase("false")) {
+            return false;
+        }
+
+        if (!value.equalsIgnoreCase("true")) {
+            record.error(field + " " + value + " is not true or false");
+        }
+
+        return value.equalsIgnoreCase("true");
+    }
+
+    private static <E extends Enum<E>> E getEnum(Record record, String value, Class<E> enumClass) {
+        if (value == null) {
+            return null;
+        }
+
+        E constant = parseEnum(value, enumClass);
+
+        if (constant == null) {
+            record.error(value + " is not a " + enumClass.getSimpleName());
+        }
+
+        return constant;
+    }
+
+    static <E extends Enum<E>> E parseEnum(String value, Class<E> enumClass) {
+        // Accepts both the name of the constant and its toString (the English name), ignoring case
+        for (E constant : enumClass.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value) || constant.toString().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+
+        return null;
+    }
+
+    private static List<Skill> getSkills(Record record) {
+        List<Skill> skills = new ArrayList<>();
+        String value = record.get("skills");
+
+        if (value == null) {
+            return skills;
+        }
+
+        for (String skillText : value.split(";")) {
+            if (skillText.trim().isEmpty()) {
+                continue;
+            }
+
+            Skill skill = parseSkill(skillText.trim());
+
+            if (skill == null) {
+                record.error("skill " + skillText.trim() + " is not valid");
+            } else {
+                skills.add(skill);
+            }
+        }
+
+        return skills;
+    }
+
+    static Skill parseSkill(String text) {
+        // Returns null if the text is not a valid skill, see the comment of the class for the format
+        String[] tokens = text.split("\\s+");
+        SkillType type = parseEnum(tokens[0], SkillType.class);
+        int i = 1;
+
+        if (type == null) {
+            return null;
+        }
+
+        SkillChange change = i < tokens.length ? parseEnum(tokens[i], SkillChange.class) : null;
+
+        if (change != null) {
+            i++;
+        }
+
+        SkillTarget target = i < tokens.length ? parseEnum(tokens[i], SkillTarget.class) : null;
+
+        if (target != null) {
+            i++;
+        }
+
+        double power = 0;
+
+        if (i < tokens.length) {
+            try {
+                power = Double.parseDouble(tokens[i++]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return i == tokens.length ? new Skill(type, change, target, power) : null;
+    }
+}
@@ -2,19 +2,157 @@ package logic;
 
 import domain.*;
 import domain.model.GameCharacter;
-import domain.model.Series;
 import domain.model.Weapon;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public final class Calculator {
     private Calculator() {}
 
-    // Returns sum of doubles rounded to 3 decimal places
+    /*
+    * The arithmetic functions below are done with decimal numbers (instead of plain double arithmetic) so that e.g.
+    * 0.1 + 0.2 returns 0.3 instead of 0.30000000000000004. They are called for every skill total and every damage
+    * calculation, so instead of always creating BigDecimals they first try a fixed-point fast path: a double which has
+    * at most MAX_FAST_SCALE decimals (e.g. all skill powers) is turned into a long of its unscaled digits (e.g. 10.35 ->
+    * 1035 with a scale of 2), and the calculation is done with longs. The fast path returns exactly the same doubles
+    * as the BigDecimal versions (which are kept as a reference, see CalculatorTest). If a value has too many decimals
+    * or the longs would get too large, the BigDecimal version is used instead.
+    */
+    private static final int MAX_FAST_SCALE = 10;
+
+    // Unscaled values are kept under 2^50, so that a double can hold them exactly with room to spare
+    private static final long MAX_FAST_UNSCALED = 1L << 50;
+
+    // Powers of ten which doubles can represent exactly
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L,
+            100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L,
+            10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+
+    /*
+    * A product on the fast path is kept as its unscaled value and its scale packed into a single long (the scale in the
+    * lowest SCALE_BITS bits), so that multiplying by one factor at a time needs no objects or arrays.
+    * NO_FAST_PRODUCT means that the product does not fit the fast path.
+    */
+    private static final int SCALE_BITS = 8;
+    private static final long SCALE_MASK = (1L << SCALE_BITS) - 1;
+    private static final long FAST_ONE = 1L << SCALE_BITS;
+    private static final long NO_FAST_PRODUCT = Long.MIN_VALUE;
+
+    // Returns sum of doubles rounded to 4 decimal places
     public static double sumDoubles(double... doubles) {
+        int commonScale = 0;
+
+        for (double d : doubles) {
+            int scale = getFastScale(d);
+
+            if (scale < 0) {
+                return sumDoublesWithBigDecimals(doubles);
+            }
+
+            commonScale = Math.max(commonScale, scale);
+        }
+
+        long sum = 0;
+
+        for (double d : doubles) {
+            sum = addUnscaled(sum, d, getFastScale(d), commonScale);
+        }
+
+        sum = roundToFourDecimals(sum, commonScale);
+
+        if (sum == Long.MIN_VALUE) {
+            return sumDoublesWithBigDecimals(doubles);
+        }
+
+        return sum / DOUBLE_POWERS_OF_TEN[4];
+    }
+
+    /*
+    * Fixed-arity versions of sumDoubles and multiplyDoubles. The damage calculation adds and multiplies a handful of
+    * values at a time, and these do it without allocating a varargs array (the BigDecimal versions are only used when a
+    * value does not fit the fast path). The missing values of sum are zeros, which do not change the sum.
+    */
+    public static double sum(double a, double b) {
+        return sum(a, b, 0, 0, 0);
+    }
+
+    public static double sum(double a, double b, double c) {
+        return sum(a, b, c, 0, 0);
+    }
+
+    public static double sum(double a, double b, double c, double d) {
+        return sum(a, b, c, d, 0);
+    }
+
+    public static double sum(double a, double b, double c, double d, double e) {
+        int scaleA = getFastScale(a);
+        int scaleB = getFastScale(b);
+        int scaleC = getFastScale(c);
+        int scaleD = getFastScale(d);
+        int scaleE = getFastScale(e);
+
+        if (scaleA < 0 || scaleB < 0 || scaleC < 0 || scaleD < 0 || scaleE < 0) {
+            return sumDoublesWithBigDecimals(a, b, c, d, e);
+        }
+
+        int commonScale = Math.max(Math.max(Math.max(scaleA, scaleB), Math.max(scaleC, scaleD)), scaleE);
+        long sum = addUnscaled(0, a, scaleA, commonScale);
+        sum = addUnscaled(sum, b, scaleB, commonScale);
+        sum = addUnscaled(sum, c, scaleC, commonScale);
+        sum = addUnscaled(sum, d, scaleD, commonScale);
+        sum = addUnscaled(sum, e, scaleE, commonScale);
+        sum = roundToFourDecimals(sum, commonScale);
+
+        if (sum == Long.MIN_VALUE) {
+            return sumDoublesWithBigDecimals(a, b, c, d, e);
+        }
+
+        return sum / DOUBLE_POWERS_OF_TEN[4];
+    }
+
+    private static long addUnscaled(long sum, double d, int scale, int commonScale) {
+        // Adds d with commonScale decimals to sum, or returns Long.MIN_VALUE if the sum would not stay under 2^60
+        if (sum == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+
+        long unscaled = rescale(Math.round(d * DOUBLE_POWERS_OF_TEN[scale]), commonScale - scale);
+
+        if (unscaled == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+
+        // Both the sum and the rescaled value are under 2^60, so the addition can not overflow before the check
+        sum += unscaled;
+
+        return Math.abs(sum) >= MAX_FAST_UNSCALED << 10 ? Long.MIN_VALUE : sum;
+    }
+
+    private static long roundToFourDecimals(long sum, int scale) {
+        // Returns Long.MIN_VALUE if the rounded sum would not stay under 2^50
+        if (sum == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+
+        if (scale > 4) {
+            sum = divideHalfUp(sum, LONG_POWERS_OF_TEN[scale - 4]);
+        } else {
+            sum = rescale(sum, 4 - scale);
+        }
+
+        return sum == Long.MIN_VALUE || Math.abs(sum) >= MAX_FAST_UNSCALED ? Long.MIN_VALUE : sum;
+    }
+
+    static double sumDoublesWithBigDecimals(double... doubles) {
         BigDecimal sum = BigDecimal.valueOf(0);
 
         for (double d : doubles) {
@@ -30,6 +168,79 @@ public final class Calculator {
             return 0;
         }
 
+        long product = FAST_ONE;
+
+        for (double d : doubles) {
+            product = multiplyUnscaled(product, d);
+        }
+
+        if (product == NO_FAST_PRODUCT) {
+            return multiplyDoublesWithBigDecimals(doubles);
+        }
+
+        return toDouble(product);
+    }
+
+    public static double multiply(double a, double b) {
+        long product = multiplyUnscaled(multiplyUnscaled(FAST_ONE, a), b);
+
+        return product == NO_FAST_PRODUCT ? multiplyDoublesWithBigDecimals(a, b) : toDouble(product);
+    }
+
+    public static double multiply(double a, double b, double c) {
+        long product = multiplyUnscaled(multiplyUnscaled(multiplyUnscaled(FAST_ONE, a), b), c);
+
+        return product == NO_FAST_PRODUCT ? multiplyDoublesWithBigDecimals(a, b, c) : toDouble(product);
+    }
+
+    private static long multiplyUnscaled(long product, double d) {
+        // Returns the packed product multiplied by d, or NO_FAST_PRODUCT if it does not fit the fast path
+        int factorScale = getFastScale(d);
+
+        if (product == NO_FAST_PRODUCT || factorScale < 0) {
+            return NO_FAST_PRODUCT;
+        }
+
+        long unscaled = product >> SCALE_BITS;
+        int scale = (int) (product & SCALE_MASK) + factorScale;
+        long factor = Math.round(d * DOUBLE_POWERS_OF_TEN[factorScale]);
+
+        // Both are under 2^50, so the product can only overflow if it does not stay under 2^50 either
+        if (factor != 0 && Math.abs(unscaled) >= MAX_FAST_UNSCALED / Math.abs(factor)) {
+            return NO_FAST_PRODUCT;
+        }
+
+        unscaled *= factor;
+
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+
+        // The scale must fit its bits, and the result is only exact if the power of ten is
+        if (scale >= DOUBLE_POWERS_OF_TEN.length) {
+            return NO_FAST_PRODUCT;
+        }
+
+        return unscaled << SCALE_BITS | scale;
+    }
+
+    private static double toDouble(long product) {
+        long unscaled = product >> SCALE_BITS;
+
+        if (unscaled == 0) {
+            return 0;
+        }
+
+        // Both the product and the power of ten are exact doubles, so the division rounds like BigDecimal.doubleValue
+        return unscaled / DOUBLE_POWERS_OF_TEN[(int) (product & SCALE_MASK)];
+    }
+
+    static double multiplyDoublesWithBigDecimals(double... doubles) {
+        if (doubles.length == 0) {
+            return 0;
+        }
+
         BigDecimal product = BigDecimal.valueOf(1);
 
         for (double d : doubles) {
@@ -39,7 +250,45 @@ public final class Calculator {
         return product.doubleValue();
     }
 
+    // Returns quotient of doubles rounded to 4 decimal places
     public static double divideDoubles(double a, double b) {
+        if (b != 0) {
+            int dividendScale = getFastScale(a);
+            int divisorScale = getFastScale(b);
+
+            if (dividendScale < 0 || divisorScale < 0) {
+                return divideDoublesWithBigDecimals(a, b);
+            }
+
+            long dividend = Math.round(a * DOUBLE_POWERS_OF_TEN[dividendScale]);
+            long divisor = Math.round(b * DOUBLE_POWERS_OF_TEN[divisorScale]);
+
+            // a / b rounded to 4 decimals == (dividend * 10^(divisorScale + 4 - dividendScale)) / divisor rounded to an integer
+            int shift = divisorScale + 4 - dividendScale;
+
+            if (shift >= 0) {
+                dividend = rescale(dividend, shift);
+            } else {
+                divisor = rescale(divisor, -shift);
+            }
+
+            if (dividend == Long.MIN_VALUE || divisor == Long.MIN_VALUE) {
+                return divideDoublesWithBigDecimals(a, b);
+            }
+
+            long quotient = divideHalfUp(dividend, divisor);
+
+            if (Math.abs(quotient) >= MAX_FAST_UNSCALED) {
+                return divideDoublesWithBigDecimals(a, b);
+            }
+
+            return quotient / DOUBLE_POWERS_OF_TEN[4];
+        }
+
+        return 0;
+    }
+
+    static double divideDoublesWithBigDecimals(double a, double b) {
         if (b != 0) {
             BigDecimal dividend = BigDecimal.valueOf(a);
             BigDecimal divisor = BigDecimal.valueOf(b);
@@ -51,88 +300,119 @@ public final class Calculator {
         return 0;
     }
 
+    private static int getFastScale(double d) {
+        /*
+        * Returns the smallest amount of decimals which d can be written with (i.e. the scale of BigDecimal.valueOf(d)
+        * after stripping trailing zeros), or -1 if d does not fit the fast path.
+        *
+        * If the unscaled value is under 2^50, the gap between d and its neighbouring doubles is smaller than
+        * 10^-scale, so no other number with as few decimals rounds to d either and BigDecimal.valueOf(d) must be exactly
+        * the unscaled value divided by 10^scale.
+        */
+        for (int scale = 0; scale <= MAX_FAST_SCALE; scale++) {
+            double scaled = d * DOUBLE_POWERS_OF_TEN[scale];
+
+            if (!(Math.abs(scaled) < MAX_FAST_UNSCALED)) { // also catches NaN
+                return -1;
+            }
+
+            if (Math.round(scaled) / DOUBLE_POWERS_OF_TEN[scale] == d) {
+                return scale;
+            }
+        }
+
+        return -1;
+    }
+
+    private static long rescale(long unscaled, int scaleIncrease) {
+        // Returns Long.MIN_VALUE if the rescaled value would not stay under 2^60
+        if (scaleIncrease >= LONG_POWERS_OF_TEN.length
+                || Math.abs(unscaled) >= (MAX_FAST_UNSCALED << 10) / LONG_POWERS_OF_TEN[scaleIncrease]) {
+            return Long.MIN_VALUE;
+        }
+
+        return unscaled * LONG_POWERS_OF_TEN[scaleIncrease];
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        // Integer division which rounds half away from zero like RoundingMode.HALF_UP
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+
+        if (2 * Math.abs(remainder) >= Math.abs(divisor)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+
+        return quotient;
+    }
+
     // Skill values are stored as percentages and need to be converted to decimals for calculation
     public static double convertPercentageToDecimal(double percentage) {
         return divideDoubles(percentage, 100);
     }
 
     public static double negate(double d) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            return negateWithBigDecimal(d);
+        }
+
+        // BigDecimal has no negative zero, so negating zero returns 0.0
+        return d == 0 ? 0 : -d;
+    }
+
+    static double negateWithBigDecimal(double d) {
         BigDecimal bd = BigDecimal.valueOf(d);
         return bd.negate().doubleValue();
     }
 
-    public static double sumBuffsToSelf(SkillType type, Map<Skill, Double> skillTotalPowers) {
-        Double selfBuffs = skillTotalPowers.get(new Skill(type, SkillChange.UP, SkillTarget.ALLY_SELF, 0));
-        selfBuffs = selfBuffs == null ? 0 : selfBuffs;
-
-        Double singleTargetBuffs = skillTotalPowers.get(new Skill(type, SkillChange.UP, SkillTarget.ALLY_SINGLE, 0));
-        singleTargetBuffs = singleTargetBuffs == null ? 0 : singleTargetBuffs;
-
-        Double allyWideBuffs = skillTotalPowers.get(new Skill(type, SkillChange.UP, SkillTarget.ALLY_ALL, 0));
-        allyWideBuffs = allyWideBuffs == null ? 0 : allyWideBuffs;
+    public static double sumBuffsToSelf(SkillType type, SkillPowerTable skillTotalPowers) {
+        double selfBuffs = skillTotalPowers.get(type, SkillChange.UP, SkillTarget.ALLY_SELF);
+        double singleTargetBuffs = skillTotalPowers.get(type, SkillChange.UP, SkillTarget.ALLY_SINGLE);
+        double allyWideBuffs = skillTotalPowers.get(type, SkillChange.UP, SkillTarget.ALLY_ALL);
 
         // ALLIES_SINGLE can be targeted to self, and ALLIES_ALL also affect self
-        return convertPercentageToDecimal(sumDoubles(selfBuffs, singleTargetBuffs, allyWideBuffs));
+        return convertPercentageToDecimal(sum(selfBuffs, singleTargetBuffs, allyWideBuffs));
     }
 
-    public static double sumDebuffsToSelf(SkillType type, Map<Skill, Double> skillTotalPowers) {
-        Double selfDebuffs = skillTotalPowers.get(new Skill(type, SkillChange.DOWN, SkillTarget.ALLY_SELF, 0));
-        selfDebuffs = selfDebuffs == null ? 0 : selfDebuffs;
-
-        Double singleTargetDebuffs = skillTotalPowers.get(new Skill(type, SkillChange.DOWN, SkillTarget.ALLY_SINGLE, 0));
-        singleTargetDebuffs = singleTargetDebuffs == null ? 0 : singleTargetDebuffs;
-
-        Double allyWideDebuffs = skillTotalPowers.get(new Skill(type, SkillChange.DOWN, SkillTarget.ALLY_ALL, 0));
-        allyWideDebuffs = allyWideDebuffs == null ? 0 : allyWideDebuffs;
+    public static double sumDebuffsToSelf(SkillType type, SkillPowerTable skillTotalPowers) {
+        double selfDebuffs = skillTotalPowers.get(type, SkillChange.DOWN, SkillTarget.ALLY_SELF);
+        double singleTargetDebuffs = skillTotalPowers.get(type, SkillChange.DOWN, SkillTarget.ALLY_SINGLE);
+        double allyWideDebuffs = skillTotalPowers.get(type, SkillChange.DOWN, SkillTarget.ALLY_ALL);
 
         // ALLIES_SINGLE can be targeted to self, and ALLIES_ALL also affect self
-        return convertPercentageToDecimal(sumDoubles(selfDebuffs, singleTargetDebuffs, allyWideDebuffs));
+        return convertPercentageToDecimal(sum(selfDebuffs, singleTargetDebuffs, allyWideDebuffs));
     }
 
-    public static double sumOtherEffectsToSelf(SkillType type, Map<Skill, Double> skillTotalPowers) {
-        Double selfStatusEffects = skillTotalPowers.get(new Skill(type, null, SkillTarget.ALLY_SELF, 0));
-        selfStatusEffects = selfStatusEffects == null ? 0 : selfStatusEffects;
-
-        Double singleTargetStatusEffects = skillTotalPowers.get(new Skill(type, null, SkillTarget.ALLY_SINGLE, 0));
-        singleTargetStatusEffects = singleTargetStatusEffects == null ? 0 : singleTargetStatusEffects;
-
-        Double allyWideStatusEffects = skillTotalPowers.get(new Skill(type, null, SkillTarget.ALLY_ALL, 0));
-        allyWideStatusEffects = allyWideStatusEffects == null ? 0 : allyWideStatusEffects;
+    public static double sumOtherEffectsToSelf(SkillType type, SkillPowerTable skillTotalPowers) {
+        double selfStatusEffects = skillTotalPowers.get(type, null, SkillTarget.ALLY_SELF);
+        double singleTargetStatusEffects = skillTotalPowers.get(type, null, SkillTarget.ALLY_SINGLE);
+        double allyWideStatusEffects = skillTotalPowers.get(type, null, SkillTarget.ALLY_ALL);
 
         // Other effect powers don't need to be converted to decimals because they are not used in the damage calculation function
-        return sumDoubles(selfStatusEffects, singleTargetStatusEffects, allyWideStatusEffects);
+        return sum(selfStatusEffects, singleTargetStatusEffects, allyWideStatusEffects);
 
     }
 
-    public static double sumBuffsToOpponent(SkillType type, Map<Skill, Double> skillTotalPowers) {
-        Double singleEnemyBuffs = skillTotalPowers.get(new Skill(type, SkillChange.UP, SkillTarget.ENEMY_SINGLE, 0));
-        singleEnemyBuffs = singleEnemyBuffs == null ? 0 : singleEnemyBuffs;
-
-        Double enemyWideBuffs = skillTotalPowers.get(new Skill(type, SkillChange.UP, SkillTarget.ENEMY_ALL, 0));
-        enemyWideBuffs = enemyWideBuffs == null ? 0 : enemyWideBuffs;
+    public static double sumBuffsToOpponent(SkillType type, SkillPowerTable skillTotalPowers) {
+        double singleEnemyBuffs = skillTotalPowers.get(type, SkillChange.UP, SkillTarget.ENEMY_SINGLE);
+        double enemyWideBuffs = skillTotalPowers.get(type, SkillChange.UP, SkillTarget.ENEMY_ALL);
 
-        return convertPercentageToDecimal(sumDoubles(singleEnemyBuffs, enemyWideBuffs));
+        return convertPercentageToDecimal(sum(singleEnemyBuffs, enemyWideBuffs));
     }
 
-    public static double sumDebuffsToOpponent(SkillType type, Map<Skill, Double> skillTotalPowers) {
-        Double singleEnemyDebuffs = skillTotalPowers.get(new Skill(type, SkillChange.DOWN, SkillTarget.ENEMY_SINGLE, 0));
-        singleEnemyDebuffs = singleEnemyDebuffs == null ? 0 : singleEnemyDebuffs;
+    public static double sumDebuffsToOpponent(SkillType type, SkillPowerTable skillTotalPowers) {
+        double singleEnemyDebuffs = skillTotalPowers.get(type, SkillChange.DOWN, SkillTarget.ENEMY_SINGLE);
+        double enemyWideDebuffs = skillTotalPowers.get(type, SkillChange.DOWN, SkillTarget.ENEMY_ALL);
 
-        Double enemyWideDebuffs = skillTotalPowers.get(new Skill(type, SkillChange.DOWN, SkillTarget.ENEMY_ALL, 0));
-        enemyWideDebuffs = enemyWideDebuffs == null ? 0 : enemyWideDebuffs;
-
-        return convertPercentageToDecimal(sumDoubles(singleEnemyDebuffs, enemyWideDebuffs));
+        return convertPercentageToDecimal(sum(singleEnemyDebuffs, enemyWideDebuffs));
     }
 
-    public static double sumOtherEffectsToOpponent(SkillType type, Map<Skill, Double> skillTotalPowers) {
-        Double singleEnemyStatusEffects = skillTotalPowers.get(new Skill(type, null, SkillTarget.ENEMY_SINGLE, 0));
-        singleEnemyStatusEffects = singleEnemyStatusEffects == null ? 0 : singleEnemyStatusEffects;
-
-        Double allEnemyStatusEffects = skillTotalPowers.get((new Skill(type, null, SkillTarget.ENEMY_ALL, 0)));
-        allEnemyStatusEffects = allEnemyStatusEffects == null ? 0 : allEnemyStatusEffects;
+    public static double sumOtherEffectsToOpponent(SkillType type, SkillPowerTable skillTotalPowers) {
+        double singleEnemyStatusEffects = skillTotalPowers.get(type, null, SkillTarget.ENEMY_SINGLE);
+        double allEnemyStatusEffects = skillTotalPowers.get(type, null, SkillTarget.ENEMY_ALL);
 
         // Other effect powers don't need to be converted to decimals
-        return sumDoubles(singleEnemyStatusEffects, allEnemyStatusEffects);
+        return sum(singleEnemyStatusEffects, allEnemyStatusEffects);
     }
 
     public static long countAmountOfSpecificSkills(GameCharacter chara, boolean includeWeapon, Skill... desiredSkills) {
@@ -160,7 +440,19 @@ public final class Calculator {
                 .count();
     }
 
+    /*
+    * The damage functions come in two versions: one which takes a GameCharacter, and one which takes the character's
+    * stats and skill totals directly. Neither of them creates an enemy character: the enemy is one of the prebuilt
+    * EnemyProfiles, and the character's skill totals are cached (see SkillTotalPowersCache). The arithmetic uses the
+    * fixed-arity helpers above (e.g. multiply), so a damage calculation allocates nothing unless a value has too many
+    * decimals for the fast path. SkillSetCheck calculates the damage of every mage, warrior and
+    * knight of an element/class combination, so this is the hottest arithmetic of a sort.
+    */
     public static long calculateMaxDamageCaused(GameCharacter chara) {
+        return calculateMaxDamageCaused(chara, Mapper.getSkillTotalPowers(chara));
+    }
+
+    public static long calculateMaxDamageCaused(GameCharacter chara, SkillPowerTable charaSkillTotalPowers) {
         /*
         * The function should only be used for mages and warriors since I do not plan on adding offensive stats for any
         * other class (plus it does not make sense to use other classes for high burst damage)
@@ -171,37 +463,45 @@ public final class Calculator {
             return 0;
         }
 
-        CharacterElement enemyElement = CharacterElement.getElementThatIsWeakTo(chara.getCharacterElement());
-        Series series = new Series("series", null);
-        GameCharacter enemy = new GameCharacter.Builder("enemy", series, enemyElement, CharacterClass.ALCHEMIST)
-                .defenseIs(200)
-                .magicDefenseIs(200)
-                .build();
+        return calculateMaxDamageCaused(charaClass, chara.getCharacterElement(), getBaseOffensiveStat(chara),
+                charaSkillTotalPowers, getTotteokiPower(chara));
+    }
+
+    public static long calculateMaxDamageCaused(CharacterClass charaClass, CharacterElement charaElement,
+                                                int baseOffensiveStat, SkillPowerTable charaSkillTotalPowers,
+                                                double totteokiPower) {
+        // baseOffensiveStat includes the preferred weapon, and totteokiPower is a decimal number (e.g. 37.5 for 3750%)
+        if (!(charaClass == CharacterClass.MAGE || charaClass == CharacterClass.WARRIOR)) {
+            return 0;
+        }
 
         // Calculator assumes that the enemy has a weak element against chara, has a base DEF/MDF stat of 200
         // and that the damage is a critical hit
-        return calculateDamage(chara, enemy, getTotteokiPower(chara), true, false);
+        EnemyProfile enemy = EnemyProfile.getDefenderWeakTo(charaElement);
+
+        return calculateDamage(charaClass, charaElement, baseOffensiveStat, charaSkillTotalPowers, enemy.getElement(),
+                enemy.getDefensiveStat(charaClass), enemy.getSkillTotalPowers(), totteokiPower, true, false);
     }
 
     private static double getTotteokiPower(GameCharacter chara) {
         // Each character should have only one totteoki
-        List<Skill> filteredSkills = chara.getSkills()
-                .stream()
-                .filter(s -> s.getType() == SkillType.TOTTEOKI)
-                .collect(Collectors.toList());
-
-        if (filteredSkills.isEmpty()) {
-            return 0;
-        }
-
         // Every character has one totteoki (though I will not input alchemist/knight/priest totteokis while using this program
         // because they are not relevant damage-wise when compared to mages and warriors)
-        Skill totteoki = filteredSkills.get(0);
+        for (Skill skill : chara.getSkills()) {
+            if (skill.getType() == SkillType.TOTTEOKI) {
+                return convertPercentageToDecimal(skill.getPower());
+            }
+        }
 
-        return convertPercentageToDecimal(totteoki.getPower());
+        return 0;
     }
 
     public static long calculateDamageTaken(GameCharacter chara, SkillType typeOfDefense) {
+        return calculateDamageTaken(chara, Mapper.getSkillTotalPowers(chara), typeOfDefense);
+    }
+
+    public static long calculateDamageTaken(GameCharacter chara, SkillPowerTable charaSkillTotalPowers,
+                                            SkillType typeOfDefense) {
         /*
             This function should only be used for Knights because I'm not going to store defense stat values for other
             classes (since it does not make any sense to other classes for tanking damage)
@@ -210,13 +510,18 @@ public final class Calculator {
             return 0;
         }
 
-        // The above function should filter out other skill types than DEF and MDF
-        CharacterElement enemyElement = CharacterElement.getElementThatIsWeakTo(chara.getCharacterElement());
         CharacterClass enemyClass = typeOfDefense == SkillType.DEF ? CharacterClass.WARRIOR : CharacterClass.MAGE;
-        Series series = new Series("series", null);
-        GameCharacter enemy = new GameCharacter.Builder("enemy", series, chara.getCharacterElement(), enemyClass)
-                .offensiveStatIs(72000)
-                .build();
+
+        return calculateDamageTaken(chara.getCharacterElement(), getBaseDefensiveStat(enemyClass, chara),
+                charaSkillTotalPowers, typeOfDefense);
+    }
+
+    public static long calculateDamageTaken(CharacterElement charaElement, int baseDefensiveStat,
+                                            SkillPowerTable charaSkillTotalPowers, SkillType typeOfDefense) {
+        // baseDefensiveStat is chara's DEF or MDF (depending on typeOfDefense), including the preferred weapon
+        if (typeOfDefense != SkillType.DEF && typeOfDefense != SkillType.MDF) {
+            return 0;
+        }
 
         /*
         * The enemy's element is set to be the same as the characters element and elemental resist and weak element bonus
@@ -233,14 +538,20 @@ public final class Calculator {
         *
         *   2) It doesn't make sense to use a knight which is weak against the enemy because they take a lot of extra damage
         *
-        * NOTE: enemy is input as parameter chara, and chara is inputted as parameter enemy because this function returns
-        * how much damage character receives from an enemy
+        * NOTE: the enemy is the attacker and chara the defender, because this function returns how much damage character
+        * receives from an enemy
         */
-        return calculateDamage(enemy, chara, 2.5, false, true);
+        EnemyProfile enemy = EnemyProfile.getAttackerAgainst(charaElement, typeOfDefense);
+
+        return calculateDamage(enemy.getCharacterClass(), enemy.getElement(), enemy.getOffensiveStat(),
+                enemy.getSkillTotalPowers(), charaElement, baseDefensiveStat, charaSkillTotalPowers, 2.5, false, true);
     }
 
-    private static long calculateDamage(GameCharacter chara, GameCharacter enemy, double offensiveSkillPower,
-                                        boolean criticalHit, boolean useDefaultElementMultiplier) {
+    private static long calculateDamage(CharacterClass charaClass, CharacterElement charaElement, int baseOffensiveStat,
+                                        SkillPowerTable charaSkillTotalPowers, CharacterElement enemyElement,
+                                        int baseDefensiveStat, SkillPowerTable enemySkillTotalPowers,
+                                        double offensiveSkillPower, boolean criticalHit,
+                                        boolean useDefaultElementMultiplier) {
         /*
          * Formula for damage calculation:
          * (character's base offensive stat * skill power * offensive stat buff multiplier * next attack buff multiplier *
@@ -258,35 +569,38 @@ public final class Calculator {
          *
          */
 
-        CharacterClass charaClass = chara.getCharacterClass();
-        Map<Skill, Double> charaSkillTotalPowers = Mapper.getSkillTotalPowers(chara);
-        Map<Skill, Double> enemySkillTotalPowers = Mapper.getSkillTotalPowers(enemy);
-
         // Offensive modifiers
-        int baseOffensiveStat = getBaseOffensiveStat(chara);
         double offensiveStatBuffMultiplier = getOffensiveStatBuffMultiplier(charaClass, charaSkillTotalPowers, enemySkillTotalPowers);
         double nextAttackBuffMultiplier = getNextAttackUpBuffMultiplier(charaClass, charaSkillTotalPowers);
 
         double elementalMultiplier = useDefaultElementMultiplier ?
                 1.0:
-                getElementMultiplier(chara.getCharacterElement(), enemy.getCharacterElement(), charaSkillTotalPowers,
-                        enemySkillTotalPowers);
+                getElementMultiplier(charaElement, enemyElement, charaSkillTotalPowers, enemySkillTotalPowers);
 
         double criticalDamageMultiplier = criticalHit ?
                 getCriticalDamageMultiplier(charaSkillTotalPowers, enemySkillTotalPowers) :
                 1.0;
 
         // Defensive modifiers
-        double baseDefensiveStat = getBaseDefensiveStat(charaClass, enemy);
         double defensiveStatBuffMultiplier = getDefensiveStatBuffMultiplier(charaClass, charaSkillTotalPowers, enemySkillTotalPowers);
         double constant = 0.06;
 
-        double offense = multiplyDoubles(baseOffensiveStat, offensiveSkillPower, offensiveStatBuffMultiplier,
-                nextAttackBuffMultiplier, elementalMultiplier, criticalDamageMultiplier);
+        /*
+        * Every multiplier is calculated exactly above, but their product can have over 20 decimals (e.g. the element and
+        * critical damage multipliers can have 5 decimals each), which neither the fast path nor a BigDecimal-free double
+        * division can hold exactly. The damage is rounded to a whole number anyway, so the offense is multiplied as
+        * plain doubles, and the quotient is rounded to 4 decimals before the whole number like divideDoubles would.
+        */
+        double offense = baseOffensiveStat * offensiveSkillPower * offensiveStatBuffMultiplier * nextAttackBuffMultiplier
+                * elementalMultiplier * criticalDamageMultiplier;
+
+        double defense = multiply(baseDefensiveStat, defensiveStatBuffMultiplier, constant);
 
-        double defense = multiplyDoubles(baseDefensiveStat, defensiveStatBuffMultiplier, constant);
+        if (defense == 0) {
+            return 0;
+        }
 
-        return Math.round(divideDoubles(offense, defense));
+        return divideHalfUp(Math.round(offense / defense * DOUBLE_POWERS_OF_TEN[4]), LONG_POWERS_OF_TEN[4]);
     }
 
 
@@ -302,8 +616,8 @@ public final class Calculator {
     }
 
     private static double getOffensiveStatBuffMultiplier(CharacterClass charaClass,
-                                                         Map<Skill, Double> charaSkillTotalPowers,
-                                                         Map<Skill, Double> enemySkillTotalPowers) {
+                                                         SkillPowerTable charaSkillTotalPowers,
+                                                         SkillPowerTable enemySkillTotalPowers) {
         /*
         * Formula for the offensive stat buff multiplier:
         * (1 + atk/mat buff - atk/mat debuff) Max: 2.5, Min: 0.5
@@ -319,7 +633,7 @@ public final class Calculator {
         double charaOffensiveBuffsByEnemy = sumBuffsToOpponent(skillType, enemySkillTotalPowers);
         double charaOffensiveDebuffsByEnemy = negate(sumDebuffsToOpponent(skillType, enemySkillTotalPowers));
 
-        double offensiveStatBuffMultiplier = sumDoubles(1, charaOffensiveBuffsBySelf, charaOffensiveDebuffsBySelf,
+        double offensiveStatBuffMultiplier = sum(1, charaOffensiveBuffsBySelf, charaOffensiveDebuffsBySelf,
                 charaOffensiveBuffsByEnemy, charaOffensiveDebuffsByEnemy);
 
         offensiveStatBuffMultiplier = Math.max(offensiveStatBuffMultiplier, 0.5);
@@ -327,7 +641,7 @@ public final class Calculator {
         return Math.min(offensiveStatBuffMultiplier, 2.5);
     }
 
-    private static double getNextAttackUpBuffMultiplier(CharacterClass charaClass, Map<Skill, Double> charaSkillTotalPowers) {
+    private static double getNextAttackUpBuffMultiplier(CharacterClass charaClass, SkillPowerTable charaSkillTotalPowers) {
         /*
         * Formula for the next attack buff multiplier:
         * 1 + next attack buff
@@ -345,19 +659,14 @@ public final class Calculator {
 
         SkillType skillType = charaClass == CharacterClass.MAGE ? SkillType.NEXT_MAT : SkillType.NEXT_ATK;
 
-        return sumDoubles(1, getStrongestBuff(skillType, charaSkillTotalPowers));
+        return sum(1, getStrongestBuff(skillType, charaSkillTotalPowers));
     }
 
-    private static double getStrongestBuff(SkillType type, Map<Skill, Double> skillTotalAmounts) {
+    private static double getStrongestBuff(SkillType type, SkillPowerTable skillTotalAmounts) {
         // Used to determine the strongest next ATK/MAT buff, since unlike other buffs they do not stack and instead overwrite
-        Double selfBuffs = skillTotalAmounts.get(new Skill(type, SkillChange.UP, SkillTarget.ALLY_SELF, 0));
-        selfBuffs = selfBuffs == null ? 0 : selfBuffs;
-
-        Double singleTargetBuffs = skillTotalAmounts.get(new Skill(type, SkillChange.UP, SkillTarget.ALLY_SINGLE, 0));
-        singleTargetBuffs = singleTargetBuffs == null ? 0 : singleTargetBuffs;
-
-        Double allyWideBuffs = skillTotalAmounts.get(new Skill(type, SkillChange.UP, SkillTarget.ALLY_ALL, 0));
-        allyWideBuffs = allyWideBuffs == null ? 0 : allyWideBuffs;
+        double selfBuffs = skillTotalAmounts.get(type, SkillChange.UP, SkillTarget.ALLY_SELF);
+        double singleTargetBuffs = skillTotalAmounts.get(type, SkillChange.UP, SkillTarget.ALLY_SINGLE);
+        double allyWideBuffs = skillTotalAmounts.get(type, SkillChange.UP, SkillTarget.ALLY_ALL);
 
         // Buffs and debuffs are stored as percentages, and need to be converted to decimal numbers for calculation
         return convertPercentageToDecimal(Math.max(selfBuffs, Math.max(singleTargetBuffs, allyWideBuffs)));
@@ -365,8 +674,8 @@ public final class Calculator {
 
 
     private static double getElementMultiplier(CharacterElement charaElement, CharacterElement enemyElement,
-                                               Map<Skill, Double> charaSkillTotalPowers,
-                                               Map<Skill, Double> enemySkillTotalPowers) {
+                                               SkillPowerTable charaSkillTotalPowers,
+                                               SkillPowerTable enemySkillTotalPowers) {
         /*
         * Formula for the element multiplier:
         * [Initial value * (1 - enemy's element resist buff + enemy's element resist debuff)] (+ weak element bonus)
@@ -409,8 +718,8 @@ public final class Calculator {
         double enemyElementResistanceDebuffs = getEnemyElementalResistanceDebuffs(charaElement, charaSkillTotalPowers,
                 enemySkillTotalPowers);
 
-        double sumOfBuffsAndDebuffs = sumDoubles(1, enemyElementResistanceBuffs, enemyElementResistanceDebuffs);
-        double initialElementMultiplier = multiplyDoubles(initialValue, sumOfBuffsAndDebuffs);
+        double sumOfBuffsAndDebuffs = sum(1, enemyElementResistanceBuffs, enemyElementResistanceDebuffs);
+        double initialElementMultiplier = multiply(initialValue, sumOfBuffsAndDebuffs);
         initialElementMultiplier = Math.min(Math.max(initialElementMultiplier, minValue), maxValue);
 
         if (CharacterElement.getElementThatIsWeakTo(charaElement) == enemyElement) {
@@ -419,34 +728,34 @@ public final class Calculator {
             double charaWeakElementBuffByEnemy = sumBuffsToOpponent(SkillType.WEAK_ELEMENT_BONUS, enemySkillTotalPowers);
             double charaWeakElementDebuffByEnemy = negate(sumDebuffsToOpponent(SkillType.WEAK_ELEMENT_BONUS, enemySkillTotalPowers));
 
-            double weakElementBonus = sumDoubles(charaWeakElementBuffBySelf, charaWeakElementDebuffBySelf,
+            double weakElementBonus = sum(charaWeakElementBuffBySelf, charaWeakElementDebuffBySelf,
                     charaWeakElementBuffByEnemy, charaWeakElementDebuffByEnemy);
 
-            return sumDoubles(initialElementMultiplier, weakElementBonus);
+            return sum(initialElementMultiplier, weakElementBonus);
         } else {
             return initialElementMultiplier;
         }
     }
 
     private static double getEnemyElementalResistanceBuffs(CharacterElement charaElement,
-                                                           Map<Skill, Double> charaSkillTotalAmounts,
-                                                           Map<Skill, Double> enemySkillTotalAmounts) {
+                                                           SkillPowerTable charaSkillTotalAmounts,
+                                                           SkillPowerTable enemySkillTotalAmounts) {
         SkillType elementalResistance = SkillType.getAppropriateElementalResistance(charaElement);
 
-        return sumDoubles(sumBuffsToOpponent(elementalResistance, charaSkillTotalAmounts),
+        return sum(sumBuffsToOpponent(elementalResistance, charaSkillTotalAmounts),
                 sumBuffsToSelf(elementalResistance, enemySkillTotalAmounts));
     }
 
     private static double getEnemyElementalResistanceDebuffs(CharacterElement charaElement,
-                                                             Map<Skill, Double> charaSkillTotalAmounts,
-                                                             Map<Skill, Double> enemySkillTotalAmounts) {
+                                                             SkillPowerTable charaSkillTotalAmounts,
+                                                             SkillPowerTable enemySkillTotalAmounts) {
         SkillType elementalResistance = SkillType.getAppropriateElementalResistance(charaElement);
 
-        return sumDoubles(sumDebuffsToOpponent(elementalResistance, charaSkillTotalAmounts),
+        return sum(sumDebuffsToOpponent(elementalResistance, charaSkillTotalAmounts),
                 sumDebuffsToSelf(elementalResistance, enemySkillTotalAmounts));
     }
 
-    private static double getCriticalDamageMultiplier( Map<Skill, Double> charaSkillTotalPowers, Map<Skill, Double> enemySkillTotalPowers) {
+    private static double getCriticalDamageMultiplier( SkillPowerTable charaSkillTotalPowers, SkillPowerTable enemySkillTotalPowers) {
         /*
         * Formula for the critical damage multiplier:
         * If critical hit:
@@ -465,7 +774,7 @@ public final class Calculator {
         double charaCritDamageBuffByEnemy = sumBuffsToOpponent(SkillType.CRIT_DAMAGE, enemySkillTotalPowers);
         double charaCritDamageDebuffByEnemy = negate(sumDebuffsToOpponent(SkillType.CRIT_DAMAGE, enemySkillTotalPowers));
 
-        double criticalDamageMultiplier = multiplyDoubles(1.5, sumDoubles(1, charaCritDamageBuffBySelf,
+        double criticalDamageMultiplier = multiply(1.5, sum(1, charaCritDamageBuffBySelf,
                     charaCritDamageDebuffBySelf, charaCritDamageBuffByEnemy, charaCritDamageDebuffByEnemy));
 
 
@@ -486,8 +795,8 @@ public final class Calculator {
     }
 
     private static double getDefensiveStatBuffMultiplier(CharacterClass charaClass,
-                                                         Map<Skill, Double> charaSkillTotalPowers,
-                                                         Map<Skill, Double> enemySkillTotalPowers) {
+                                                         SkillPowerTable charaSkillTotalPowers,
+                                                         SkillPowerTable enemySkillTotalPowers) {
         /*
         * Formula for the defensive buff multiplier:
         * (1 + defensive buff - defensive debuff) Max: 5.0, Min: 0.330
@@ -506,7 +815,7 @@ public final class Calculator {
         double enemyDefensiveBuffsByEnemy = sumBuffsToSelf(skillType, enemySkillTotalPowers);
         double enemyDefensiveDebuffsByEnemy = negate(sumDebuffsToSelf(skillType, enemySkillTotalPowers));
 
-        double defensiveStatBuffMultiplier = sumDoubles(1, enemyDefensiveBuffsByChara, enemyDefensiveDebuffsByChara,
+        double defensiveStatBuffMultiplier = sum(1, enemyDefensiveBuffsByChara, enemyDefensiveDebuffsByChara,
                 enemyDefensiveBuffsByEnemy, enemyDefensiveDebuffsByEnemy);
 
         return Math.min(Math.max(defensiveStatBuffMultiplier, 0.330), 5.0);
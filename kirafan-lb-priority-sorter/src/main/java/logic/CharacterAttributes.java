@@ -0,0 +1,120 @@
+package logic;
+
+import domain.CreaStatus;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Weapon;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/*
+* The yes/no attributes which the simple checks (EventBonusCheck, NoWeaponCheck and CreaCheck) need, remembered for the
+* characters of a single sort.
+*
+* Every character gets a dense ordinal (its position in the list given to the constructor), and each attribute is
+* stored in a BitSet indexed by the ordinals. GameCharacterPriorityComparator knows the ordinal of every character it
+* calculates a priority key for, so the checks can read their answer from a bit (see Check.getPriorityKey(
+* CharacterAttributes, int)) instead of hashing the character or its id for every lookup. Both CreaChecks of the
+* default pipeline also share the same bits.
+*
+* An attribute is looked up only when a check first asks for it, and only for that character (a second BitSet of each
+* attribute tells which bits are known). sortByTiers runs the later checks only for the characters which are still
+* tied, so the attributes of the characters which an earlier check has already placed are never looked up.
+*
+* Like the indexes which the checks build in beginSort, the attributes are only valid for the duration of one sort.
+*/
+public final class CharacterAttributes {
+    private final List<GameCharacter> characters;
+    private final GameEvent event;
+    private final Map<GameCharacter, Weapon> weaponsByCharacter;
+    private BitSet eventBonus; // The BitSets are created when first needed
+    private BitSet eventBonusKnown;
+    private BitSet exclusiveWeapon;
+    private BitSet exclusiveWeaponKnown;
+    private BitSet[] creaStatuses; // Indexed by CreaStatus.ordinal()
+    private BitSet creaStatusKnown;
+
+    public CharacterAttributes(List<GameCharacter> characters, GameEvent event,
+                               Map<GameCharacter, Weapon> weaponsByCharacter) {
+        this.characters = characters;
+        this.event = event;
+        this.weaponsByCharacter = weaponsByCharacter;
+    }
+
+    public int size() {
+        return characters.size();
+    }
+
+    public GameCharacter getCharacter(int ordinal) {
+        return characters.get(ordinal);
+    }
+
+    public boolean isEventBonus(int ordinal) {
+        if (eventBonusKnown == null) {
+            eventBonus = new BitSet();
+            eventBonusKnown = new BitSet();
+        }
+
+        if (!eventBonusKnown.get(ordinal)) {
+            eventBonusKnown.set(ordinal);
+            eventBonus.set(ordinal, event != null && event.isBonusCharacter(characters.get(ordinal)));
+        }
+
+        return eventBonus.get(ordinal);
+    }
+
+    public boolean hasExclusiveWeapon(int ordinal) {
+        if (exclusiveWeaponKnown == null) {
+            exclusiveWeapon = new BitSet();
+            exclusiveWeaponKnown = new BitSet();
+        }
+
+        if (!exclusiveWeaponKnown.get(ordinal)) {
+            exclusiveWeaponKnown.set(ordinal);
+            exclusiveWeapon.set(ordinal, weaponsByCharacter != null && weaponsByCharacter.get(characters.get(ordinal)) != null);
+        }
+
+        return exclusiveWeapon.get(ordinal);
+    }
+
+    public boolean hasCreaStatus(int ordinal, CreaStatus creaStatus) {
+        // A character whose series has no crea status (or who has no series) has the status null
+        if (creaStatusKnown == null) {
+            creaStatuses = new BitSet[CreaStatus.values().length];
+            creaStatusKnown = new BitSet();
+        }
+
+        if (!creaStatusKnown.get(ordinal)) {
+            creaStatusKnown.set(ordinal);
+            CreaStatus charasCreaStatus = getCreaStatus(characters.get(ordinal));
+
+            if (charasCreaStatus != null) {
+                if (creaStatuses[charasCreaStatus.ordinal()] == null) {
+                    creaStatuses[charasCreaStatus.ordinal()] = new BitSet();
+                }
+
+                creaStatuses[charasCreaStatus.ordinal()].set(ordinal);
+            }
+        }
+
+        if (creaStatus != null) {
+            BitSet charactersWithStatus = creaStatuses[creaStatus.ordinal()];
+
+            return charactersWithStatus != null && charactersWithStatus.get(ordinal);
+        }
+
+        for (BitSet charactersWithStatus : creaStatuses) {
+            if (charactersWithStatus != null && charactersWithStatus.get(ordinal)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public static CreaStatus getCreaStatus(GameCharacter chara) {
+        return chara.getSeries() == null ? null : chara.getSeries().getCreaStatus();
+    }
+}
@@ -0,0 +1,206 @@
+package logic;
+
+import domain.CreaStatus;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import logic.checks.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/*
+* The checks which GameCharacterPriorityComparator runs, in order from the highest priority to the lowest. A pipeline is
+* read from a rules file once and can then be used by any number of comparators (also on different threads, since it is
+* immutable): every comparator creates its own checks from the pipeline, so sorting with a pipeline is exactly as fast
+* as sorting with the default checks.
+*
+* A rules file has one check per line, optionally followed by its parameter. Empty lines and lines starting with # are
+* ignored. The default pipeline is:
+*   EventBonusCheck
+*   PersonalPreferenceCheck 9
+*   MissingElementClassCombinationCheck
+*   CreaCheck INCOMPLETE
+*   PersonalPreferenceCheck 7
+*   SkillSetCheck
+*   HighestWokeCheck
+*   NoWeaponCheck
+*   CreaCheck COMPLETE
+*   PersonalPreferenceCheck 0
+*
+* PersonalPreferenceCheck takes the minimum personal preference and CreaCheck the crea status (COMPLETE, INCOMPLETE or
+* NONE), the other checks take no parameter.
+*/
+public class CheckPipeline {
+    /*
+    * Every rule is compiled into a CheckFactory when the rules are parsed: the parameter is parsed once, and creating
+    * the checks of a comparator only calls the factories. The compilers are looked up by the name of the check, and the
+    * same table is used both for validating and for compiling the rules.
+    */
+    private static final Map<String, RuleCompiler> COMPILERS = createCompilers();
+
+    public static final CheckPipeline DEFAULT = new CheckPipeline(Arrays.asList(
+            compileDefault("EventBonusCheck", null),
+            compileDefault("PersonalPreferenceCheck", "9"),
+            compileDefault("MissingElementClassCombinationCheck", null),
+            compileDefault("CreaCheck", "INCOMPLETE"),
+            compileDefault("PersonalPreferenceCheck", "7"),
+            compileDefault("SkillSetCheck", null),
+            compileDefault("HighestWokeCheck", null),
+            compileDefault("NoWeaponCheck", null),
+            compileDefault("CreaCheck", "COMPLETE"),
+            compileDefault("PersonalPreferenceCheck", "0")));
+
+    private final List<CheckFactory> checkFactories;
+
+    private interface CheckFactory {
+        Check createCheck(ElementClassIndex charasByElementAndClass, Map<Series, List<GameCharacter>> charasBySeries,
+                          Map<GameCharacter, Weapon> weaponsByCharas, GameEvent currentEvent,
+                          SkillTotalPowersCache skillTotalPowersCache);
+    }
+
+    private interface RuleCompiler {
+        // Throws IllegalArgumentException with a description of the error if the parameter is not valid
+        CheckFactory compile(String checkName, String parameter);
+    }
+
+    private static Map<String, RuleCompiler> createCompilers() {
+        Map<String, RuleCompiler> compilers = new HashMap<>();
+
+        compilers.put("EventBonusCheck", withoutParameter(
+                (charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent, skillTotalPowersCache) ->
+                        new EventBonusCheck(currentEvent)));
+        compilers.put("PersonalPreferenceCheck", (checkName, parameter) -> {
+            int minPersonalPreference;
+
+            try {
+                minPersonalPreference = Integer.parseInt(parameter);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(checkName + " requires the minimum personal preference as its parameter");
+            }
+
+            return (charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent, skillTotalPowersCache) ->
+                    new PersonalPreferenceCheck(minPersonalPreference);
+        });
+        compilers.put("MissingElementClassCombinationCheck", withoutParameter(
+                (charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent, skillTotalPowersCache) ->
+                        new MissingElementClassCombinationCheck(charasByElementAndClass)));
+        compilers.put("CreaCheck", (checkName, parameter) -> {
+            CreaStatus creaStatus;
+
+            try {
+                creaStatus = CreaStatus.valueOf(parameter);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException(checkName
+                        + " requires a crea status (COMPLETE, INCOMPLETE or NONE) as its parameter");
+            }
+
+            return (charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent, skillTotalPowersCache) ->
+                    new CreaCheck(creaStatus);
+        });
+        compilers.put("SkillSetCheck", withoutParameter(
+                (charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent, skillTotalPowersCache) ->
+                        new SkillSetCheck(charasByElementAndClass, skillTotalPowersCache)));
+        compilers.put("HighestWokeCheck", withoutParameter(
+                (charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent, skillTotalPowersCache) ->
+                        new HighestWokeCheck(charasBySeries)));
+        compilers.put("NoWeaponCheck", withoutParameter(
+                (charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent, skillTotalPowersCache) ->
+                        new NoWeaponCheck(weaponsByCharas)));
+
+        return compilers;
+    }
+
+    private static RuleCompiler withoutParameter(CheckFactory checkFactory) {
+        return (checkName, parameter) -> {
+            if (parameter != null) {
+                throw new IllegalArgumentException(checkName + " takes no parameter");
+            }
+
+            return checkFactory;
+        };
+    }
+
+    private static CheckFactory compileDefault(String checkName, String parameter) {
+        // The default rules are always valid
+        return COMPILERS.get(checkName).compile(checkName, parameter);
+    }
+
+    private CheckPipeline(List<CheckFactory> checkFactories) {
+        this.checkFactories = Collections.unmodifiableList(new ArrayList<>(checkFactories));
+    }
+
+    public int size() {
+        return checkFactories.size();
+    }
+
+    List<Check> createChecks(ElementClassIndex charasByElementAndClass, Map<Series, List<GameCharacter>> charasBySeries,
+                             Map<GameCharacter, Weapon> weaponsByCharas, GameEvent currentEvent,
+                             SkillTotalPowersCache skillTotalPowersCache) {
+        List<Check> checks = new ArrayList<>();
+
+        for (CheckFactory checkFactory : checkFactories) {
+            checks.add(checkFactory.createCheck(charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent,
+                    skillTotalPowersCache));
+        }
+
+        return checks;
+    }
+
+    public static CheckPipeline load(File rulesFile) {
+        // Returns null (and prints the errors) if the file can not be read or is not valid
+        try (Reader reader = new InputStreamReader(new FileInputStream(rulesFile), StandardCharsets.UTF_8)) {
+            return parse(reader);
+        } catch (IOException e) {
+            System.out.println("Failed to read rules file " + rulesFile + ": " + e);
+
+            return null;
+        }
+    }
+
+    public static CheckPipeline parse(Reader reader) throws IOException {
+        // Returns null (and prints the errors) if the rules are not valid
+        BufferedReader lines = new BufferedReader(reader);
+        List<CheckFactory> checkFactories = new ArrayList<>();
+        boolean valid = true;
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            String checkName = tokens[0];
+            RuleCompiler compiler = COMPILERS.get(checkName);
+
+            if (tokens.length > 2) {
+                System.out.println("Rules line " + lineNumber + ": too many parameters for " + checkName);
+                valid = false;
+            } else if (compiler == null) {
+                System.out.println("Rules line " + lineNumber + ": unknown check " + checkName);
+                valid = false;
+            } else {
+                try {
+                    checkFactories.add(compiler.compile(checkName, tokens.length > 1 ? tokens[1] : null));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Rules line " + lineNumber + ": " + e.getMessage());
+                    valid = false;
+                }
+            }
+        }
+
+        if (valid && checkFactories.isEmpty()) {
+            System.out.println("Rules file has no checks");
+            valid = false;
+        }
+
+        return valid ? new CheckPipeline(checkFactories) : null;
+    }
+}
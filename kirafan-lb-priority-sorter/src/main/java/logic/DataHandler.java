@@ -5,12 +5,97 @@ import domain.model.Series;
 import domain.model.Weapon;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 public abstract class DataHandler {
+    private int transactionDepth; // How many cascading operations are in progress (they call each other)
+
     public DataHandler() {
     }
 
+    // Transaction operations
+    private boolean inTransaction(BooleanSupplier operation) {
+        /*
+        * Runs a cascading operation (e.g. deleting a series and all of its characters) as a single transaction, so that
+        * DatabaseHandler writes all of its changes at once when the operation finishes. Cascading operations called by
+        * other cascading operations (e.g. deleteSeries -> deleteCharacter -> deleteWeapon) join the outermost
+        * transaction. If the operation fails (returns false) or throws, the changes of the transaction are rolled back,
+        * so e.g. the objects added by addAll before the one which could not be added are not written either.
+        */
+        if (transactionDepth == 0) {
+            beginTransaction();
+        }
+
+        transactionDepth++;
+        boolean succeeded;
+
+        try {
+            succeeded = operation.getAsBoolean();
+        } catch (RuntimeException e) {
+            if (--transactionDepth == 0) {
+                rollbackTransaction();
+            }
+
+            throw e;
+        }
+
+        if (--transactionDepth > 0) {
+            return succeeded;
+        }
+
+        if (!succeeded) {
+            rollbackTransaction();
+            return false;
+        }
+
+        if (!commitTransaction()) {
+            System.out.println("Failed to write the changes of the transaction");
+            return false;
+        }
+
+        return succeeded;
+    }
+
+    /*
+    * GlobalListHandler changes its lists right away, so by default there is nothing to do at the start and end of a
+    * transaction
+    */
+    protected void beginTransaction() {
+    }
+
+    protected boolean commitTransaction() {
+        return true;
+    }
+
+    protected void rollbackTransaction() {
+    }
+
+    public boolean addAll(List<Series> series, List<GameCharacter> characters, List<Weapon> weapons) {
+        // Adds many new objects at once (see BulkImporter) as a single transaction
+        return inTransaction(() -> {
+            for (Series s : series) {
+                if (!addNewSeries(s)) {
+                    return false;
+                }
+            }
+
+            for (GameCharacter character : characters) {
+                if (!addNewCharacter(character)) {
+                    return false;
+                }
+            }
+
+            for (Weapon weapon : weapons) {
+                if (!addNewWeapon(weapon)) {
+                    return false;
+                }
+            }
+
+            return true;
+        });
+    }
+
     // Series operations
     public abstract List<Series> getAllSeries();
 
@@ -44,27 +129,29 @@ public abstract class DataHandler {
     protected abstract boolean insertToEventSeries(Series series);
 
     public boolean updateSeries(Series series) {
-        // Update the series in the all series collection (JSON file for DatabaseHandler, List for GlobalListHandler)
-        if (!updateInAllSeries(series)) {
-            System.out.println("Failed to update series " + series);
-            return false;
-        }
+        return inTransaction(() -> {
+            // Update the series in the all series collection (JSON file for DatabaseHandler, List for GlobalListHandler)
+            if (!updateInAllSeries(series)) {
+                System.out.println("Failed to update series " + series);
+                return false;
+            }
 
-        // Update the series in the event series list as well (provided that the series is in the event series list)
-        if (eventSeriesContains(series)) {
-            if(!updateInEventSeries(series)) {
-                System.out.println("Failed to update the series " + series + " in the event series list.");
+            // Update the series in the event series list as well (provided that the series is in the event series list)
+            if (eventSeriesContains(series)) {
+                if(!updateInEventSeries(series)) {
+                    System.out.println("Failed to update the series " + series + " in the event series list.");
+                }
             }
-        }
 
-        // Update all the characters belonging to the series with an updated version of the series
-        getSeriesCharacters(series).stream()
-                .forEach(c -> {
-                    c.setSeries(series);
-                    updateCharacter(c, true);
-                });
+            // Update all the characters belonging to the series with an updated version of the series
+            getSeriesCharacters(series).stream()
+                    .forEach(c -> {
+                        c.setSeries(series);
+                        updateCharacter(c, true);
+                    });
 
-        return true;
+            return true;
+        });
     }
 
 
@@ -80,23 +167,25 @@ public abstract class DataHandler {
     }
 
     public boolean deleteSeries(Series series) {
-        // Remove the series from the all series collection
-        if (!removeFromAllSeries(series)) {
-            System.out.println("Failed to delete series " + series);
-            return false;
-        }
+        return inTransaction(() -> {
+            // Remove the series from the all series collection
+            if (!removeFromAllSeries(series)) {
+                System.out.println("Failed to delete series " + series);
+                return false;
+            }
 
-        // Remove the deleted series from the event series list (if it is not included there then nothing bad should happen)
-        removeEventSeries(series);
+            // Remove the deleted series from the event series list (if it is not included there then nothing bad should happen)
+            removeEventSeries(series);
 
-        List<GameCharacter> seriesCharacters = getSeriesCharacters(series);
+            List<GameCharacter> seriesCharacters = getSeriesCharacters(series);
 
-        // Delete all the character belonging to the deleted series
-        for (GameCharacter character : seriesCharacters) {
-            deleteCharacter(character);
-        }
+            // Delete all the character belonging to the deleted series
+            for (GameCharacter character : seriesCharacters) {
+                deleteCharacter(character);
+            }
 
-        return true;
+            return true;
+        });
     }
 
     protected abstract boolean removeFromAllSeries(Series series);
@@ -181,53 +270,58 @@ public abstract class DataHandler {
     protected abstract boolean insertToEventCharacters(GameCharacter character);
 
     public boolean updateCharacter(GameCharacter character, boolean updateExclusiveWeapons) {
-        /*
-        * Parameter updateExclusiveWeapons is for preventing infinite recursion of update operations
-        * (updateCharacter -> updateWeapon -> updateCharacter -> etc..) in the case where a character prefers their
-        * exclusive weapon. (i.e. weapon.exclusiveCharacter.preferredWeapon.equals(weapon))
-        *
-        * updateExclusiveWeapons == true when calling updateCharacter from
-        *   CharacterWindowController (i.e. when the user finishes updating the character from the GUI)
-        *   updateSeries (i.e. when a series which character belongs to is updated)
-        *
-        * updateExclusiveWeapons == false when calling updateCharacter from
-        *   updateWeapon (i.e. character is updated to have an up-to-date version of the weapon as their preferred weapon)
-        *   deleteWeapon (i.e. character is updated to have preferred weapon as null)
-        *
-        *
-        *
-        */
+        return inTransaction(() -> {
+            /*
+            * Parameter updateExclusiveWeapons is for preventing infinite recursion of update operations
+            * (updateCharacter -> updateWeapon -> updateCharacter -> etc..) in the case where a character prefers their
+            * exclusive weapon. (i.e. weapon.exclusiveCharacter.preferredWeapon.equals(weapon))
+            *
+            * updateExclusiveWeapons == true when calling updateCharacter from
+            *   CharacterWindowController (i.e. when the user finishes updating the character from the GUI)
+            *   updateSeries (i.e. when a series which character belongs to is updated)
+            *
+            * updateExclusiveWeapons == false when calling updateCharacter from
+            *   updateWeapon (i.e. character is updated to have an up-to-date version of the weapon as their preferred weapon)
+            *   deleteWeapon (i.e. character is updated to have preferred weapon as null)
+            *
+            *
+            *
+            */
+
+            // The skills or the preferred weapon of the character may have changed, so the cached skill totals are stale
+            Mapper.invalidateSkillTotalPowers(character);
+
+            // Update the character in the all character collection
+            if (!updateInAllCharacters(character)) {
+                System.out.println("Failed to update character " + character);
+                return false;
+            }
 
-        // Update the character in the all character collection
-        if (!updateInAllCharacters(character)) {
-            System.out.println("Failed to update character " + character);
-            return false;
-        }
+            // Update the character in the non-limit broken character list
+            if (!updateInLBCharacters(character)) {
+                System.out.println("Failed to update character " + character + " in non-limit broken characters");
+            }
 
-        // Update the character in the non-limit broken character list
-        if (!updateInLBCharacters(character)) {
-            System.out.println("Failed to update character " + character + " in non-limit broken characters");
-        }
+            // Update the character in the event character list (provided that the character is included in there)
+            if (eventCharactersContain(character)) {
+                if (!updateInEventCharacters(character)) {
+                    System.out.println("Failed to update character " + character + " in event characters");
+                }
 
-        // Update the character in the event character list (provided that the character is included in there)
-        if (eventCharactersContain(character)) {
-            if (!updateInEventCharacters(character)) {
-                System.out.println("Failed to update character " + character + " in event characters");
             }
 
-        }
-
-        // Update the exclusiveCharacter field in all weapons which are exclusive to the updated character
-        if (updateExclusiveWeapons) {
-            getExclusiveWeapons(character).stream()
-                    .forEach(w -> {
-                        w.setExclusiveCharacterId(character.getId());
-                        w.setExclusiveCharacter(character);
-                        updateWeapon(w, false);
-                    });
-        }
+            // Update the exclusiveCharacter field in all weapons which are exclusive to the updated character
+            if (updateExclusiveWeapons) {
+                getExclusiveWeapons(character).stream()
+                        .forEach(w -> {
+                            w.setExclusiveCharacterId(character.getId());
+                            w.setExclusiveCharacter(character);
+                            updateWeapon(w, false);
+                        });
+            }
 
-        return true;
+            return true;
+        });
     }
 
     protected abstract boolean updateInAllCharacters(GameCharacter character);
@@ -251,28 +345,32 @@ public abstract class DataHandler {
     }
 
     public boolean deleteCharacter(GameCharacter character) {
-        // Remove the character from the all characters collection
-        if (!removeFromAllCharacters(character)) {
-            System.out.println("Failed to delete character " + character);
-            return false;
-        }
+        return inTransaction(() -> {
+            Mapper.invalidateSkillTotalPowers(character);
 
-        // Remove the character from the non-limit broken character list
-        if (!removeFromNonLBCharacters(character)) {
-            System.out.println("Failed to remove character from non-lb characters");
-        }
+            // Remove the character from the all characters collection
+            if (!removeFromAllCharacters(character)) {
+                System.out.println("Failed to delete character " + character);
+                return false;
+            }
 
-        // Remove the character from the event character list
-        removeEventCharacter(character);
+            // Remove the character from the non-limit broken character list
+            if (!removeFromNonLBCharacters(character)) {
+                System.out.println("Failed to remove character from non-lb characters");
+            }
 
-        List<Weapon> exclusiveWeapons = getExclusiveWeapons((character));
+            // Remove the character from the event character list
+            removeEventCharacter(character);
 
-        // Delete all weapons exclusive to the deleted character
-        for (Weapon exclusiveWeapon : exclusiveWeapons) {
-            deleteWeapon(exclusiveWeapon);
-        }
+            List<Weapon> exclusiveWeapons = getExclusiveWeapons((character));
 
-        return true;
+            // Delete all weapons exclusive to the deleted character
+            for (Weapon exclusiveWeapon : exclusiveWeapons) {
+                deleteWeapon(exclusiveWeapon);
+            }
+
+            return true;
+        });
     }
 
     protected abstract boolean removeFromAllCharacters(GameCharacter character);
@@ -321,39 +419,46 @@ public abstract class DataHandler {
     protected abstract boolean insertToAllWeapons(Weapon weapon);
 
     public boolean updateWeapon(Weapon weapon, boolean updateWeaponUsers) {
-        /*
-         * Parameter updateWeaponUsers is for preventing infinite recursion of update operations
-         * (updateCharacter -> updateWeapon -> updateCharacter -> etc..) in the case where a character prefers their
-         * exclusive weapon. (i.e. weapon.exclusiveCharacter.preferredWeapon.equals(weapon))
-         *
-         * in this context weapon user means a character who prefers the weapon in question (i.e.
-         * character.preferredWeapon == weapon). updateCharactersWhoPreferWeapon would be too verbose and
-         * updateWeaponPreferrers sounds weird
-         *
-         * updateWeaponUsers == true when calling updateWeapon from
-         *   WeaponWindowController (i.e. when the user finishes updating the weapon from the GUI)
-         *
-         * updateWeaponUsers == false when calling updateWeapon from
-         *   updateCharacter (i.e. when the weapon is updated to have an up-to-date version of the exclusive character)
-         *
-         */
-
-        // Update the weapon in the all weapon collection
-        if (!updateInAllWeapons(weapon)) {
-            System.out.println("Failed to update weapon " + weapon);
-            return false;
-        }
+        return inTransaction(() -> {
+            /*
+             * Parameter updateWeaponUsers is for preventing infinite recursion of update operations
+             * (updateCharacter -> updateWeapon -> updateCharacter -> etc..) in the case where a character prefers their
+             * exclusive weapon. (i.e. weapon.exclusiveCharacter.preferredWeapon.equals(weapon))
+             *
+             * in this context weapon user means a character who prefers the weapon in question (i.e.
+             * character.preferredWeapon == weapon). updateCharactersWhoPreferWeapon would be too verbose and
+             * updateWeaponPreferrers sounds weird
+             *
+             * updateWeaponUsers == true when calling updateWeapon from
+             *   WeaponWindowController (i.e. when the user finishes updating the weapon from the GUI)
+             *
+             * updateWeaponUsers == false when calling updateWeapon from
+             *   updateCharacter (i.e. when the weapon is updated to have an up-to-date version of the exclusive character)
+             *
+             */
+
+            // Update the weapon in the all weapon collection
+            if (!updateInAllWeapons(weapon)) {
+                System.out.println("Failed to update weapon " + weapon);
+                return false;
+            }
 
-        // Update the characters who prefer this weapon to have an up-to-date version of this weapon
-        if (updateWeaponUsers) {
-            getWeaponUsers(weapon).stream()
-                    .forEach(c -> {
-                        c.setPreferredWeapon(weapon);
-                        updateCharacter(c, false);
-                    });
-        }
+            // The skills of the weapon may have changed, so the cached skill totals of its users are stale
+            List<GameCharacter> weaponUsers = getWeaponUsers(weapon);
+            weaponUsers.stream()
+                    .forEach(Mapper::invalidateSkillTotalPowers);
+
+            // Update the characters who prefer this weapon to have an up-to-date version of this weapon
+            if (updateWeaponUsers) {
+                weaponUsers.stream()
+                        .forEach(c -> {
+                            c.setPreferredWeapon(weapon);
+                            updateCharacter(c, false);
+                        });
+            }
 
-        return true;
+            return true;
+        });
     }
 
     protected abstract boolean updateInAllWeapons(Weapon weapon);
@@ -367,21 +472,23 @@ public abstract class DataHandler {
     }
 
     public boolean deleteWeapon(Weapon weapon) {
-        // Remove the weapon from the all weapon collection
-        if (!removeFromAllWeapons(weapon)) {
-            System.out.println("Failed to delete weapon " + weapon);
-            return false;
-        }
+        return inTransaction(() -> {
+            // Remove the weapon from the all weapon collection
+            if (!removeFromAllWeapons(weapon)) {
+                System.out.println("Failed to delete weapon " + weapon);
+                return false;
+            }
 
-        // Set the preferred weapon to null for all characters who had this weapon as their preferred weapon
-        getWeaponUsers(weapon).stream()
-                .forEach(c -> {
-                    c.setPreferredWeapon(null);
+            // Set the preferred weapon to null for all characters who had this weapon as their preferred weapon
+            getWeaponUsers(weapon).stream()
+                    .forEach(c -> {
+                        c.setPreferredWeapon(null);
 
-                    updateCharacter(c, false);
-                });
+                        updateCharacter(c, false);
+                    });
 
-        return true;
+            return true;
+        });
     }
 
     protected abstract boolean removeFromAllWeapons(Weapon weapon);
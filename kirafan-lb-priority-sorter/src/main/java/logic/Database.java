@@ -1,22 +1,72 @@
 package logic;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsondb.JsonDBTemplate;
+import io.jsondb.annotation.Id;
 
-import java.util.Collections;
-import java.util.List;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/*
+* Reads and writes the objects of a single JsonDB collection (i.e. a single json file).
+*
+* Changes can be grouped into a transaction: after beginTransaction inserted, updated and removed objects are only staged
+* in memory (reads already see them) and commitTransaction writes them all at once with one batch remove and one batch
+* upsert, so e.g. deleting a series with 50 characters rewrites the character json file at most twice instead of 50 times.
+* rollbackTransaction discards the staged changes instead. Insert, update and remove return false in the same cases both
+* inside and outside of a transaction (inserting an object whose id already exists, updating or removing an object which
+* does not exist).
+*
+* The staged objects are copies of the given objects, and reads return copies of the staged objects, so an object
+* which the caller changes after staging it (or after reading it) can not change what is written. This matters
+* especially with WriteBehindDatabase, whose staged objects are written on another thread.
+*
+* The objects of a Snapshot can be given to the database with useSnapshot. They are then returned instead of the objects
+* of the json file until the json file is written for the first time, and if the JsonDBTemplate is given as a
+* JsonDBTemplateLoader, the json files do not need to be read at all before that.
+*/
 public class Database<T> {
-    private JsonDBTemplate database;
-    private String collectionName;
+    private static final Map<Class<?>, Field> idFields = new ConcurrentHashMap<>();
+    private static final ObjectMapper mapper = new ObjectMapper(); // Copies the staged objects
+
+    private final Supplier<JsonDBTemplate> database;
+    protected String collectionName;
+    private Snapshot.ObjectList<T> snapshotObjects; // Returned instead of the json file's objects until it is written
+    private boolean inTransaction;
+    private final Map<String, T> stagedSaves = new LinkedHashMap<>(); // Inserted and updated objects by id
+    private final Map<String, T> stagedRemoves = new LinkedHashMap<>(); // Removed objects by id
+    private Set<String> persistedIds; // Ids of the objects in the json file, read when first needed in a transaction
+    private Map<String, T> savepointSaves; // The staged changes when setSavepoint was called, or null
+    private Map<String, T> savepointRemoves;
 
     public Database(String dbFilesLocation, String modelPackageName, String collectionName) {
-        database = new JsonDBTemplate(dbFilesLocation, modelPackageName);
+        this(new JsonDBTemplate(dbFilesLocation, modelPackageName), collectionName);
+    }
+
+    public Database(JsonDBTemplate database, String collectionName) {
+        // Every JsonDBTemplate reads all the collections of its directory, so databases of the same directory can share one
+        this(() -> database, collectionName);
+    }
+
+    public Database(Supplier<JsonDBTemplate> database, String collectionName) {
+        // The JsonDBTemplate is asked for only when the json file is accessed for the first time (see JsonDBTemplateLoader)
+        this.database = database;
         this.collectionName = collectionName;
     }
 
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    public synchronized void useSnapshot(Snapshot.ObjectList<T> objects) {
+        snapshotObjects = objects;
+    }
+
     public boolean createCollection() {
         try {
-            database.createCollection(collectionName);
+            database.get().createCollection(collectionName);
 
             return true;
         } catch (Exception e) {
@@ -26,19 +76,30 @@ public class Database<T> {
         }
     }
 
-    public List<T> find (String jxQuery) {
+    public synchronized List<T> find (String jxQuery) {
+        // NOTE: The query is run against the json file, so it does not see the changes staged in a transaction
         try {
-            return database.find(jxQuery, collectionName);
+            return database.get().find(jxQuery, collectionName);
         } catch (Exception e) {
             System.out.println(e);
             return null;
         }
     }
 
-    public T findById(String id) {
+    public synchronized T findById(String id) {
+        if (stagedRemoves.containsKey(id)) {
+            return null;
+        } else if (stagedSaves.containsKey(id)) {
+            return copy(stagedSaves.get(id));
+        }
+
         try {
+            if (snapshotObjects != null) {
+                return snapshotObjects.findById(id);
+            }
+
             // returns null if no object found matching id
-            return database.findById(id, collectionName);
+            return database.get().findById(id, collectionName);
         } catch (Exception e) {
             System.out.println(e);
 
@@ -46,19 +107,141 @@ public class Database<T> {
         }
     }
 
-    public List<T> findAll() {
+    public synchronized List<T> findAll() {
+        List<T> persistedObjects;
+
         try {
-            return database.findAll(collectionName);
+            persistedObjects = readPersistedObjects();
         } catch (Exception e) {
             System.out.println(e);
 
             return null;
         }
+
+        if (!hasStagedChanges()) {
+            return persistedObjects;
+        }
+
+        List<T> objects = new ArrayList<>();
+
+        for (T t : persistedObjects) {
+            String id = getId(t);
+
+            if (!stagedSaves.containsKey(id) && !stagedRemoves.containsKey(id)) {
+                objects.add(t);
+            }
+        }
+
+        stagedSaves.values().forEach(t -> objects.add(copy(t)));
+
+        return objects;
+    }
+
+    public synchronized boolean insert(T t) {
+        if (inTransaction) {
+            String id = getId(t);
+
+            if (!readPersistedIds()) {
+                return false;
+            }
+
+            if (exists(id)) {
+                System.out.println("Failed to insert " + t + " into " + collectionName + ", id " + id + " already exists");
+                return false;
+            }
+
+            T staged = stagedCopy(t);
+
+            if (staged == null) {
+                return false;
+            }
+
+            stagedRemoves.remove(id);
+            stagedSaves.put(id, staged);
+
+            return true;
+        }
+
+        try {
+            snapshotObjects = null;
+            database.get().insert(t);
+
+            return true;
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
+    }
+
+    public synchronized boolean update(T t) {
+        if (inTransaction) {
+            String id = getId(t);
+
+            if (!readPersistedIds()) {
+                return false;
+            }
+
+            if (!exists(id)) {
+                System.out.println("Failed to update " + t + " in " + collectionName + ", id " + id + " does not exist");
+                return false;
+            }
+
+            T staged = stagedCopy(t);
+
+            if (staged == null) {
+                return false;
+            }
+
+            stagedSaves.put(id, staged);
+
+            return true;
+        }
+
+        try {
+            snapshotObjects = null;
+            database.get().save(t, this.collectionName);
+
+            return true;
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
     }
 
-    public boolean insert(T t) {
+    public synchronized boolean remove(T t) {
+        if (inTransaction) {
+            String id = getId(t);
+
+            if (!readPersistedIds()) {
+                return false;
+            }
+
+            if (!exists(id)) {
+                System.out.println("Failed to remove " + t + " from " + collectionName + ", id " + id + " does not exist");
+                return false;
+            }
+
+            // An object which was inserted in the same transaction only needs to be forgotten
+            if (persistedIds.contains(id)) {
+                T staged = stagedCopy(t);
+
+                if (staged == null) {
+                    return false;
+                }
+
+                stagedRemoves.put(id, staged);
+            }
+
+            stagedSaves.remove(id);
+
+            return true;
+        }
+
         try {
-            database.insert(t);
+            snapshotObjects = null;
+            database.get().remove(t, this.collectionName);
 
             return true;
         } catch (Exception e) {
@@ -68,9 +251,95 @@ public class Database<T> {
         }
     }
 
-    public boolean update(T t) {
+    public synchronized void beginTransaction() {
+        // Beginning a transaction while one is already in progress does nothing (the changes go to the same transaction)
+        inTransaction = true;
+    }
+
+    public synchronized boolean commitTransaction() {
+        /*
+        * Writes the staged changes into the json file and ends the transaction. If writing fails the staged changes are
+        * discarded (so the database returns what is in the json file again) and false is returned.
+        */
+        if (!inTransaction) {
+            System.out.println("Failed to commit the changes of " + collectionName + ", no transaction in progress");
+            return false;
+        }
+
+        boolean committed = writeStagedChanges();
+        rollbackTransaction();
+
+        return committed;
+    }
+
+    public synchronized void rollbackTransaction() {
+        stagedSaves.clear();
+        stagedRemoves.clear();
+        persistedIds = null;
+        inTransaction = false;
+    }
+
+    public synchronized boolean hasStagedChanges() {
+        return !stagedSaves.isEmpty() || !stagedRemoves.isEmpty();
+    }
+
+    synchronized void setSavepoint() {
+        // Remembers the staged changes, so that the changes staged after this can be discarded with rollbackToSavepoint
+        savepointSaves = new LinkedHashMap<>(stagedSaves);
+        savepointRemoves = new LinkedHashMap<>(stagedRemoves);
+    }
+
+    synchronized void releaseSavepoint() {
+        // Keeps the changes staged after setSavepoint
+        savepointSaves = null;
+        savepointRemoves = null;
+    }
+
+    synchronized void rollbackToSavepoint() {
+        /*
+        * Discards the changes staged after setSavepoint. The staged changes must not have been written in between,
+        * since the ids of the json file are not read again.
+        */
+        if (savepointSaves == null) {
+            return;
+        }
+
+        stagedSaves.clear();
+        stagedSaves.putAll(savepointSaves);
+        stagedRemoves.clear();
+        stagedRemoves.putAll(savepointRemoves);
+        releaseSavepoint();
+    }
+
+    synchronized List<T> getStagedSaves() {
+        return new ArrayList<>(stagedSaves.values());
+    }
+
+    synchronized List<T> getStagedRemoves() {
+        return new ArrayList<>(stagedRemoves.values());
+    }
+
+    synchronized boolean writeStagedChanges() {
+        /*
+        * Writes the staged changes into the json file without ending the transaction. If writing fails the changes stay
+        * staged and false is returned.
+        */
         try {
-            database.save(t, this.collectionName);
+            if (hasStagedChanges()) {
+                snapshotObjects = null;
+            }
+
+            if (!stagedRemoves.isEmpty()) {
+                database.get().remove(new ArrayList<>(stagedRemoves.values()), collectionName);
+                persistedIds.removeAll(stagedRemoves.keySet());
+                stagedRemoves.clear();
+            }
+
+            if (!stagedSaves.isEmpty()) {
+                database.get().upsert(new ArrayList<>(stagedSaves.values()), collectionName);
+                persistedIds.addAll(stagedSaves.keySet());
+                stagedSaves.clear();
+            }
 
             return true;
         } catch (Exception e) {
@@ -80,9 +349,33 @@ public class Database<T> {
         }
     }
 
-    public boolean remove(T t) {
+    synchronized boolean writeJournaledChanges(List<Object> removes, List<Object> saves) {
+        /*
+        * Writes changes read from a TransactionJournal. Since the changes may have already been partly written before
+        * the program crashed, objects which have already been removed are skipped.
+        */
         try {
-            database.remove(t, this.collectionName);
+            snapshotObjects = null;
+            List<Object> existingRemoves = new ArrayList<>();
+
+            for (Object o : removes) {
+                if (database.get().findById(getId(o), collectionName) != null) {
+                    existingRemoves.add(o);
+                }
+            }
+
+            if (!existingRemoves.isEmpty()) {
+                database.get().remove(existingRemoves, collectionName);
+            }
+
+            if (!saves.isEmpty()) {
+                database.get().upsert(saves, collectionName);
+            }
+
+            if (persistedIds != null) {
+                existingRemoves.forEach(o -> persistedIds.remove(getId(o)));
+                saves.forEach(o -> persistedIds.add(getId(o)));
+            }
 
             return true;
         } catch (Exception e) {
@@ -92,4 +385,75 @@ public class Database<T> {
         }
     }
 
+    static String getId(Object o) {
+        // JsonDB requires every model class to have a field annotated with @Id
+        Field idField = idFields.computeIfAbsent(o.getClass(), Database::findIdField);
+
+        try {
+            return String.valueOf(idField.get(o));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T t) {
+        // The copy is made through json, the same way as JsonDB writes and reads the object
+        try {
+            return (T) mapper.treeToValue(mapper.valueToTree(t), t.getClass());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private T stagedCopy(T t) {
+        // Returns null if the object can not be copied (and so could not be written either)
+        try {
+            return copy(t);
+        } catch (IllegalStateException e) {
+            System.out.println("Failed to stage " + t + " in " + collectionName + ": " + e.getCause());
+
+            return null;
+        }
+    }
+
+    private static Field findIdField(Class<?> c) {
+        for (Class<?> current = c; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException(c + " does not have a field annotated with @Id");
+    }
+
+    private List<T> readPersistedObjects() {
+        return snapshotObjects != null ? new ArrayList<>(snapshotObjects) : database.get().findAll(collectionName);
+    }
+
+    private boolean exists(String id) {
+        return !stagedRemoves.containsKey(id) && (stagedSaves.containsKey(id) || persistedIds.contains(id));
+    }
+
+    private boolean readPersistedIds() {
+        // Returns false if the collection can not be read (e.g. it has not been created)
+        if (persistedIds != null) {
+            return true;
+        }
+
+        try {
+            List<T> persistedObjects = readPersistedObjects();
+            persistedIds = new HashSet<>();
+            persistedObjects.forEach(t -> persistedIds.add(getId(t)));
+
+            return true;
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
+    }
 }
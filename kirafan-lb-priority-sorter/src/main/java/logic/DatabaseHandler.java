@@ -1,11 +1,20 @@
 package logic;
 
+import domain.IdGenerator;
 import domain.model.GameCharacter;
 import domain.model.GameEvent;
 import domain.model.Series;
 import domain.model.Weapon;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /*
@@ -13,6 +22,10 @@ import java.util.stream.Collectors;
 * by the GUI controller classes. Since AFAIK JsonDB does not support cascading deletions, the main purpose of this class
 * is to encapsulate those deletions behind single function calls (e.g deleting a series should also delete the characters
 * which belong to that series)
+*
+* The changes of a cascading operation are written as a single transaction (see DataHandler and Database). If the
+* handler has a TransactionJournal, the transaction is written through it, so that a crash in the middle of writing the
+* json files can not leave e.g. a deleted series' characters behind.
 */
 public class DatabaseHandler extends DataHandler {
     private final static String EVENT_ID = "1";
@@ -22,6 +35,8 @@ public class DatabaseHandler extends DataHandler {
     private Database<Series> seriesDatabase;
     private Database<Weapon> weaponDatabase;
     private GameEvent event;
+    private TransactionJournal journal; // null if transactions are not journaled
+    private boolean idMigrationFailed;
 
     public DatabaseHandler(Database<GameCharacter> characterDatabase, Database<GameEvent> eventDatabase,
                            Database<Series> seriesDatabase, Database<Weapon> weaponDatabase) {
@@ -31,11 +46,92 @@ public class DatabaseHandler extends DataHandler {
         this.weaponDatabase = weaponDatabase;
     }
 
+    public void setTransactionJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    private List<Database<?>> getDatabases() {
+        return Arrays.asList(characterDatabase, eventDatabase, seriesDatabase, weaponDatabase);
+    }
+
     public void initializeCollections() {
         characterDatabase.createCollection();
         eventDatabase.createCollection();
         seriesDatabase.createCollection();
         weaponDatabase.createCollection();
+
+        // Finish writing a transaction which was interrupted by a crash
+        if (journal != null) {
+            journal.recover(getDatabases());
+        }
+    }
+
+    public void initializeFromSnapshot(Snapshot snapshot) {
+        /*
+        * Reads the objects from the snapshot instead of the json files until the json files are written for the first
+        * time. The collections exist already, since the snapshot was created from them.
+        */
+        characterDatabase.useSnapshot(snapshot.getAllCharacters());
+        eventDatabase.useSnapshot(snapshot.getEvents());
+        seriesDatabase.useSnapshot(snapshot.getAllSeries());
+        weaponDatabase.useSnapshot(snapshot.getAllWeapons());
+        initializeEvent();
+
+        // Like in migrateIds, the new ids must be greater than the existing ones (the ids are read without decoding)
+        snapshot.getAllSeries().getIds().forEach(IdGenerator::reserve);
+        snapshot.getAllCharacters().getIds().forEach(IdGenerator::reserve);
+        snapshot.getAllWeapons().getIds().forEach(IdGenerator::reserve);
+    }
+
+    public boolean writeSnapshot(File snapshotFile, File dbFilesFolder) {
+        /*
+        * A program started from a snapshot does not migrate the ids, so no snapshot is written after a failed migration.
+        * The json files are then read and the migration is tried again on the next start.
+        */
+        if (idMigrationFailed) {
+            System.out.println("Failed to write snapshot, the ids have not been migrated");
+            return false;
+        }
+
+        // The snapshot must match the json files, so it can not be written while there are changes not yet written
+        for (Database<?> database : getDatabases()) {
+            if (database.hasStagedChanges()) {
+                System.out.println("Failed to write snapshot, the changes of " + database.getCollectionName()
+                        + " have not been written yet");
+                return false;
+            }
+        }
+
+        return Snapshot.write(snapshotFile, dbFilesFolder, getAllSeries(), getAllCharacters(), getAllWeapons(),
+                eventDatabase.findAll());
+    }
+
+    @Override
+    protected void beginTransaction() {
+        getDatabases().forEach(Database::beginTransaction);
+    }
+
+    @Override
+    protected boolean commitTransaction() {
+        if (journal != null && !journal.commit(getDatabases())) {
+            getDatabases().forEach(Database::rollbackTransaction);
+            return false;
+        }
+
+        boolean committed = true;
+
+        for (Database<?> database : getDatabases()) {
+            if (!database.commitTransaction()) {
+                committed = false;
+            }
+        }
+
+        return committed;
+    }
+
+    @Override
+    protected void rollbackTransaction() {
+        getDatabases().forEach(Database::rollbackTransaction);
     }
 
     public void initializeEvent() {
@@ -44,9 +140,139 @@ public class DatabaseHandler extends DataHandler {
         if (event == null) {
             event = new GameEvent(EVENT_ID);
             eventDatabase.insert(event);
+        } else if (event.hasOldFormat()) {
+            // Rewrites an event which has been saved with copies of the characters and series with their ids instead
+            updateEvent();
         }
     }
 
+    public boolean migrateIds() {
+        /*
+        * Gives new ids (see IdGenerator) to the series, characters and weapons which still have an id created by an older
+        * version of the program, and rewrites the references to them (the series and the preferred weapon copied into
+        * each character, the exclusive character id of each weapon and the ids stored by the event). Call after
+        * initializeEvent. The changes are written as a single transaction, returns false if writing them failed.
+        */
+        List<Series> allSeries = getAllSeries();
+        List<GameCharacter> allCharacters = getAllCharacters();
+        List<Weapon> allWeapons = getAllWeapons();
+
+        // The new ids must be greater than the existing ones, in case the clock has been turned back since
+        allSeries.forEach(s -> IdGenerator.reserve(s.getId()));
+        allCharacters.forEach(c -> IdGenerator.reserve(c.getId()));
+        allWeapons.forEach(w -> IdGenerator.reserve(w.getId()));
+
+        Map<String, String> seriesIds = createNewIds(allSeries, Series::getId);
+        Map<String, String> characterIds = createNewIds(allCharacters, GameCharacter::getId);
+        Map<String, String> weaponIds = createNewIds(allWeapons, Weapon::getId);
+
+        if (seriesIds.isEmpty() && characterIds.isEmpty() && weaponIds.isEmpty()) {
+            return true;
+        }
+
+        beginTransaction();
+        boolean migrated = true;
+
+        for (Series series : allSeries) {
+            migrated &= writeWithNewId(seriesDatabase, series, seriesIds, Series::getId, Series::setId,
+                    id -> new Series(series.getName(), series.getCreaStatus(), id));
+        }
+
+        for (GameCharacter character : allCharacters) {
+            Series series = character.getSeries();
+            Weapon preferredWeapon = character.getPreferredWeapon();
+
+            if (series != null) {
+                series.setId(seriesIds.getOrDefault(series.getId(), series.getId()));
+            }
+
+            if (preferredWeapon != null) {
+                preferredWeapon.setId(weaponIds.getOrDefault(preferredWeapon.getId(), preferredWeapon.getId()));
+                changeExclusiveCharacterId(preferredWeapon, characterIds);
+            }
+
+            migrated &= writeWithNewId(characterDatabase, character, characterIds, GameCharacter::getId,
+                    GameCharacter::setId, id -> new GameCharacter.Builder(character.getName(), null,
+                            character.getCharacterElement(), character.getCharacterClass()).overwriteID(id).build());
+        }
+
+        for (Weapon weapon : allWeapons) {
+            changeExclusiveCharacterId(weapon, characterIds);
+            migrated &= writeWithNewId(weaponDatabase, weapon, weaponIds, Weapon::getId, Weapon::setId,
+                    id -> new Weapon.Builder(weapon.getName()).overwriteID(id).build());
+        }
+
+        event.setBonusCharacterIds(replaceIds(event.getBonusCharacterIds(), characterIds));
+        event.setAvailableSeriesIds(replaceIds(event.getAvailableSeriesIds(), seriesIds));
+        migrated &= updateEvent();
+
+        if (!migrated) {
+            System.out.println("Failed to migrate the ids of the series, characters and weapons");
+            rollbackTransaction();
+            idMigrationFailed = true;
+            return false;
+        }
+
+        idMigrationFailed = !commitTransaction();
+
+        return !idMigrationFailed;
+    }
+
+    private static <T> Map<String, String> createNewIds(List<T> objects, Function<T, String> getId) {
+        // Maps each id which has not been created by IdGenerator to a new id
+        Map<String, String> newIds = new HashMap<>();
+
+        for (T t : objects) {
+            if (!IdGenerator.isGeneratedId(getId.apply(t))) {
+                newIds.put(getId.apply(t), IdGenerator.nextId());
+            }
+        }
+
+        return newIds;
+    }
+
+    private static <T> boolean writeWithNewId(Database<T> database, T t, Map<String, String> newIds,
+                                              Function<T, String> getId, BiConsumer<T, String> setId,
+                                              Function<String, T> placeholder) {
+        /*
+        * The id of an object can not be changed with update, so the object is removed and inserted with the new id. The
+        * object is removed through a placeholder with the old id, since the removal is written only when the
+        * transaction is committed (and the removed object must still have the old id then).
+        */
+        String oldId = getId.apply(t);
+
+        if (!newIds.containsKey(oldId)) {
+            return database.update(t);
+        }
+
+        if (!database.remove(placeholder.apply(oldId))) {
+            return false;
+        }
+
+        setId.accept(t, newIds.get(oldId));
+
+        return database.insert(t);
+    }
+
+    private static void changeExclusiveCharacterId(Weapon weapon, Map<String, String> characterIds) {
+        String exclusiveCharacterId = weapon.getExclusiveCharacterId();
+
+        if (exclusiveCharacterId != null) {
+            weapon.setExclusiveCharacterId(characterIds.getOrDefault(exclusiveCharacterId, exclusiveCharacterId));
+        }
+    }
+
+    private static Set<String> replaceIds(Set<String> ids, Map<String, String> newIds) {
+        if (ids == null) {
+            return null;
+        }
+
+        Set<String> replacedIds = new LinkedHashSet<>();
+        ids.forEach(id -> replacedIds.add(newIds.getOrDefault(id, id)));
+
+        return replacedIds;
+    }
+
     public GameEvent getEvent() {
         return this.event;
     }
@@ -58,7 +284,9 @@ public class DatabaseHandler extends DataHandler {
 
     @Override
     public List<Series> getEventSeries() {
-        return event.getAvailableSeries();
+        return getAllSeries().stream()
+                .filter(event::isAvailableSeries)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -68,7 +296,7 @@ public class DatabaseHandler extends DataHandler {
 
     @Override
     public boolean eventSeriesContains(Series series) {
-        return event.getAvailableSeries().contains(series);
+        return event.isAvailableSeries(series);
     }
 
     @Override
@@ -89,10 +317,8 @@ public class DatabaseHandler extends DataHandler {
 
     @Override
     protected boolean updateInEventSeries(Series series) {
-        event.removeAvailableSeries(series);
-        event.addAvailableSeries(series);
-
-        return updateEvent();
+        // The event stores only the id of the series, which does not change, so there is nothing to update
+        return true;
     }
 
     @Override
@@ -121,7 +347,9 @@ public class DatabaseHandler extends DataHandler {
 
     @Override
     public List<GameCharacter> getEventCharacters() {
-        return event.getBonusCharacters();
+        return getAllCharacters().stream()
+                .filter(event::isBonusCharacter)
+                .collect(Collectors.toList());
     }
 
     public List<GameCharacter> getNonLimitBrokenCharacters() {
@@ -143,7 +371,7 @@ public class DatabaseHandler extends DataHandler {
 
     @Override
     public boolean eventCharactersContain(GameCharacter character) {
-        return event.getBonusCharacters().contains(character);
+        return event.isBonusCharacter(character);
     }
 
     @Override
@@ -167,10 +395,8 @@ public class DatabaseHandler extends DataHandler {
 
     @Override
     protected boolean updateInEventCharacters(GameCharacter character) {
-        event.removeBonusCharacter(character);
-        event.addBonusCharacter(character);
-
-        return updateEvent();
+        // The event stores only the id of the character, which does not change, so there is nothing to update
+        return true;
     }
 
     @Override
@@ -0,0 +1,151 @@
+package logic;
+
+import domain.CharacterClass;
+import domain.CharacterElement;
+import domain.model.GameCharacter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class ElementClassIndex {
+    /*
+    * Characters grouped by their element/class combination.
+    *
+    * There are exactly 6 elements and 5 classes, so the groups are stored in an array with one slot per combination
+    * (indexed by the ordinals of the element and the class). Looking up a group does not allocate or hash anything
+    * (unlike with a HashMap keyed by AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, where every lookup
+    * needs a new key). MissingElementClassCombinationCheck and SkillSetCheck look up groups constantly while sorting,
+    * so this matters.
+    *
+    * Each slot also knows which of its characters are limit broken (see hasLimitBrokenCharacterOtherThan). These are
+    * calculated when they are first needed after the slot has been changed with add or remove, so a character whose
+    * limit broken status is changed must be removed and added back (like PriorityRanker does when a character is
+    * updated).
+    *
+    * Characters without an element or a class are not indexed.
+    */
+    public static final int SLOTS = CharacterElement.values().length * CharacterClass.values().length;
+
+    private static final int CLASS_SLOTS = CharacterClass.values().length;
+
+    private final List<List<GameCharacter>> groups;
+    private final int[] limitBrokenCounts;
+    private final GameCharacter[] firstLimitBrokenCharacters;
+    private final boolean[] limitBrokenCountUpToDate;
+    private int nonEmptySlots;
+
+    public ElementClassIndex() {
+        groups = new ArrayList<>(Collections.nCopies(SLOTS, null));
+        limitBrokenCounts = new int[SLOTS];
+        firstLimitBrokenCharacters = new GameCharacter[SLOTS];
+        limitBrokenCountUpToDate = new boolean[SLOTS];
+    }
+
+    public static int getSlot(CharacterElement element, CharacterClass characterClass) {
+        // Returns -1 if the element or the class is null
+        if (element == null || characterClass == null) {
+            return -1;
+        }
+
+        return element.ordinal() * CLASS_SLOTS + characterClass.ordinal();
+    }
+
+    public static int getSlot(GameCharacter chara) {
+        return getSlot(chara.getCharacterElement(), chara.getCharacterClass());
+    }
+
+    public List<GameCharacter> get(CharacterElement element, CharacterClass characterClass) {
+        return get(getSlot(element, characterClass));
+    }
+
+    public List<GameCharacter> get(int slot) {
+        /*
+        * Returns the characters of the slot (an empty list if there are none). The returned list must not be modified,
+        * use add and remove instead.
+        */
+        List<GameCharacter> group = slot < 0 ? null : groups.get(slot);
+
+        return group == null ? Collections.emptyList() : group;
+    }
+
+    public void add(GameCharacter chara) {
+        int slot = chara == null ? -1 : getSlot(chara);
+
+        if (slot < 0) {
+            return;
+        }
+
+        List<GameCharacter> group = groups.get(slot);
+
+        if (group == null) {
+            group = new ArrayList<>();
+            groups.set(slot, group);
+            nonEmptySlots++;
+        }
+
+        group.add(chara);
+        limitBrokenCountUpToDate[slot] = false;
+    }
+
+    public void remove(int slot, GameCharacter chara) {
+        // The slot is given separately, since the character's element or class may already have been changed
+        List<GameCharacter> group = slot < 0 ? null : groups.get(slot);
+
+        if (group == null || !group.remove(chara)) {
+            return;
+        }
+
+        if (group.isEmpty()) {
+            groups.set(slot, null);
+            nonEmptySlots--;
+        }
+
+        limitBrokenCountUpToDate[slot] = false;
+    }
+
+    public boolean hasLimitBrokenCharacterOtherThan(GameCharacter chara) {
+        // Returns true if the character's slot has a limit broken character which is not the given character
+        int slot = getSlot(chara);
+
+        if (slot < 0) {
+            return false;
+        }
+
+        if (!limitBrokenCountUpToDate[slot]) {
+            updateLimitBrokenCount(slot);
+        }
+
+        int limitBrokenCount = limitBrokenCounts[slot];
+
+        return limitBrokenCount > 1 || (limitBrokenCount == 1 && !firstLimitBrokenCharacters[slot].equals(chara));
+    }
+
+    private void updateLimitBrokenCount(int slot) {
+        int limitBrokenCount = 0;
+        GameCharacter firstLimitBrokenCharacter = null;
+
+        for (GameCharacter chara : get(slot)) {
+            if (chara.isLimitBroken()) {
+                limitBrokenCount++;
+
+                if (firstLimitBrokenCharacter == null) {
+                    firstLimitBrokenCharacter = chara;
+                }
+            }
+        }
+
+        limitBrokenCounts[slot] = limitBrokenCount;
+        firstLimitBrokenCharacters[slot] = firstLimitBrokenCharacter;
+        limitBrokenCountUpToDate[slot] = true;
+    }
+
+    public int size() {
+        // The amount of element/class combinations which have at least one character
+        return nonEmptySlots;
+    }
+
+    public boolean isEmpty() {
+        return nonEmptySlots == 0;
+    }
+}
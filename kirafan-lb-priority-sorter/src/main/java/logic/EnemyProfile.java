@@ -0,0 +1,86 @@
+package logic;
+
+import domain.CharacterClass;
+import domain.CharacterElement;
+import domain.SkillType;
+
+/*
+* The imaginary enemies which Calculator compares characters against:
+*   -the defender of calculateMaxDamageCaused: weak to the attacking character's element, 200 DEF and 200 MDF
+*   -the attacker of calculateDamageTaken: a warrior (against DEF) or a mage (against MDF) of the defending character's
+*   element with 72000 ATK/MAT
+*
+* The enemies have no skills or weapons. There are only 6 elements, so every profile is created once when the class is
+* loaded and then shared, instead of building a throwaway GameCharacter (and its Series and skill totals) for every
+* damage calculation. The profiles are immutable (the skill totals can only be changed inside the logic package, and
+* nothing changes them).
+*/
+public final class EnemyProfile {
+    private static final SkillPowerTable NO_SKILLS = new SkillPowerTable();
+    private static final CharacterElement[] ELEMENTS = CharacterElement.values();
+    private static final EnemyProfile[] DEFENDERS = new EnemyProfile[ELEMENTS.length]; // By the attacker's element
+    private static final EnemyProfile[] PHYSICAL_ATTACKERS = new EnemyProfile[ELEMENTS.length]; // By the defender's element
+    private static final EnemyProfile[] MAGICAL_ATTACKERS = new EnemyProfile[ELEMENTS.length]; // By the defender's element
+
+    static {
+        for (CharacterElement element : ELEMENTS) {
+            DEFENDERS[element.ordinal()] = new EnemyProfile(CharacterElement.getElementThatIsWeakTo(element),
+                    CharacterClass.ALCHEMIST, 0, 200, 200);
+            PHYSICAL_ATTACKERS[element.ordinal()] = new EnemyProfile(element, CharacterClass.WARRIOR, 72000, 0, 0);
+            MAGICAL_ATTACKERS[element.ordinal()] = new EnemyProfile(element, CharacterClass.MAGE, 72000, 0, 0);
+        }
+    }
+
+    private final CharacterElement element;
+    private final CharacterClass characterClass;
+    private final int offensiveStat;
+    private final int defense;
+    private final int magicDefense;
+
+    private EnemyProfile(CharacterElement element, CharacterClass characterClass, int offensiveStat, int defense,
+                         int magicDefense) {
+        this.element = element;
+        this.characterClass = characterClass;
+        this.offensiveStat = offensiveStat;
+        this.defense = defense;
+        this.magicDefense = magicDefense;
+    }
+
+    public static EnemyProfile getDefenderWeakTo(CharacterElement attackerElement) {
+        return DEFENDERS[attackerElement.ordinal()];
+    }
+
+    public static EnemyProfile getAttackerAgainst(CharacterElement defenderElement, SkillType typeOfDefense) {
+        // DEF is attacked by a warrior and MDF by a mage
+        return typeOfDefense == SkillType.DEF ?
+                PHYSICAL_ATTACKERS[defenderElement.ordinal()] :
+                MAGICAL_ATTACKERS[defenderElement.ordinal()];
+    }
+
+    public CharacterElement getElement() {
+        return element;
+    }
+
+    public CharacterClass getCharacterClass() {
+        return characterClass;
+    }
+
+    public int getOffensiveStat() {
+        return offensiveStat;
+    }
+
+    public int getDefensiveStat(CharacterClass attackerClass) {
+        // Warriors are defended against with DEF and mages with MDF
+        if (attackerClass == CharacterClass.WARRIOR) {
+            return defense;
+        } else if (attackerClass == CharacterClass.MAGE) {
+            return magicDefense;
+        } else {
+            return 0;
+        }
+    }
+
+    public SkillPowerTable getSkillTotalPowers() {
+        return NO_SKILLS;
+    }
+}
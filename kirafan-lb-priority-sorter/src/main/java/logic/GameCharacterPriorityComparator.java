@@ -1,38 +1,92 @@
 package logic;
 
-import domain.CharacterClass;
-import domain.CharacterElement;
-import domain.CreaStatus;
 import domain.model.GameCharacter;
 import domain.model.GameEvent;
 import domain.model.Series;
 import domain.model.Weapon;
+import javafx.collections.ObservableList;
 import logic.checks.*;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class GameCharacterPriorityComparator implements Comparator<GameCharacter> {
     private final List<Check> checks;
+    private final GameEvent currentEvent;
+    private final Map<GameCharacter, Weapon> weaponsByCharas;
+    private SortMetrics metrics; // null unless metrics are enabled
+    private boolean logMetrics;
 
     public GameCharacterPriorityComparator(
-            Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charasByElementAndClass,
+            ElementClassIndex charasByElementAndClass,
             Map<Series, List<GameCharacter>> charasBySeries,
             Map<GameCharacter, Weapon> weaponsByCharas,
             GameEvent currentEvent) {
-        checks = new ArrayList<>();
-        checks.add(new EventBonusCheck(currentEvent));
-        checks.add(new PersonalPreferenceCheck(9));
-        checks.add(new MissingElementClassCombinationCheck(charasByElementAndClass));
-        checks.add(new CreaCheck(CreaStatus.INCOMPLETE));
-        checks.add(new PersonalPreferenceCheck(7));
-        checks.add(new SkillSetCheck(charasByElementAndClass));
-        checks.add(new HighestWokeCheck(charasBySeries));
-        checks.add(new NoWeaponCheck(weaponsByCharas));
-        checks.add(new CreaCheck(CreaStatus.COMPLETE));
-        checks.add(new PersonalPreferenceCheck(0));
+        this(CheckPipeline.DEFAULT, charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent);
+    }
+
+    public GameCharacterPriorityComparator(
+            CheckPipeline pipeline,
+            ElementClassIndex charasByElementAndClass,
+            Map<Series, List<GameCharacter>> charasBySeries,
+            Map<GameCharacter, Weapon> weaponsByCharas,
+            GameEvent currentEvent) {
+        this(pipeline, charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent,
+                Mapper.getSkillTotalPowersCache());
+    }
+
+    public GameCharacterPriorityComparator(
+            CheckPipeline pipeline,
+            ElementClassIndex charasByElementAndClass,
+            Map<Series, List<GameCharacter>> charasBySeries,
+            Map<GameCharacter, Weapon> weaponsByCharas,
+            GameEvent currentEvent,
+            SkillTotalPowersCache skillTotalPowersCache) {
+        checks = pipeline.createChecks(charasByElementAndClass, charasBySeries, weaponsByCharas, currentEvent,
+                skillTotalPowersCache);
+        this.currentEvent = currentEvent;
+        this.weaponsByCharas = weaponsByCharas;
+
+        // Starting the program with -Dkirafan.sortMetrics=true prints the metrics after every sort
+        if (Boolean.getBoolean("kirafan.sortMetrics")) {
+            enableMetrics(true);
+        }
+    }
+
+    public SortMetrics enableMetrics(boolean logAfterSort) {
+        /*
+        * Starts counting the invocations, decisions and time of every check (see SortMetrics). If logAfterSort is true,
+        * the metrics are printed after every sort (see sortFinished). Measuring the time of every check call slows the
+        * sorting down, so the metrics are disabled by default.
+        */
+        metrics = new SortMetrics(getCheckNames());
+        logMetrics = logAfterSort;
+
+        return metrics;
+    }
+
+    public void disableMetrics() {
+        metrics = null;
+        logMetrics = false;
+    }
+
+    public SortMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void sortFinished() {
+        // Called after a sort to count it in the metrics, which are also printed if they are enabled with logging
+        if (metrics != null) {
+            metrics.recordSort();
+
+            if (logMetrics) {
+                System.out.println(metrics);
+            }
+        }
     }
     /*
-    * Sorting priority (from highest to lowest)
+    * Sorting priority of the default pipeline (from highest to lowest, see CheckPipeline for using other priorities)
     * 01: Is a bonus character for current event
     * 02: Has a high personal preference (>=9)
     * 03: Has a class and element combination which no already limit broken character has (See MissingElementClassCombinationCheck for priority between different classes)
@@ -44,7 +98,12 @@ public class GameCharacterPriorityComparator implements Comparator<GameCharacter
     * 09: Belongs to a series with complete crea
     * 10: Has a low personal preference (>=0)
     *
-    * This comparator's performance is O(n^2) when assuming worst case scenario (List full of identical characters), but
+    * Comparing two characters with compare runs the checks on both characters, so sorting a list with
+    * Collections.sort(list, comparator) runs every check O(n log n) times. Use sort(list) instead when sorting a whole
+    * list: it runs every check only once per character (see getPriorityKey) and then sorts the characters by their keys.
+    * sortByTiers goes further and runs each check only for the characters which the earlier checks left tied.
+    *
+    * A single check's performance is O(n^2) when assuming worst case scenario (List full of identical characters), but
     * this should not be an issue because:
     *   1.) The game currently (January 10th 2021) has only 218 different 5* characters (with an average of around ~70
     *   added per year) and the average veteran player will most likely have slightly less than half of these characters
@@ -67,6 +126,10 @@ public class GameCharacterPriorityComparator implements Comparator<GameCharacter
             return 1;
         }
 
+        if (metrics != null) {
+            return compareWithMetrics(c1, c2);
+        }
+
         for (Check check : checks) {
             int checkResult = check.compare(c1, c2);
 
@@ -77,4 +140,305 @@ public class GameCharacterPriorityComparator implements Comparator<GameCharacter
 
         return 0;
     }
+
+    private int compareWithMetrics(GameCharacter c1, GameCharacter c2) {
+        for (int i = 0; i < checks.size(); i++) {
+            long start = System.nanoTime();
+            int checkResult = checks.get(i).compare(c1, c2);
+            metrics.recordInvocation(i, System.nanoTime() - start);
+
+            if (checkResult != 0) {
+                metrics.recordDecision(i);
+                return checkResult;
+            }
+        }
+
+        metrics.recordDecision(-1);
+
+        return 0;
+    }
+
+    public void sort(List<GameCharacter> characters) {
+        /*
+        * Sorts the given list into the same order as characters.sort(this) would (List.sort is stable, so characters
+        * with equal priority keep their relative order), but every check is run only once per character. Null
+        * characters are sorted last, like in compare.
+        */
+        Map<GameCharacter, int[]> priorityKeys = getPriorityKeys(characters);
+
+        characters.sort(Comparator.nullsLast(Comparator.comparing(priorityKeys::get, getKeyComparator())));
+        sortFinished();
+    }
+
+    public void sortByTiers(List<GameCharacter> characters) {
+        /*
+        * Sorts the given list into the same order as sort, but evaluates the checks one tier at a time: the characters
+        * are first sorted by the first check only, and every later check is run only for the characters which are still
+        * tied with another character (e.g. SkillSetCheck is not run for a character who is the only event bonus
+        * character with a personal preference of 9). Most groups of tied characters are split into single characters
+        * by the first few checks, so the expensive checks are run for a fraction of the characters.
+        *
+        * Use sort instead when the priority keys are needed afterwards (e.g. PriorityRanker keeps them for re-ranking).
+        * With metrics enabled, a decision is counted for every pair of neighbouring characters which a check separates.
+        */
+        CharacterAttributes attributes = getAttributes(characters.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        int[] ordinals = new int[attributes.size()]; // The characters in their current order, see CharacterAttributes
+        int[] tierKeys = new int[ordinals.length];
+        List<int[]> tiedRanges = new ArrayList<>(); // [start, end) ranges of ordinals which are still tied
+
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = i;
+        }
+
+        if (ordinals.length > 1) {
+            tiedRanges.add(new int[]{0, ordinals.length});
+        }
+
+        for (int tier = 0; tier < checks.size() && !tiedRanges.isEmpty(); tier++) {
+            tiedRanges = splitTiedRanges(attributes, ordinals, tierKeys, tier, tiedRanges);
+        }
+
+        if (metrics != null) {
+            tiedRanges.forEach(range -> {
+                for (int i = range[0] + 1; i < range[1]; i++) {
+                    metrics.recordDecision(-1);
+                }
+            });
+        }
+
+        // Null characters are sorted last, like in compare
+        List<GameCharacter> sortedCharacters = new ArrayList<>(characters.size());
+
+        for (int i = 0; i < characters.size(); i++) {
+            sortedCharacters.add(i < ordinals.length ? attributes.getCharacter(ordinals[i]) : null);
+        }
+
+        if (characters instanceof ObservableList) {
+            // A single change event instead of one for every character (like List.sort on an ObservableList)
+            ((ObservableList<GameCharacter>) characters).setAll(sortedCharacters);
+        } else {
+            for (int i = 0; i < characters.size(); i++) {
+                characters.set(i, sortedCharacters.get(i));
+            }
+        }
+
+        sortFinished();
+    }
+
+    private List<int[]> splitTiedRanges(CharacterAttributes attributes, int[] ordinals, int[] tierKeys, int tier,
+                                        List<int[]> tiedRanges) {
+        // Sorts each tied range by the check of the tier and returns the ranges which are still tied after it
+        List<int[]> stillTiedRanges = new ArrayList<>();
+        runOnCheck(tier, Check::beginSort);
+
+        try {
+            for (int[] range : tiedRanges) {
+                for (int i = range[0]; i < range[1]; i++) {
+                    tierKeys[i] = getTierKey(tier, attributes, ordinals[i]);
+                }
+
+                sortRange(ordinals, tierKeys, range[0], range[1]);
+                int tiedStart = range[0];
+
+                for (int i = range[0] + 1; i <= range[1]; i++) {
+                    if (i < range[1] && tierKeys[i] == tierKeys[i - 1]) {
+                        continue;
+                    }
+
+                    if (i - tiedStart > 1) {
+                        stillTiedRanges.add(new int[]{tiedStart, i});
+                    }
+
+                    if (i < range[1] && metrics != null) {
+                        metrics.recordDecision(tier);
+                    }
+
+                    tiedStart = i;
+                }
+            }
+        } finally {
+            runOnCheck(tier, Check::endSort);
+        }
+
+        return stillTiedRanges;
+    }
+
+    private static void sortRange(int[] ordinals, int[] tierKeys, int start, int end) {
+        /*
+        * Stable sort of ordinals[start, end) by their tier keys, so the characters keep their order from the earlier tiers.
+        * Each tier key is packed with the position of the ordinal into a long (the key in the upper 32 bits), so sorting
+        * the longs sorts by the key and then by the position without boxing anything.
+        */
+        long[] keysAndPositions = new long[end - start];
+
+        for (int i = 0; i < keysAndPositions.length; i++) {
+            keysAndPositions[i] = ((long) tierKeys[start + i] << 32) | i;
+        }
+
+        Arrays.sort(keysAndPositions);
+        int[] sortedOrdinals = new int[keysAndPositions.length];
+
+        for (int i = 0; i < keysAndPositions.length; i++) {
+            sortedOrdinals[i] = ordinals[start + (int) keysAndPositions[i]];
+            tierKeys[start + i] = (int) (keysAndPositions[i] >> 32);
+        }
+
+        System.arraycopy(sortedOrdinals, 0, ordinals, start, sortedOrdinals.length);
+    }
+
+    public TopRanking selectTop(List<GameCharacter> characters, int k) {
+        // Selects the k highest priority (non-null) characters without sorting the whole list, see TopRanking
+        return selectTop(characters, getPriorityKeys(characters), k);
+    }
+
+    TopRanking selectTop(List<GameCharacter> characters, Map<GameCharacter, int[]> priorityKeys, int k) {
+        int[][] keys = new int[characters.size()][];
+
+        for (int i = 0; i < characters.size(); i++) {
+            keys[i] = priorityKeys.get(characters.get(i));
+        }
+
+        TopRanking topRanking = new TopRanking(characters, keys, getKeyComparator(), k);
+        sortFinished();
+
+        return topRanking;
+    }
+
+    public Comparator<int[]> getKeyComparator() {
+        // Compares priority keys like comparePriorityKeys, and counts the deciding checks if the metrics are enabled
+        SortMetrics sortMetrics = metrics;
+
+        if (sortMetrics == null) {
+            return GameCharacterPriorityComparator::comparePriorityKeys;
+        }
+
+        return (key1, key2) -> {
+            int tier = getDecidingTier(key1, key2);
+            sortMetrics.recordDecision(tier);
+
+            return tier < 0 ? 0 : Integer.compare(key1[tier], key2[tier]);
+        };
+    }
+
+    public Map<GameCharacter, int[]> getPriorityKeys(Collection<GameCharacter> characters) {
+        // Calculates the priority keys of the given (non-null) characters as one sort (see Check.beginSort)
+        Map<GameCharacter, int[]> priorityKeys = new IdentityHashMap<>();
+        List<GameCharacter> distinctCharacters = new ArrayList<>();
+
+        for (GameCharacter chara : characters) {
+            if (chara != null && !priorityKeys.containsKey(chara)) {
+                priorityKeys.put(chara, null);
+                distinctCharacters.add(chara);
+            }
+        }
+
+        runOnEveryCheck(Check::beginSort);
+
+        try {
+            CharacterAttributes attributes = getAttributes(distinctCharacters);
+
+            for (int ordinal = 0; ordinal < attributes.size(); ordinal++) {
+                priorityKeys.put(attributes.getCharacter(ordinal), getPriorityKey(attributes, ordinal));
+            }
+        } finally {
+            runOnEveryCheck(Check::endSort);
+        }
+
+        return priorityKeys;
+    }
+
+    private void runOnEveryCheck(Consumer<Check> operation) {
+        for (int i = 0; i < checks.size(); i++) {
+            runOnCheck(i, operation);
+        }
+    }
+
+    private void runOnCheck(int tier, Consumer<Check> operation) {
+        long start = metrics == null ? 0 : System.nanoTime();
+        operation.accept(checks.get(tier));
+
+        if (metrics != null) {
+            metrics.recordTime(tier, System.nanoTime() - start);
+        }
+    }
+
+    private CharacterAttributes getAttributes(List<GameCharacter> characters) {
+        // The characters of one sort get ordinals by their position in the list (see CharacterAttributes)
+        return new CharacterAttributes(characters, currentEvent, weaponsByCharas);
+    }
+
+    public int[] getPriorityKey(GameCharacter chara) {
+        /*
+        * The key has one tier for each check, in the same order as the checks are run in compare. A single character
+        * is asked from the checks directly, since remembering its attributes would not save any lookups.
+        */
+        int[] priorityKey = new int[checks.size()];
+
+        for (int i = 0; i < checks.size(); i++) {
+            if (metrics == null) {
+                priorityKey[i] = checks.get(i).getPriorityKey(chara);
+            } else {
+                long start = System.nanoTime();
+                priorityKey[i] = checks.get(i).getPriorityKey(chara);
+                metrics.recordInvocation(i, System.nanoTime() - start);
+            }
+        }
+
+        return priorityKey;
+    }
+
+    private int[] getPriorityKey(CharacterAttributes attributes, int ordinal) {
+        int[] priorityKey = new int[checks.size()];
+
+        for (int i = 0; i < checks.size(); i++) {
+            priorityKey[i] = getTierKey(i, attributes, ordinal);
+        }
+
+        return priorityKey;
+    }
+
+    private int getTierKey(int tier, CharacterAttributes attributes, int ordinal) {
+        if (metrics == null) {
+            return checks.get(tier).getPriorityKey(attributes, ordinal);
+        }
+
+        long start = System.nanoTime();
+        int tierKey = checks.get(tier).getPriorityKey(attributes, ordinal);
+        metrics.recordInvocation(tier, System.nanoTime() - start);
+
+        return tierKey;
+    }
+
+    public List<String> getCheckNames() {
+        // The names of the checks in the same order as the tiers of the priority keys
+        return checks.stream()
+                .map(Check::getName)
+                .collect(Collectors.toList());
+    }
+
+    public static int getDecidingTier(int[] key1, int[] key2) {
+        // Returns the first tier in which the keys differ (i.e. the check which decides their order), -1 if they are equal
+        for (int i = 0; i < key1.length; i++) {
+            if (key1[i] != key2[i]) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    public static int comparePriorityKeys(int[] key1, int[] key2) {
+        // The first tier in which the keys differ decides the order (like the first check which doesn't return 0)
+        for (int i = 0; i < key1.length; i++) {
+            int tierResult = Integer.compare(key1[i], key2[i]);
+
+            if (tierResult != 0) {
+                return tierResult;
+            }
+        }
+
+        return 0;
+    }
 }
@@ -1,17 +1,15 @@
 package logic;
 
-import domain.CharacterClass;
-import domain.CharacterElement;
 import domain.model.GameCharacter;
 import domain.model.GameEvent;
 import domain.model.Series;
 import domain.model.Weapon;
 import javafx.collections.FXCollections;
 
-import java.util.AbstractMap;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /*
@@ -24,7 +22,12 @@ import java.util.stream.Collectors;
 *
 * The other purpose of this class is to handle sorting of the lists. Non-limit broken characters are sorted by their
 * priority (see GameCharacterPriorityComparator for details), other lists are sorted based on alphabetical order of the
-* elements' toString methods.
+* elements' toString methods. All changes to characters, weapons and event characters are also passed to a
+* PriorityRanker, so that after a change only the characters it affects are re-ranked instead of the whole list.
+*
+* Next to the event character and event series lists the class keeps sets of their ids, so that checking whether a
+* character or a series belongs to the event (which is done for every character when the event series filter is applied)
+* takes constant time. The sets are updated together with the lists.
 *
 * NOTE: This class does NOT handle skill lists, since they exist only as part of characters and weapons, and thus there
 * is no global list of all skills (instead there are only smaller character- and weapon specific skill lists) that would
@@ -40,22 +43,33 @@ public class GlobalListHandler extends DataHandler {
     private GameEvent event;
     private List<GameCharacter> allCharacters;
     private List<GameCharacter> eventCharacters;
+    private Set<String> eventCharacterIds;
     private List<GameCharacter> nonLimitBrokenCharacters;
     private List<Series> allSeries;
     private List<Series> eventSeries;
+    private Set<String> eventSeriesIds;
     private List<Weapon> allWeapons;
+    private PriorityRanker ranker;
 
     public GlobalListHandler(GameEvent event) {
         filterOn = false;
         this.event = event;
+        ranker = new PriorityRanker(event);
         allCharacters = FXCollections.observableArrayList();
         eventCharacters = FXCollections.observableArrayList();
+        eventCharacterIds = new HashSet<>();
         nonLimitBrokenCharacters = FXCollections.observableArrayList();
         allSeries = FXCollections.observableArrayList();
         eventSeries = FXCollections.observableArrayList();
+        eventSeriesIds = new HashSet<>();
         allWeapons = FXCollections.observableArrayList();
     }
 
+    public void setCheckPipeline(CheckPipeline pipeline) {
+        // The non-limit broken characters are sorted again with the checks of the pipeline on the next sort
+        ranker = new PriorityRanker(event, pipeline);
+    }
+
     public void assignExclusiveCharactersToWeapons() {
         /*
         * JsonDB cannot handle bidirectional relationships between models (GameCharacter.preferredWeapon and
@@ -78,6 +92,9 @@ public class GlobalListHandler extends DataHandler {
 
     public void setEventSeries(List<Series> eventSeries) {
         this.eventSeries = eventSeries;
+        eventSeriesIds = eventSeries.stream()
+                .map(Series::getId)
+                .collect(Collectors.toCollection(HashSet::new));
     }
 
     public void setAllSeries(List<Series> allSeries) {
@@ -93,12 +110,13 @@ public class GlobalListHandler extends DataHandler {
 
     @Override
     public boolean eventSeriesContains(Series series) {
-        return eventSeries.contains(series);
+        return series != null && eventSeriesIds.contains(series.getId());
     }
 
     @Override
     protected boolean insertToEventSeries(Series series) {
         eventSeries.add(series);
+        eventSeriesIds.add(series.getId());
 
         return true;
     }
@@ -129,6 +147,7 @@ public class GlobalListHandler extends DataHandler {
     @Override
     protected boolean removeFromEventSeries(Series series) {
         eventSeries.remove(series);
+        eventSeriesIds.remove(series.getId());
 
         return true;
     }
@@ -136,6 +155,7 @@ public class GlobalListHandler extends DataHandler {
     @Override
     protected boolean removeAllFromEventSeries() {
         eventSeries.clear();
+        eventSeriesIds.clear();
 
         return true;
     }
@@ -151,6 +171,7 @@ public class GlobalListHandler extends DataHandler {
 
     public void setNonLimitBrokenCharacters(List<GameCharacter> nonLimitBrokenCharacters) {
         this.nonLimitBrokenCharacters = nonLimitBrokenCharacters;
+        ranker.reset();
     }
 
     @Override
@@ -160,15 +181,21 @@ public class GlobalListHandler extends DataHandler {
 
     public void setEventCharacters(List<GameCharacter> eventCharacters) {
         this.eventCharacters = eventCharacters;
+        eventCharacterIds = eventCharacters.stream()
+                .map(GameCharacter::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+        ranker.reset();
     }
 
     public void setAllCharacters(List<GameCharacter> charactersAll) {
         this.allCharacters = charactersAll;
+        ranker.reset();
     }
 
     @Override
     protected boolean insertToAllCharacters(GameCharacter character) {
         allCharacters.add(character);
+        ranker.characterChanged(character);
 
         return true;
     }
@@ -184,12 +211,14 @@ public class GlobalListHandler extends DataHandler {
 
     @Override
     public boolean eventCharactersContain(GameCharacter character) {
-        return eventCharacters.contains(character);
+        return eventCharacterIds.contains(character.getId());
     }
 
     @Override
     protected boolean insertToEventCharacters(GameCharacter character) {
         eventCharacters.add(character);
+        eventCharacterIds.add(character.getId());
+        ranker.characterKeyChanged(character);
 
         return true;
     }
@@ -205,6 +234,7 @@ public class GlobalListHandler extends DataHandler {
     protected boolean updateInAllCharacters(GameCharacter character) {
         allCharacters.remove(character);
         allCharacters.add(character);
+        ranker.characterChanged(character);
 
         return true;
     }
@@ -232,6 +262,7 @@ public class GlobalListHandler extends DataHandler {
     @Override
     protected boolean removeFromAllCharacters(GameCharacter character) {
         allCharacters.remove(character);
+        ranker.characterRemoved(character);
 
         return true;
     }
@@ -246,13 +277,17 @@ public class GlobalListHandler extends DataHandler {
     @Override
     protected boolean removeFromEventCharacters(GameCharacter character) {
         eventCharacters.remove(character);
+        eventCharacterIds.remove(character.getId());
+        ranker.characterKeyChanged(character);
 
         return true;
     }
 
     @Override
     protected boolean removeAllFromEventCharacters() {
+        eventCharacters.forEach(ranker::characterKeyChanged);
         eventCharacters.clear();
+        eventCharacterIds.clear();
 
         return true;
     }
@@ -264,6 +299,7 @@ public class GlobalListHandler extends DataHandler {
 
     public void setAllWeapons(List<Weapon> allWeapons) {
         this.allWeapons = allWeapons;
+        ranker.reset();
     }
 
 
@@ -285,6 +321,7 @@ public class GlobalListHandler extends DataHandler {
     @Override
     protected boolean insertToAllWeapons(Weapon weapon) {
         allWeapons.add(weapon);
+        ranker.weaponChanged(weapon);
 
         return true;
     }
@@ -293,6 +330,7 @@ public class GlobalListHandler extends DataHandler {
     protected boolean updateInAllWeapons(Weapon weapon) {
         allWeapons.remove(weapon);
         allWeapons.add(weapon);
+        ranker.weaponChanged(weapon);
 
         return true;
     }
@@ -300,6 +338,7 @@ public class GlobalListHandler extends DataHandler {
     @Override
     protected boolean removeFromAllWeapons(Weapon weapon) {
         allWeapons.remove(weapon);
+        ranker.weaponRemoved(weapon);
 
         return true;
     }
@@ -308,18 +347,21 @@ public class GlobalListHandler extends DataHandler {
         // This is for filtering non-limit broken characters based on the availability of limit-breakable series in the current event
         // If the filter is ON then return non-limit broken characters that belong to series which are event series
         // If the filter is OFF then return all non-limit broken characters
+        // The characters are removed and added without touching the order of the other characters, so that the list
+        // only needs to be re-ranked for the characters which were added back
         this.filterOn = filterOn;
 
         if (this.filterOn) {
-            List<GameCharacter> filteredNonLBCharacters = nonLimitBrokenCharacters.stream()
-                    .filter(c -> eventSeries.contains(c.getSeries()))
-                    .collect(Collectors.toList());
-
-            nonLimitBrokenCharacters.clear();
-            nonLimitBrokenCharacters.addAll(filteredNonLBCharacters);
+            nonLimitBrokenCharacters.removeIf(c -> !eventSeriesContains(c.getSeries()));
         } else {
-            nonLimitBrokenCharacters.clear();
-            nonLimitBrokenCharacters.addAll(databaseHandler.getNonLimitBrokenCharacters());
+            Set<GameCharacter> shownCharacters = new HashSet<>(nonLimitBrokenCharacters);
+
+            for (GameCharacter character : databaseHandler.getNonLimitBrokenCharacters()) {
+                if (!shownCharacters.contains(character)) {
+                    nonLimitBrokenCharacters.add(character);
+                    ranker.characterKeyChanged(character);
+                }
+            }
         }
     }
 
@@ -355,15 +397,8 @@ public class GlobalListHandler extends DataHandler {
     }
 
     public void sortNonLimitBrokenCharacters() {
-        Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charactersByElementAndClass
-                = Mapper.getCharactersByElementAndClass(allCharacters);
-
-        Map<Series, List<GameCharacter>> charactersBySeries = Mapper.getCharactersBySeries(allCharacters);
-        Map<GameCharacter, Weapon> exclusiveWeaponsByCharacter = Mapper.getWeaponsByExclusiveCharacter(allWeapons);
-
-        GameCharacterPriorityComparator comparator = new GameCharacterPriorityComparator(charactersByElementAndClass,
-                charactersBySeries, exclusiveWeaponsByCharacter, event);
-
-        nonLimitBrokenCharacters.sort(comparator);
+        // The whole list is sorted only on the first call (or after one of the lists has been replaced), after that only
+        // the characters affected by the changes made since the previous call are re-ranked (see PriorityRanker)
+        ranker.rank(nonLimitBrokenCharacters, allCharacters, allWeapons);
     }
 }
@@ -0,0 +1,41 @@
+package logic;
+
+import io.jsondb.JsonDBTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/*
+* Creates a JsonDBTemplate (which reads every json file of its directory) only when it is needed for the first time, or
+* on a background thread with loadInBackground. Used together with a Snapshot, so that the program can start from the
+* snapshot without waiting for the json files to be read.
+*/
+public class JsonDBTemplateLoader implements Supplier<JsonDBTemplate> {
+    private final FutureTask<JsonDBTemplate> loader;
+
+    public JsonDBTemplateLoader(String dbFilesLocation, String modelPackageName) {
+        loader = new FutureTask<>(() -> new JsonDBTemplate(dbFilesLocation, modelPackageName));
+    }
+
+    public void loadInBackground() {
+        Thread thread = new Thread(loader, "json-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public JsonDBTemplate get() {
+        // Loads the template on this thread unless it is already being loaded (or has been loaded), in which case waits for it
+        loader.run();
+
+        try {
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
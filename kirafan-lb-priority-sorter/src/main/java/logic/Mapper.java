@@ -1,7 +1,5 @@
 package logic;
 
-import domain.CharacterClass;
-import domain.CharacterElement;
 import domain.Skill;
 import domain.SkillType;
 import domain.model.GameCharacter;
@@ -11,40 +9,23 @@ import domain.model.Weapon;
 import java.util.*;
 
 public final class Mapper {
+    // The skill totals of the characters of the GUI, see getSkillTotalPowers
+    private static final SkillTotalPowersCache skillTotalPowersCache = new SkillTotalPowersCache();
+
     private Mapper() {}
 
-    public static Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> getCharactersByElementAndClass(List<GameCharacter> characters) {
-        Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charactersByElementAndClass
-                = new HashMap<>();
+    public static ElementClassIndex getCharactersByElementAndClass(List<GameCharacter> characters) {
+        ElementClassIndex charactersByElementAndClass = new ElementClassIndex();
 
         if (characters != null) {
             for (GameCharacter chara : characters) {
-                addCharacterToCharactersByElementAndClass(chara, charactersByElementAndClass);
+                charactersByElementAndClass.add(chara);
             }
         }
 
         return charactersByElementAndClass;
     }
 
-    private static void addCharacterToCharactersByElementAndClass(
-            GameCharacter chara,
-            Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charactersByElementAndClass) {
-        if (chara == null || charactersByElementAndClass == null) {
-            return;
-        }
-
-        AbstractMap.SimpleEntry<CharacterElement, CharacterClass> elementClassPair =
-                new AbstractMap.SimpleEntry<>(chara.getCharacterElement(), chara.getCharacterClass());
-        List<GameCharacter> charactersOfSameElementAndClass = charactersByElementAndClass.get(elementClassPair);
-
-        if (charactersOfSameElementAndClass == null) {
-            charactersOfSameElementAndClass = new ArrayList<>();
-        }
-
-        charactersOfSameElementAndClass.add(chara);
-        charactersByElementAndClass.put(elementClassPair, charactersOfSameElementAndClass);
-    }
-
     public static Map<Series, List<GameCharacter>> getCharactersBySeries(List<GameCharacter> characters) {
         Map<Series, List<GameCharacter>> charactersBySeries = new HashMap<>();
 
@@ -94,8 +75,26 @@ public final class Mapper {
         return weaponsByCharacter;
     }
 
-    public static Map<Skill,Double> getSkillTotalPowers(GameCharacter chara) {
-        Map<Skill, Double> skillTotalPowers = new HashMap<>();
+    public static SkillPowerTable getSkillTotalPowers(GameCharacter chara) {
+        /*
+        * The totals are cached (see SkillTotalPowersCache), and DataHandler invalidates the cached totals whenever a
+        * character or a weapon is updated.
+        *
+        * NOTE: the returned table is shared between callers (which is why it can only be modified inside this package)
+        */
+        return skillTotalPowersCache.get(chara);
+    }
+
+    public static SkillTotalPowersCache getSkillTotalPowersCache() {
+        return skillTotalPowersCache;
+    }
+
+    public static void invalidateSkillTotalPowers(GameCharacter chara) {
+        skillTotalPowersCache.invalidate(chara);
+    }
+
+    static SkillPowerTable calculateSkillTotalPowers(GameCharacter chara) {
+        SkillPowerTable skillTotalPowers = new SkillPowerTable();
 
         if (chara != null) {
             Weapon weapon = chara.getPreferredWeapon();
@@ -115,18 +114,17 @@ public final class Mapper {
         return skillTotalPowers;
     }
 
-    private static void addSkillPower(Skill skill, Map<Skill, Double> skillTotalPowers) {
+    private static void addSkillPower(Skill skill, SkillPowerTable skillTotalPowers) {
         SkillType type = skill.getType();
         double power = skill.getPower();
-        Double previousTotalPower = skillTotalPowers.get(skill);
-        previousTotalPower = previousTotalPower == null ? 0 : previousTotalPower;
+        double previousTotalPower = skillTotalPowers.get(skill);
 
         if (type == SkillType.NEXT_ATK || type == SkillType.NEXT_MAT) {
             // unlike other buffs and debuffs next ATK and next MAT buffs do not stack and instead overwrite the previous NEXT ATK/MAT buff
-            Double totalPower = power > previousTotalPower ? power : previousTotalPower;
+            double totalPower = power > previousTotalPower ? power : previousTotalPower;
             skillTotalPowers.put(skill, totalPower);
         } else  {
-            skillTotalPowers.put(skill, Calculator.sumDoubles(previousTotalPower, power));
+            skillTotalPowers.put(skill, Calculator.sum(previousTotalPower, power));
         }
     }
 
@@ -0,0 +1,353 @@
+package logic;
+
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+
+import java.util.*;
+
+/*
+* This class keeps the non-limit broken character list sorted by priority (see GameCharacterPriorityComparator) without
+* re-sorting the whole list after every change.
+*
+* The maps which the checks use (characters by element/class, characters by series and exclusive weapons by character)
+* are built once and then kept up to date in place by GlobalListHandler, which tells the ranker about every added,
+* updated and removed character and weapon. The ranker remembers the priority keys of the characters and which
+* characters a change can affect:
+*   -the changed character itself (e.g. event bonus, personal preference, crea status, exclusive weapon)
+*   -the other characters of the same element/class combination (MissingElementClassCombinationCheck, SkillSetCheck)
+*   -the other characters of the same series (HighestWokeCheck)
+*
+* The GUI edits characters and weapons in place, so the element/class combination, series and exclusive character which
+* an object was indexed with are stored separately (the object itself may already contain the new values). The ids of
+* the exclusive weapons of every character are stored too, so a weapon change only looks at the weapons of the
+* characters it affects.
+*
+* When the list is ranked again only the keys of the affected characters are recalculated, and only the characters
+* whose key changed (or who were just added to the list) are removed and inserted back into their new positions.
+*/
+public class PriorityRanker {
+    private final GameEvent event;
+    private final CheckPipeline pipeline;
+    private boolean initialized;
+    private ElementClassIndex charactersByElementAndClass;
+    private Map<Series, List<GameCharacter>> charactersBySeries;
+    private Map<GameCharacter, Weapon> exclusiveWeaponsByCharacter;
+    private Map<String, Integer> indexedElementClassSlots; // By character id
+    private Map<String, Series> indexedSeries; // By character id
+    private Map<String, Weapon> weaponsById;
+    private Map<String, GameCharacter> indexedExclusiveCharacters; // By weapon id
+    private Map<String, Set<String>> exclusiveWeaponIds; // By character id
+    private GameCharacterPriorityComparator comparator;
+    private Map<String, int[]> priorityKeys; // Priority keys by character id
+    private Set<String> dirtyCharacterIds;
+    private BitSet dirtyElementClassSlots;
+    private Set<Series> dirtySeries;
+
+    public PriorityRanker(GameEvent event) {
+        this(event, CheckPipeline.DEFAULT);
+    }
+
+    public PriorityRanker(GameEvent event, CheckPipeline pipeline) {
+        this.event = event;
+        this.pipeline = pipeline;
+        reset();
+    }
+
+    public void reset() {
+        // Forgets all indexes and keys, so the next rank call sorts the whole list
+        initialized = false;
+        priorityKeys = new HashMap<>();
+        dirtyCharacterIds = new HashSet<>();
+        dirtyElementClassSlots = new BitSet(ElementClassIndex.SLOTS);
+        dirtySeries = new HashSet<>();
+    }
+
+    public void characterChanged(GameCharacter character) {
+        // Called when a character is added to or updated in the all characters list
+        if (!initialized) {
+            return;
+        }
+
+        removeFromIndexes(character);
+        addToIndexes(character);
+    }
+
+    public void characterRemoved(GameCharacter character) {
+        if (!initialized) {
+            return;
+        }
+
+        removeFromIndexes(character);
+        priorityKeys.remove(character.getId());
+    }
+
+    public void characterKeyChanged(GameCharacter character) {
+        /*
+        * Called when only the character's own priority key may have changed or when the character was put back into the
+        * non-limit broken character list (e.g. the character became an event bonus character, or the event series
+        * filter was turned off)
+        */
+        dirtyCharacterIds.add(character.getId());
+    }
+
+    public void weaponChanged(Weapon weapon) {
+        // Called when a weapon is added to or updated in the all weapons list
+        if (!initialized) {
+            return;
+        }
+
+        weaponsById.put(weapon.getId(), weapon);
+        GameCharacter oldExclusiveCharacter = indexedExclusiveCharacters.put(weapon.getId(), weapon.getExclusiveCharacter());
+        removeExclusiveWeapon(oldExclusiveCharacter, weapon.getId());
+        addExclusiveWeapon(weapon.getExclusiveCharacter(), weapon.getId());
+
+        refreshExclusiveWeapon(oldExclusiveCharacter);
+        refreshExclusiveWeapon(weapon.getExclusiveCharacter());
+    }
+
+    public void weaponRemoved(Weapon weapon) {
+        if (!initialized) {
+            return;
+        }
+
+        weaponsById.remove(weapon.getId());
+        GameCharacter oldExclusiveCharacter = indexedExclusiveCharacters.remove(weapon.getId());
+        removeExclusiveWeapon(oldExclusiveCharacter, weapon.getId());
+        refreshExclusiveWeapon(oldExclusiveCharacter);
+    }
+
+    public void rank(List<GameCharacter> nonLimitBrokenCharacters, List<GameCharacter> allCharacters,
+                     List<Weapon> allWeapons) {
+        if (!initialized) {
+            initialize(allCharacters, allWeapons);
+            sortAll(nonLimitBrokenCharacters);
+            return;
+        }
+
+        Set<String> affectedCharacterIds = getAffectedCharacterIds();
+        List<GameCharacter> affectedCharacters = new ArrayList<>();
+
+        for (GameCharacter chara : nonLimitBrokenCharacters) {
+            if (affectedCharacterIds.contains(chara.getId()) || !priorityKeys.containsKey(chara.getId())) {
+                affectedCharacters.add(chara);
+            }
+        }
+
+        if (affectedCharacters.size() > nonLimitBrokenCharacters.size() / 2) {
+            // Inserting most of the list back one by one would be slower than sorting it again
+            sortAll(nonLimitBrokenCharacters);
+            return;
+        }
+
+        Map<GameCharacter, int[]> newPriorityKeys = comparator.getPriorityKeys(affectedCharacters);
+        Set<GameCharacter> movedCharacters = new HashSet<>();
+
+        for (GameCharacter chara : affectedCharacters) {
+            int[] oldPriorityKey = priorityKeys.put(chara.getId(), newPriorityKeys.get(chara));
+
+            /*
+            * Characters whose own data changed may have been moved in the list by GlobalListHandler (e.g. updated
+            * characters are removed and added to the end of the list), so they are always repositioned
+            */
+            if (oldPriorityKey == null || dirtyCharacterIds.contains(chara.getId())
+                    || !Arrays.equals(oldPriorityKey, newPriorityKeys.get(chara))) {
+                movedCharacters.add(chara);
+            }
+        }
+
+        dirtyCharacterIds.clear();
+
+        if (movedCharacters.isEmpty()) {
+            comparator.sortFinished();
+            return;
+        }
+
+        // The rest of the list stays sorted when the moved characters are removed, so they can be inserted back one by one
+        nonLimitBrokenCharacters.removeAll(movedCharacters);
+
+        List<GameCharacter> charactersToInsert = new ArrayList<>(movedCharacters);
+        charactersToInsert.sort(Comparator.comparing(c -> priorityKeys.get(c.getId()), comparator.getKeyComparator()));
+
+        for (GameCharacter chara : charactersToInsert) {
+            nonLimitBrokenCharacters.add(getInsertionIndex(nonLimitBrokenCharacters, priorityKeys.get(chara.getId())), chara);
+        }
+
+        comparator.sortFinished();
+    }
+
+    public SortMetrics getMetrics() {
+        // The metrics of the comparator, null if they are not enabled (or if nothing has been ranked yet)
+        return comparator == null ? null : comparator.getMetrics();
+    }
+
+    private void initialize(List<GameCharacter> allCharacters, List<Weapon> allWeapons) {
+        charactersByElementAndClass = Mapper.getCharactersByElementAndClass(allCharacters);
+        charactersBySeries = Mapper.getCharactersBySeries(allCharacters);
+        exclusiveWeaponsByCharacter = Mapper.getWeaponsByExclusiveCharacter(allWeapons);
+        indexedElementClassSlots = new HashMap<>();
+        indexedSeries = new HashMap<>();
+        weaponsById = new HashMap<>();
+        indexedExclusiveCharacters = new HashMap<>();
+        exclusiveWeaponIds = new HashMap<>();
+
+        for (GameCharacter chara : allCharacters) {
+            indexedElementClassSlots.put(chara.getId(), ElementClassIndex.getSlot(chara));
+            indexedSeries.put(chara.getId(), chara.getSeries());
+        }
+
+        for (Weapon weapon : allWeapons) {
+            weaponsById.put(weapon.getId(), weapon);
+            indexedExclusiveCharacters.put(weapon.getId(), weapon.getExclusiveCharacter());
+            addExclusiveWeapon(weapon.getExclusiveCharacter(), weapon.getId());
+        }
+
+        comparator = new GameCharacterPriorityComparator(pipeline, charactersByElementAndClass, charactersBySeries,
+                exclusiveWeaponsByCharacter, event);
+        initialized = true;
+    }
+
+    private void sortAll(List<GameCharacter> nonLimitBrokenCharacters) {
+        Map<GameCharacter, int[]> newPriorityKeys = comparator.getPriorityKeys(nonLimitBrokenCharacters);
+        newPriorityKeys.forEach((c, key) -> priorityKeys.put(c.getId(), key));
+        clearDirtyCharacters();
+
+        nonLimitBrokenCharacters.sort(Comparator.comparing(newPriorityKeys::get, comparator.getKeyComparator()));
+        comparator.sortFinished();
+    }
+
+    private Set<String> getAffectedCharacterIds() {
+        Set<String> affectedCharacterIds = new HashSet<>(dirtyCharacterIds);
+
+        for (int slot = dirtyElementClassSlots.nextSetBit(0); slot >= 0; slot = dirtyElementClassSlots.nextSetBit(slot + 1)) {
+            charactersByElementAndClass.get(slot).forEach(c -> affectedCharacterIds.add(c.getId()));
+        }
+
+        for (Series series : dirtySeries) {
+            charactersBySeries.getOrDefault(series, Collections.emptyList())
+                    .forEach(c -> affectedCharacterIds.add(c.getId()));
+        }
+
+        dirtyElementClassSlots.clear();
+        dirtySeries.clear();
+
+        return affectedCharacterIds;
+    }
+
+    private void clearDirtyCharacters() {
+        dirtyCharacterIds.clear();
+        dirtyElementClassSlots.clear();
+        dirtySeries.clear();
+    }
+
+    private int getInsertionIndex(List<GameCharacter> sortedCharacters, int[] priorityKey) {
+        // Binary search for the index after the last character whose priority key is smaller than or equal to the given key
+        Comparator<int[]> keyComparator = comparator.getKeyComparator();
+        int low = 0;
+        int high = sortedCharacters.size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int[] middleKey = priorityKeys.get(sortedCharacters.get(middle).getId());
+
+            if (keyComparator.compare(middleKey, priorityKey) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private void addToIndexes(GameCharacter character) {
+        int slot = ElementClassIndex.getSlot(character);
+        Series series = character.getSeries();
+
+        charactersByElementAndClass.add(character);
+        charactersBySeries.computeIfAbsent(series, k -> new ArrayList<>()).add(character);
+        indexedElementClassSlots.put(character.getId(), slot);
+        indexedSeries.put(character.getId(), series);
+
+        // The character and every other character of the same element/class combination and series are affected
+        dirtyCharacterIds.add(character.getId());
+        markElementClassSlotDirty(slot);
+        dirtySeries.add(series);
+    }
+
+    private void removeFromIndexes(GameCharacter character) {
+        // Removes the character from the groups it was indexed in (the character has equal id with the indexed object)
+        Integer slot = indexedElementClassSlots.remove(character.getId());
+        Series series = indexedSeries.remove(character.getId());
+
+        if (slot != null) {
+            charactersByElementAndClass.remove(slot, character);
+            markElementClassSlotDirty(slot);
+        }
+
+        if (series != null) {
+            removeFromGroup(charactersBySeries, series, character);
+            dirtySeries.add(series);
+        }
+    }
+
+    private static <K> void removeFromGroup(Map<K, List<GameCharacter>> groups, K key, GameCharacter character) {
+        // Like in Mapper, a group exists only if it has at least one character
+        List<GameCharacter> group = groups.get(key);
+
+        if (group != null) {
+            group.remove(character);
+
+            if (group.isEmpty()) {
+                groups.remove(key);
+            }
+        }
+    }
+
+    private void addExclusiveWeapon(GameCharacter exclusiveCharacter, String weaponId) {
+        if (exclusiveCharacter != null) {
+            exclusiveWeaponIds.computeIfAbsent(exclusiveCharacter.getId(), k -> new LinkedHashSet<>()).add(weaponId);
+        }
+    }
+
+    private void removeExclusiveWeapon(GameCharacter exclusiveCharacter, String weaponId) {
+        if (exclusiveCharacter == null) {
+            return;
+        }
+
+        Set<String> weaponIds = exclusiveWeaponIds.get(exclusiveCharacter.getId());
+
+        if (weaponIds != null) {
+            weaponIds.remove(weaponId);
+
+            if (weaponIds.isEmpty()) {
+                exclusiveWeaponIds.remove(exclusiveCharacter.getId());
+            }
+        }
+    }
+
+    private void refreshExclusiveWeapon(GameCharacter exclusiveCharacter) {
+        // The character may have other exclusive weapons left, see Mapper.getWeaponsByExclusiveCharacter
+        if (exclusiveCharacter == null) {
+            return;
+        }
+
+        Set<String> weaponIds = exclusiveWeaponIds.get(exclusiveCharacter.getId());
+
+        if (weaponIds == null) {
+            exclusiveWeaponsByCharacter.remove(exclusiveCharacter);
+        } else {
+            exclusiveWeaponsByCharacter.put(exclusiveCharacter, weaponsById.get(weaponIds.iterator().next()));
+        }
+
+        dirtyCharacterIds.add(exclusiveCharacter.getId());
+    }
+
+    private void markElementClassSlotDirty(int slot) {
+        // Characters without an element or a class are not indexed (see ElementClassIndex)
+        if (slot >= 0) {
+            dirtyElementClassSlots.set(slot);
+        }
+    }
+}
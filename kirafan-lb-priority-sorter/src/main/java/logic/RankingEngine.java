@@ -0,0 +1,138 @@
+package logic;
+
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Weapon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/*
+* Ranks the non-limit broken characters of many independent accounts (e.g. every member of a guild) concurrently on a
+* ForkJoinPool.
+*
+* Every account is ranked by its own task with its own comparator, checks, Mapper indexes and SkillTotalPowersCache
+* (see RankingExporter.rank), so the tasks share no mutable state with each other: accounts with characters of the same
+* id can not see each other's skill totals, and the totals of an account are dropped with the account's cache once it
+* has been ranked. Ranking assigns the exclusive characters of the weapons, so every task ranks copies of the account's
+* weapons (and of its character list) instead of changing the objects given in the Account.
+*
+* Each account can be ranked with its own CheckPipeline. The pipelines are immutable, so many accounts can share one.
+*/
+public class RankingEngine implements AutoCloseable {
+    public static class Account {
+        private final String name;
+        private final List<GameCharacter> characters;
+        private final List<Weapon> weapons;
+        private final GameEvent event;
+        private final CheckPipeline pipeline;
+
+        public Account(String name, List<GameCharacter> characters, List<Weapon> weapons, GameEvent event) {
+            this(name, characters, weapons, event, CheckPipeline.DEFAULT);
+        }
+
+        public Account(String name, List<GameCharacter> characters, List<Weapon> weapons, GameEvent event,
+                       CheckPipeline pipeline) {
+            this.name = name;
+            this.characters = characters;
+            this.weapons = weapons;
+            this.event = event;
+            this.pipeline = pipeline;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<GameCharacter> getCharacters() {
+            return characters;
+        }
+
+        public List<Weapon> getWeapons() {
+            return weapons;
+        }
+
+        public GameEvent getEvent() {
+            return event;
+        }
+
+        public CheckPipeline getPipeline() {
+            return pipeline;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public RankingEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public RankingEngine(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    public List<List<GameCharacter>> rankAll(List<Account> accounts) {
+        /*
+        * Returns the rankings in the same order as the accounts. Throws an IllegalStateException naming the account if
+        * an account could not be ranked (after all the accounts have been ranked or have failed).
+        */
+        List<ForkJoinTask<List<GameCharacter>>> tasks = new ArrayList<>();
+
+        for (Account account : accounts) {
+            tasks.add(pool.submit(() -> rank(account)));
+        }
+
+        List<List<GameCharacter>> rankings = new ArrayList<>();
+        IllegalStateException failure = null;
+
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                rankings.add(tasks.get(i).join());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Failed to rank account " + accounts.get(i).getName(), e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        return rankings;
+    }
+
+    private static List<GameCharacter> rank(Account account) {
+        List<Weapon> weapons = account.getWeapons().stream()
+                .map(RankingEngine::copyWeapon)
+                .collect(Collectors.toList());
+
+        return RankingExporter.rank(account.getPipeline(), new ArrayList<>(account.getCharacters()), weapons,
+                account.getEvent(), new SkillTotalPowersCache());
+    }
+
+    private static Weapon copyWeapon(Weapon weapon) {
+        // The skill list is not changed while ranking, so the copy can share it
+        Weapon copy = new Weapon.Builder(weapon.getName())
+                .overwriteID(weapon.getId())
+                .offensiveStatIs(weapon.getOffensiveStat())
+                .defenseIs(weapon.getDefense())
+                .magicDefenseIs(weapon.getMagicDefense())
+                .withSkills(weapon.getSkills())
+                .isExclusiveTo(weapon.getExclusiveCharacter())
+                .build();
+        copy.setExclusiveCharacterId(weapon.getExclusiveCharacterId());
+
+        return copy;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
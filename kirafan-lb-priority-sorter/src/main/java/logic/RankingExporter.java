@@ -0,0 +1,262 @@
+package logic;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Weapon;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+* Class which ranks the non-limit broken characters without the GUI (i.e. without GlobalListHandler and the JavaFX
+* lists) and writes the ranking as CSV, JSON or NDJSON (one JSON object per line). Used by HeadlessLauncher.
+*
+* A Ranking (see rankWithReasons) also knows which check decided the order of each character and the character ranked
+* right above it (e.g. EventBonusCheck if only the character above is an event bonus character), which is exported as
+* the column "decided by" (empty for the first character and for characters with the same priority as the one above).
+* The rows are written into the writer one at a time, so the size of the output does not affect the memory used.
+*/
+public class RankingExporter {
+    public enum Format {
+        CSV,
+        JSON,
+        NDJSON;
+    }
+
+    public static class Ranking {
+        private final List<GameCharacter> characters;
+        private final Map<GameCharacter, int[]> priorityKeys; // null if the ranking has no reasons
+        private final List<String> checkNames;
+
+        private Ranking(List<GameCharacter> characters, Map<GameCharacter, int[]> priorityKeys, List<String> checkNames) {
+            this.characters = characters;
+            this.priorityKeys = priorityKeys;
+            this.checkNames = checkNames;
+        }
+
+        public List<GameCharacter> getCharacters() {
+            return characters;
+        }
+
+        public boolean hasReasons() {
+            return priorityKeys != null;
+        }
+
+        public String getDecidingCheck(int index) {
+            // Returns the name of the check which ranked the character at the index below the one above it, or ""
+            if (index == 0 || priorityKeys == null) {
+                return "";
+            }
+
+            int tier = GameCharacterPriorityComparator.getDecidingTier(priorityKeys.get(characters.get(index - 1)),
+                    priorityKeys.get(characters.get(index)));
+
+            return tier < 0 ? "" : checkNames.get(tier);
+        }
+    }
+
+    private static final String[] CSV_HEADERS = {"rank", "id", "name", "series", "element", "class", "personal preference",
+            "woke level"};
+
+    public static List<GameCharacter> rank(List<GameCharacter> allCharacters, List<Weapon> allWeapons, GameEvent event) {
+        // Returns the non-limit broken characters in the same order as the non-limit broken character list of the GUI
+        return rank(CheckPipeline.DEFAULT, allCharacters, allWeapons, event);
+    }
+
+    public static List<GameCharacter> rank(CheckPipeline pipeline, List<GameCharacter> allCharacters,
+                                           List<Weapon> allWeapons, GameEvent event) {
+        return rank(pipeline, allCharacters, allWeapons, event, Mapper.getSkillTotalPowersCache());
+    }
+
+    public static List<GameCharacter> rank(CheckPipeline pipeline, List<GameCharacter> allCharacters,
+                                           List<Weapon> allWeapons, GameEvent event,
+                                           SkillTotalPowersCache skillTotalPowersCache) {
+        // Without reasons only the order is needed, so the later checks are run only for tied characters (see sortByTiers)
+        List<GameCharacter> nonLimitBrokenCharacters = getNonLimitBrokenCharacters(allCharacters, allWeapons);
+        createComparator(pipeline, allCharacters, allWeapons, event, skillTotalPowersCache)
+                .sortByTiers(nonLimitBrokenCharacters);
+
+        return nonLimitBrokenCharacters;
+    }
+
+    public static Ranking rankWithReasons(List<GameCharacter> allCharacters, List<Weapon> allWeapons, GameEvent event) {
+        return rankWithReasons(CheckPipeline.DEFAULT, allCharacters, allWeapons, event);
+    }
+
+    public static Ranking rankWithReasons(CheckPipeline pipeline, List<GameCharacter> allCharacters,
+                                          List<Weapon> allWeapons, GameEvent event) {
+        List<GameCharacter> nonLimitBrokenCharacters = getNonLimitBrokenCharacters(allCharacters, allWeapons);
+        GameCharacterPriorityComparator comparator = createComparator(pipeline, allCharacters, allWeapons, event,
+                Mapper.getSkillTotalPowersCache());
+
+        // Sorted like in GameCharacterPriorityComparator.sort, but the keys are kept for getDecidingCheck
+        Map<GameCharacter, int[]> priorityKeys = comparator.getPriorityKeys(nonLimitBrokenCharacters);
+        nonLimitBrokenCharacters.sort(Comparator.comparing(priorityKeys::get, comparator.getKeyComparator()));
+        comparator.sortFinished();
+
+        return new Ranking(nonLimitBrokenCharacters, priorityKeys, comparator.getCheckNames());
+    }
+
+    public static Ranking rankTopWithReasons(CheckPipeline pipeline, List<GameCharacter> allCharacters,
+                                             List<Weapon> allWeapons, GameEvent event, int k) {
+        // Like rankWithReasons, but only the k highest priority characters are ranked (see TopRanking)
+        List<GameCharacter> nonLimitBrokenCharacters = getNonLimitBrokenCharacters(allCharacters, allWeapons);
+        GameCharacterPriorityComparator comparator = createComparator(pipeline, allCharacters, allWeapons, event,
+                Mapper.getSkillTotalPowersCache());
+
+        Map<GameCharacter, int[]> priorityKeys = comparator.getPriorityKeys(nonLimitBrokenCharacters);
+        TopRanking topRanking = comparator.selectTop(nonLimitBrokenCharacters, priorityKeys, k);
+
+        return new Ranking(topRanking.getTop(), priorityKeys, comparator.getCheckNames());
+    }
+
+    private static List<GameCharacter> getNonLimitBrokenCharacters(List<GameCharacter> allCharacters,
+                                                                   List<Weapon> allWeapons) {
+        // Weapons read from the json files only have the exclusive character's id (see GlobalListHandler)
+        Mapper.assignExclusiveCharactersToWeapons(allCharacters, allWeapons);
+
+        return allCharacters.stream()
+                .filter(c -> !c.isLimitBroken())
+                .collect(Collectors.toList());
+    }
+
+    private static GameCharacterPriorityComparator createComparator(CheckPipeline pipeline,
+                                                                    List<GameCharacter> allCharacters,
+                                                                    List<Weapon> allWeapons, GameEvent event,
+                                                                    SkillTotalPowersCache skillTotalPowersCache) {
+        return new GameCharacterPriorityComparator(pipeline, Mapper.getCharactersByElementAndClass(allCharacters),
+                Mapper.getCharactersBySeries(allCharacters), Mapper.getWeaponsByExclusiveCharacter(allWeapons), event,
+                skillTotalPowersCache);
+    }
+
+    public static boolean export(List<GameCharacter> rankedCharacters, Format format, Writer writer) {
+        return export(new Ranking(rankedCharacters, null, null), format, writer);
+    }
+
+    public static boolean export(Ranking ranking, Format format, Writer writer) {
+        try {
+            if (format == Format.JSON) {
+                writeJson(ranking, writer);
+            } else if (format == Format.NDJSON) {
+                writeNdjson(ranking, writer);
+            } else {
+                writeCsv(ranking, writer);
+            }
+
+            writer.flush();
+
+            return true;
+        } catch (IOException e) {
+            System.out.println(e);
+
+            return false;
+        }
+    }
+
+    private static void writeCsv(Ranking ranking, Writer writer) throws IOException {
+        List<GameCharacter> rankedCharacters = ranking.getCharacters();
+        writer.write(String.join(",", CSV_HEADERS));
+
+        if (ranking.hasReasons()) {
+            writer.write(",decided by");
+        }
+
+        writer.write(System.lineSeparator());
+
+        for (int i = 0; i < rankedCharacters.size(); i++) {
+            GameCharacter chara = rankedCharacters.get(i);
+            writer.write(Integer.toString(i + 1));
+            writeCsvValue(writer, chara.getId());
+            writeCsvValue(writer, chara.getName());
+            writeCsvValue(writer, getSeriesName(chara));
+            writeCsvValue(writer, String.valueOf(chara.getCharacterElement()));
+            writeCsvValue(writer, String.valueOf(chara.getCharacterClass()));
+            writeCsvValue(writer, Integer.toString(chara.getPersonalPreference()));
+            writeCsvValue(writer, Integer.toString(chara.getWokeLevel()));
+
+            if (ranking.hasReasons()) {
+                writeCsvValue(writer, ranking.getDecidingCheck(i));
+            }
+
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        writer.write(',');
+        writer.write(escapeCsv(value));
+    }
+
+    private static void writeJson(Ranking ranking, Writer writer) throws IOException {
+        JsonGenerator generator = new JsonFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartArray();
+
+        for (int i = 0; i < ranking.getCharacters().size(); i++) {
+            writeJsonObject(generator, ranking, i);
+        }
+
+        generator.writeEndArray();
+        generator.close();
+        writer.write(System.lineSeparator());
+    }
+
+    private static void writeNdjson(Ranking ranking, Writer writer) throws IOException {
+        JsonGenerator generator = new JsonFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        for (int i = 0; i < ranking.getCharacters().size(); i++) {
+            writeJsonObject(generator, ranking, i);
+            generator.writeRaw(System.lineSeparator());
+        }
+
+        generator.close();
+    }
+
+    private static void writeJsonObject(JsonGenerator generator, Ranking ranking, int index) throws IOException {
+        /*
+        * The characters are written field by field instead of serializing the GameCharacter objects, since those also
+        * contain skills, weapons etc. (which are not part of the ranking)
+        */
+        GameCharacter chara = ranking.getCharacters().get(index);
+        generator.writeStartObject();
+        generator.writeNumberField("rank", index + 1);
+        generator.writeStringField("id", chara.getId());
+        generator.writeStringField("name", chara.getName());
+        generator.writeStringField("series", getSeriesName(chara));
+        generator.writeStringField("element", String.valueOf(chara.getCharacterElement()));
+        generator.writeStringField("class", String.valueOf(chara.getCharacterClass()));
+        generator.writeNumberField("personalPreference", chara.getPersonalPreference());
+        generator.writeNumberField("wokeLevel", chara.getWokeLevel());
+
+        if (ranking.hasReasons()) {
+            generator.writeStringField("decidedBy", ranking.getDecidingCheck(index));
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static String getSeriesName(GameCharacter chara) {
+        return chara.getSeries() == null ? "" : chara.getSeries().getName();
+    }
+
+    static String escapeCsv(String value) {
+        // Values which contain a separator, a quote or a line break are quoted, and quotes inside them are doubled
+        if (value == null) {
+            return "";
+        }
+
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+}
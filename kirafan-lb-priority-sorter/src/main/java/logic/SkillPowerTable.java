@@ -0,0 +1,56 @@
+package logic;
+
+import domain.Skill;
+import domain.SkillChange;
+import domain.SkillTarget;
+import domain.SkillType;
+
+public final class SkillPowerTable {
+    /*
+    * Total skill powers indexed by skill type, skill change and skill target (i.e. the same fields which are used in
+    * Skill.equals).
+    *
+    * The powers are stored in a flat array so that looking up a total power does not allocate anything (unlike with a
+    * HashMap<Skill, Double>, where every lookup needs a key Skill and boxes the power). Skill totals are looked up
+    * constantly while sorting, so this matters.
+    *
+    * Other effects (e.g. abnormal effects) have no skill change, so each skill type has one extra slot for skills with
+    * a null change. A skill which has not been added has a total power of 0.
+    */
+    private static final int CHANGE_SLOTS = SkillChange.values().length + 1;
+    private static final int TARGET_SLOTS = SkillTarget.values().length;
+    private static final int TYPE_SLOTS = CHANGE_SLOTS * TARGET_SLOTS;
+
+    private final double[] powers = new double[SkillType.values().length * TYPE_SLOTS];
+
+    public double get(Skill skill) {
+        return get(skill.getType(), skill.getChange(), skill.getTarget());
+    }
+
+    public double get(SkillType type, SkillChange change, SkillTarget target) {
+        if (type == null || target == null) {
+            return 0;
+        }
+
+        return powers[index(type, change, target)];
+    }
+
+    void put(Skill skill, double power) {
+        put(skill.getType(), skill.getChange(), skill.getTarget(), power);
+    }
+
+    void put(SkillType type, SkillChange change, SkillTarget target, double power) {
+        // Skills without a type or a target can never be looked up, so they are not stored
+        if (type == null || target == null) {
+            return;
+        }
+
+        powers[index(type, change, target)] = power;
+    }
+
+    private static int index(SkillType type, SkillChange change, SkillTarget target) {
+        int changeSlot = change == null ? 0 : change.ordinal() + 1;
+
+        return type.ordinal() * TYPE_SLOTS + changeSlot * TARGET_SLOTS + target.ordinal();
+    }
+}
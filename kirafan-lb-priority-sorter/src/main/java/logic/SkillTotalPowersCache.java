@@ -0,0 +1,89 @@
+package logic;
+
+import domain.Skill;
+import domain.model.GameCharacter;
+import domain.model.Weapon;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+* Skill total powers (see Mapper.calculateSkillTotalPowers) cached by character id.
+*
+* The checks and the calculator ask for the skill totals of the same characters over and over again while sorting, so
+* the totals are calculated only once per character. The cached totals are reused only as long as they were calculated
+* from the same skill lists and the same preferred weapon the character currently has (see CachedSkillTotalPowers).
+*
+* The GUI uses the cache of Mapper (see Mapper.getSkillTotalPowers), which DataHandler invalidates whenever a character
+* or a weapon is updated. Characters of different accounts can have the same ids, so RankingEngine gives every account
+* its own cache instead.
+*
+* NOTE: the returned tables are shared between callers (which is why they can only be modified inside this package)
+*/
+public final class SkillTotalPowersCache {
+    private final Map<String, CachedSkillTotalPowers> cache = new ConcurrentHashMap<>();
+
+    public SkillPowerTable get(GameCharacter chara) {
+        if (chara == null || chara.getId() == null) {
+            return Mapper.calculateSkillTotalPowers(chara);
+        }
+
+        CachedSkillTotalPowers cached = cache.get(chara.getId());
+
+        if (cached != null && cached.isUpToDate(chara)) {
+            return cached.skillTotalPowers;
+        }
+
+        SkillPowerTable skillTotalPowers = Mapper.calculateSkillTotalPowers(chara);
+        cache.put(chara.getId(), new CachedSkillTotalPowers(chara, skillTotalPowers));
+
+        return skillTotalPowers;
+    }
+
+    public void invalidate(GameCharacter chara) {
+        if (chara != null && chara.getId() != null) {
+            cache.remove(chara.getId());
+        }
+    }
+
+    private static final class CachedSkillTotalPowers {
+        /*
+        * Version stamp of the skill totals. The GUI always replaces the skill lists of characters and weapons with new
+        * lists when they are edited (and the tests add skills to the existing lists), so comparing the list instances and
+        * their sizes is enough to notice that the cached totals have gone stale.
+        */
+        private final List<Skill> charaSkills;
+        private final int charaSkillCount;
+        private final Weapon weapon;
+        private final List<Skill> weaponSkills;
+        private final int weaponSkillCount;
+        private final SkillPowerTable skillTotalPowers;
+
+        private CachedSkillTotalPowers(GameCharacter chara, SkillPowerTable skillTotalPowers) {
+            this.charaSkills = chara.getSkills();
+            this.charaSkillCount = charaSkills.size();
+            this.weapon = chara.getPreferredWeapon();
+            this.weaponSkills = weapon == null ? null : weapon.getSkills();
+            this.weaponSkillCount = weaponSkills == null ? 0 : weaponSkills.size();
+            this.skillTotalPowers = skillTotalPowers;
+        }
+
+        private boolean isUpToDate(GameCharacter chara) {
+            List<Skill> currentCharaSkills = chara.getSkills();
+            Weapon currentWeapon = chara.getPreferredWeapon();
+
+            if (currentCharaSkills != charaSkills || currentCharaSkills.size() != charaSkillCount || currentWeapon != weapon) {
+                return false;
+            }
+
+            if (currentWeapon == null) {
+                return true;
+            }
+
+            List<Skill> currentWeaponSkills = currentWeapon.getSkills();
+
+            return currentWeaponSkills == weaponSkills && currentWeaponSkills.size() == weaponSkillCount;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package logic;
+
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/*
+* Compact binary copy of the json files (series, characters, weapons and events), which is much faster to read than
+* the json files: JsonDB deserializes every collection with Jackson when a JsonDBTemplate is created, while the snapshot
+* file is memory-mapped and each object is decoded only when it is accessed (only the ids are read when it is opened).
+*
+* The snapshot stores the length and the last modification time of each json file it was created from, and open returns
+* null if any of the json files has changed since (or if the file is not a snapshot of this version), so a stale
+* snapshot is never read. A new snapshot is then created with write from the objects read from the json files.
+*
+* Every object starts with its id, so open reads the ids of every collection into an index of the objects by id (see
+* ObjectList.findById), which lets Database find a single object without decoding the whole collection.
+*
+* Like with JsonDB, every read returns new copies of the objects, and the series and the preferred weapon of a character
+* are copies as well, just like they are embedded copies in the json files. An event stores only the ids of its
+* characters and series.
+*
+* Format (big-endian): header (magic, version, hash of the enum constants, length and modification time of each json
+* file), then for each collection the number of objects and the offset of each object, then the objects. Strings are
+* stored as their UTF-8 length (-1 for null) followed by the bytes, enums as their ordinal (-1 for null) and lists as
+* their size (-1 for null) followed by the elements.
+*/
+public class Snapshot {
+    public static final String FILE_NAME = "snapshot.bin";
+
+    private static final int MAGIC = 0x4B465342;
+    private static final int VERSION = 3;
+    private static final String[] JSON_FILE_NAMES = {"series.json", "characters.json", "weapons.json", "events.json"};
+    private static final int SERIES = 0;
+    private static final int CHARACTERS = 1;
+    private static final int WEAPONS = 2;
+    private static final int EVENTS = 3;
+
+    private final ByteBuffer buffer;
+    private final int[][] offsets; // Offset of every object by collection
+    private final List<Map<String, Integer>> indexesById; // Index of every object by id, by collection
+
+    private Snapshot(ByteBuffer buffer, int[][] offsets, List<Map<String, Integer>> indexesById) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+        this.indexesById = indexesById;
+    }
+
+    public static Snapshot open(File snapshotFile, File dbFilesFolder) {
+        // Returns null if the snapshot does not exist, can not be read or is stale
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+
+        try (FileChannel channel = new RandomAccessFile(snapshotFile, "r").getChannel()) {
+            // The mapping stays valid after the channel has been closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != getEnumHash()) {
+                return null;
+            }
+
+            for (String jsonFileName : JSON_FILE_NAMES) {
+                File jsonFile = new File(dbFilesFolder, jsonFileName);
+
+                if (buffer.getLong() != jsonFile.length() || buffer.getLong() != jsonFile.lastModified()) {
+                    return null;
+                }
+            }
+
+            int[][] offsets = new int[JSON_FILE_NAMES.length][];
+
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = new int[buffer.getInt()];
+
+                for (int j = 0; j < offsets[i].length; j++) {
+                    offsets[i][j] = buffer.getInt();
+                }
+            }
+
+            List<Map<String, Integer>> indexesById = new ArrayList<>();
+
+            for (int[] collectionOffsets : offsets) {
+                Map<String, Integer> indexById = new HashMap<>();
+
+                // If an id appears twice, the first object is found like when searching the list
+                for (int j = 0; j < collectionOffsets.length; j++) {
+                    ByteBuffer view = buffer.duplicate();
+                    view.position(collectionOffsets[j]);
+                    indexById.putIfAbsent(readString(view), j);
+                }
+
+                indexesById.add(indexById);
+            }
+
+            return new Snapshot(buffer, offsets, indexesById);
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return null;
+        }
+    }
+
+    public static boolean isFresh(File snapshotFile, File dbFilesFolder) {
+        return open(snapshotFile, dbFilesFolder) != null;
+    }
+
+    public static boolean write(File snapshotFile, File dbFilesFolder, List<Series> allSeries,
+                                List<GameCharacter> allCharacters, List<Weapon> allWeapons, List<GameEvent> events) {
+        /*
+        * Writes a snapshot of the given objects, which must have been read from the json files of dbFilesFolder (the
+        * current lengths and modification times of the json files are stored into the snapshot). The snapshot is
+        * written into a temporary file which is then renamed, so a half-written snapshot is never read.
+        */
+        try {
+            List<List<byte[]>> records = Arrays.asList(
+                    encode(allSeries, Snapshot::writeSeries),
+                    encode(allCharacters, Snapshot::writeCharacter),
+                    encode(allWeapons, Snapshot::writeWeapon),
+                    encode(events, Snapshot::writeEvent));
+
+            int offset = 4 * 3 + 16 * JSON_FILE_NAMES.length;
+
+            for (List<byte[]> collectionRecords : records) {
+                offset += 4 + 4 * collectionRecords.size();
+            }
+
+            File temporaryFile = new File(snapshotFile.getPath() + ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(getEnumHash());
+
+                for (String jsonFileName : JSON_FILE_NAMES) {
+                    File jsonFile = new File(dbFilesFolder, jsonFileName);
+                    out.writeLong(jsonFile.length());
+                    out.writeLong(jsonFile.lastModified());
+                }
+
+                for (List<byte[]> collectionRecords : records) {
+                    out.writeInt(collectionRecords.size());
+
+                    for (byte[] record : collectionRecords) {
+                        out.writeInt(offset);
+                        offset += record.length;
+                    }
+                }
+
+                for (List<byte[]> collectionRecords : records) {
+                    for (byte[] record : collectionRecords) {
+                        out.write(record);
+                    }
+                }
+            }
+
+            Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            return true;
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
+    }
+
+    public ObjectList<Series> getAllSeries() {
+        return new ObjectList<>(offsets[SERIES].length, indexesById.get(SERIES), i -> readSeries(at(SERIES, i)));
+    }
+
+    public ObjectList<GameCharacter> getAllCharacters() {
+        return new ObjectList<>(offsets[CHARACTERS].length, indexesById.get(CHARACTERS),
+                i -> readCharacter(at(CHARACTERS, i)));
+    }
+
+    public ObjectList<Weapon> getAllWeapons() {
+        return new ObjectList<>(offsets[WEAPONS].length, indexesById.get(WEAPONS), i -> readWeapon(at(WEAPONS, i)));
+    }
+
+    public ObjectList<GameEvent> getEvents() {
+        return new ObjectList<>(offsets[EVENTS].length, indexesById.get(EVENTS), i -> readEvent(at(EVENTS, i)));
+    }
+
+    private ByteBuffer at(int collection, int index) {
+        // Every decoding uses its own view of the buffer, so objects can be decoded from several threads
+        ByteBuffer view = buffer.duplicate();
+        view.position(offsets[collection][index]);
+
+        return view;
+    }
+
+    public static class ObjectList<T> extends AbstractList<T> implements RandomAccess {
+        // List which decodes an object whenever it is accessed, so every access returns a new copy (like JsonDB)
+        private final int size;
+        private final Map<String, Integer> indexById;
+        private final IntFunction<T> decoder;
+
+        private ObjectList(int size, Map<String, Integer> indexById, IntFunction<T> decoder) {
+            this.size = size;
+            this.indexById = indexById;
+            this.decoder = decoder;
+        }
+
+        public T findById(String id) {
+            // Returns null if no object has the id, decodes only the object which has it
+            Integer index = indexById.get(id);
+
+            return index == null ? null : decoder.apply(index);
+        }
+
+        public Set<String> getIds() {
+            // The ids of the objects, read without decoding any of them
+            return Collections.unmodifiableSet(indexById.keySet());
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+
+            return decoder.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static int getEnumHash() {
+        // Enums are stored by their ordinals, so a snapshot is stale if any of the enums has been changed
+        List<String> names = new ArrayList<>();
+        List<Class<? extends Enum<?>>> enums = Arrays.asList(CharacterElement.class, CharacterClass.class,
+                CreaStatus.class, SkillType.class, SkillChange.class, SkillTarget.class);
+
+        for (Class<? extends Enum<?>> e : enums) {
+            for (Enum<?> constant : e.getEnumConstants()) {
+                names.add(constant.name());
+            }
+        }
+
+        return names.hashCode();
+    }
+
+    private interface RecordWriter<T> {
+        void write(DataOutputStream out, T t) throws IOException;
+    }
+
+    private static <T> List<byte[]> encode(List<T> objects, RecordWriter<T> writer) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+
+        for (T t : objects) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out, t);
+            out.flush();
+            records.add(bytes.toByteArray());
+        }
+
+        return records;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+
+        if (length == -1) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> e) throws IOException {
+        out.writeByte(e == null ? -1 : e.ordinal());
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer in, Class<E> enumClass) {
+        byte ordinal = in.get();
+
+        return ordinal == -1 ? null : enumClass.getEnumConstants()[ordinal];
+    }
+
+    private static <T> void writeList(DataOutputStream out, List<T> list, RecordWriter<T> writer) throws IOException {
+        if (list == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(list.size());
+
+        for (T t : list) {
+            writer.write(out, t);
+        }
+    }
+
+    private static <T> List<T> readList(ByteBuffer in, Function<ByteBuffer, T> reader) {
+        int size = in.getInt();
+
+        if (size == -1) {
+            return null;
+        }
+
+        List<T> list = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            list.add(reader.apply(in));
+        }
+
+        return list;
+    }
+
+    private static <T> void writeNullable(DataOutputStream out, T t, RecordWriter<T> writer) throws IOException {
+        out.writeBoolean(t != null);
+
+        if (t != null) {
+            writer.write(out, t);
+        }
+    }
+
+    private static <T> T readNullable(ByteBuffer in, Function<ByteBuffer, T> reader) {
+        return in.get() == 0 ? null : reader.apply(in);
+    }
+
+    private static void writeSkill(DataOutputStream out, Skill skill) throws IOException {
+        writeEnum(out, skill.getType());
+        writeEnum(out, skill.getChange());
+        writeEnum(out, skill.getTarget());
+        out.writeDouble(skill.getPower());
+    }
+
+    private static Skill readSkill(ByteBuffer in) {
+        return new Skill(readEnum(in, SkillType.class), readEnum(in, SkillChange.class), readEnum(in, SkillTarget.class),
+                in.getDouble());
+    }
+
+    private static void writeSeries(DataOutputStream out, Series series) throws IOException {
+        writeString(out, series.getId());
+        writeString(out, series.getName());
+        writeEnum(out, series.getCreaStatus());
+    }
+
+    private static Series readSeries(ByteBuffer in) {
+        String id = readString(in);
+
+        return new Series(readString(in), readEnum(in, CreaStatus.class), id);
+    }
+
+    private static void writeWeapon(DataOutputStream out, Weapon weapon) throws IOException {
+        // Weapon.exclusiveCharacter is not stored in the json files either (see GlobalListHandler)
+        writeString(out, weapon.getId());
+        writeString(out, weapon.getName());
+        out.writeInt(weapon.getOffensiveStat());
+        out.writeInt(weapon.getDefense());
+        out.writeInt(weapon.getMagicDefense());
+        writeList(out, weapon.getSkills(), Snapshot::writeSkill);
+        writeString(out, weapon.getExclusiveCharacterId());
+    }
+
+    private static Weapon readWeapon(ByteBuffer in) {
+        Weapon weapon = new Weapon();
+        weapon.setId(readString(in));
+        weapon.setName(readString(in));
+        weapon.setOffensiveStat(in.getInt());
+        weapon.setDefense(in.getInt());
+        weapon.setMagicDefense(in.getInt());
+        weapon.setSkills(readList(in, Snapshot::readSkill));
+        weapon.setExclusiveCharacterId(readString(in));
+
+        return weapon;
+    }
+
+    private static void writeCharacter(DataOutputStream out, GameCharacter character) throws IOException {
+        writeString(out, character.getId());
+        writeString(out, character.getName());
+        writeNullable(out, character.getSeries(), Snapshot::writeSeries);
+        writeEnum(out, character.getCharacterElement());
+        writeEnum(out, character.getCharacterClass());
+        writeList(out, character.getSkills(), Snapshot::writeSkill);
+        writeNullable(out, character.getPreferredWeapon(), Snapshot::writeWeapon);
+        out.writeBoolean(character.isLimitBroken());
+        out.writeInt(character.getOffensiveStat());
+        out.writeInt(character.getDefense());
+        out.writeInt(character.getMagicDefense());
+        out.writeInt(character.getWokeLevel());
+        out.writeInt(character.getPersonalPreference());
+    }
+
+    private static GameCharacter readCharacter(ByteBuffer in) {
+        GameCharacter character = new GameCharacter();
+        character.setId(readString(in));
+        character.setName(readString(in));
+        character.setSeries(readNullable(in, Snapshot::readSeries));
+        character.setCharacterElement(readEnum(in, CharacterElement.class));
+        character.setCharacterClass(readEnum(in, CharacterClass.class));
+        character.setSkills(readList(in, Snapshot::readSkill));
+        character.setPreferredWeapon(readNullable(in, Snapshot::readWeapon));
+        character.setLimitBroken(in.get() != 0);
+        character.setOffensiveStat(in.getInt());
+        character.setDefense(in.getInt());
+        character.setMagicDefense(in.getInt());
+        character.setWokeLevel(in.getInt());
+        character.setPersonalPreference(in.getInt());
+
+        return character;
+    }
+
+    private static void writeEvent(DataOutputStream out, GameEvent event) throws IOException {
+        writeString(out, event.getId());
+        writeIds(out, event.getBonusCharacterIds());
+        writeIds(out, event.getAvailableSeriesIds());
+    }
+
+    private static GameEvent readEvent(ByteBuffer in) {
+        GameEvent event = new GameEvent();
+        event.setId(readString(in));
+        event.setBonusCharacterIds(readIds(in));
+        event.setAvailableSeriesIds(readIds(in));
+
+        return event;
+    }
+
+    private static void writeIds(DataOutputStream out, Set<String> ids) throws IOException {
+        writeList(out, ids == null ? null : new ArrayList<>(ids), Snapshot::writeString);
+    }
+
+    private static Set<String> readIds(ByteBuffer in) {
+        List<String> ids = readList(in, Snapshot::readString);
+
+        return ids == null ? null : new LinkedHashSet<>(ids);
+    }
+}
@@ -0,0 +1,100 @@
+package logic;
+
+import java.util.List;
+
+/*
+* Counts for each check of a GameCharacterPriorityComparator (see enableMetrics):
+*   invocations: how many times the check has been run (compare and getPriorityKey)
+*   decisions: how many comparisons of two characters (or of their priority keys) the check has decided, i.e. how many
+*   times it was the first check which did not consider the characters equal
+*   nanos: the time spent in the check, including beginSort and endSort
+*
+* A check which decides nothing on a real account only adds to the sort time. The counts add up over sorts until reset
+* is called. Like the comparator itself, the metrics are not thread-safe.
+*/
+public class SortMetrics {
+    private final List<String> checkNames;
+    private final long[] invocations;
+    private final long[] decisions;
+    private final long[] nanos;
+    private long ties; // Comparisons which no check decided
+    private long sorts;
+
+    public SortMetrics(List<String> checkNames) {
+        this.checkNames = checkNames;
+        invocations = new long[checkNames.size()];
+        decisions = new long[checkNames.size()];
+        nanos = new long[checkNames.size()];
+    }
+
+    void recordInvocation(int tier, long elapsedNanos) {
+        invocations[tier]++;
+        nanos[tier] += elapsedNanos;
+    }
+
+    void recordTime(int tier, long elapsedNanos) {
+        nanos[tier] += elapsedNanos;
+    }
+
+    void recordDecision(int tier) {
+        // tier -1 means that the characters were equal in every tier
+        if (tier < 0) {
+            ties++;
+        } else {
+            decisions[tier]++;
+        }
+    }
+
+    void recordSort() {
+        sorts++;
+    }
+
+    public List<String> getCheckNames() {
+        return checkNames;
+    }
+
+    public long getInvocations(int tier) {
+        return invocations[tier];
+    }
+
+    public long getDecisions(int tier) {
+        return decisions[tier];
+    }
+
+    public long getNanos(int tier) {
+        return nanos[tier];
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    public long getSorts() {
+        return sorts;
+    }
+
+    public void reset() {
+        for (int i = 0; i < checkNames.size(); i++) {
+            invocations[i] = 0;
+            decisions[i] = 0;
+            nanos[i] = 0;
+        }
+
+        ties = 0;
+        sorts = 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Sort metrics (").append(sorts).append(" sorts, ").append(ties)
+                .append(" ties)");
+
+        for (int i = 0; i < checkNames.size(); i++) {
+            sb.append(System.lineSeparator())
+                    .append(String.format("%2d %-40s invocations: %10d decisions: %10d time: %8.3f ms", i + 1,
+                            checkNames.get(i), invocations[i], decisions[i], nanos[i] / 1_000_000.0));
+        }
+
+        return sb.toString();
+    }
+}
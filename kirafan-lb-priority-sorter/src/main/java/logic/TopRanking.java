@@ -0,0 +1,96 @@
+package logic;
+
+import domain.model.GameCharacter;
+
+import java.util.*;
+
+/*
+* The K highest priority characters of a list (see GameCharacterPriorityComparator.selectTop) in order, and the rest of
+* the characters, which are sorted only if getRemainder is called.
+*
+* The top characters are selected with a heap of K characters whose root is the lowest priority character of the heap:
+* every other character is compared only with the root, and replaces it if it has a higher priority. This takes
+* O(n log K) comparisons of priority keys instead of the O(n log n) of a full sort, which matters when only the first
+* few characters of a list of thousands are used. Ties are broken by the position in the original list, so the top
+* characters followed by the remainder are in exactly the same order as a full sort (List.sort is stable) would be.
+*/
+public class TopRanking {
+    private final List<GameCharacter> characters; // In the original order
+    private final int[][] priorityKeys; // Same indexes as characters
+    private final Comparator<Integer> indexComparator;
+    private final List<GameCharacter> top;
+    private final boolean[] inTop;
+    private List<GameCharacter> remainder; // null until getRemainder is called
+
+    TopRanking(List<GameCharacter> characters, int[][] priorityKeys, Comparator<int[]> keyComparator, int k) {
+        this.characters = characters;
+        this.priorityKeys = priorityKeys;
+        this.indexComparator = (i, j) -> {
+            int result = keyComparator.compare(priorityKeys[i], priorityKeys[j]);
+
+            return result != 0 ? result : Integer.compare(i, j);
+        };
+        this.inTop = new boolean[characters.size()];
+        this.top = select(Math.max(0, Math.min(k, characters.size())));
+    }
+
+    private List<GameCharacter> select(int k) {
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+
+        // The root of the heap is the lowest priority character selected so far
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, indexComparator.reversed());
+
+        for (int i = 0; i < characters.size(); i++) {
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (indexComparator.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+
+        Integer[] selectedIndexes = heap.toArray(new Integer[0]);
+        Arrays.sort(selectedIndexes, indexComparator);
+        List<GameCharacter> selected = new ArrayList<>(selectedIndexes.length);
+
+        for (int index : selectedIndexes) {
+            inTop[index] = true;
+            selected.add(characters.get(index));
+        }
+
+        return selected;
+    }
+
+    public List<GameCharacter> getTop() {
+        return Collections.unmodifiableList(top);
+    }
+
+    public List<GameCharacter> getRemainder() {
+        // The characters which are not in the top, sorted by priority when this is called for the first time
+        if (remainder == null) {
+            List<Integer> remainderIndexes = new ArrayList<>(characters.size() - top.size());
+
+            for (int i = 0; i < characters.size(); i++) {
+                if (!inTop[i]) {
+                    remainderIndexes.add(i);
+                }
+            }
+
+            remainderIndexes.sort(indexComparator);
+            remainder = new ArrayList<>(remainderIndexes.size());
+
+            for (int index : remainderIndexes) {
+                remainder.add(characters.get(index));
+            }
+        }
+
+        return Collections.unmodifiableList(remainder);
+    }
+
+    public int size() {
+        // The amount of all characters, both the top characters and the remainder
+        return characters.size();
+    }
+}
@@ -0,0 +1,174 @@
+package logic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+* Redo journal which makes writing the staged changes of several databases (i.e. several json files) crash consistent.
+*
+* JsonDB writes a single json file atomically, but a transaction which changes e.g. the series, character and weapon
+* json files needs several writes. Before those writes the staged changes of every database are written into the journal
+* file, and the journal file is deleted once every database has been written. If the program crashes in between, the
+* journal file is left behind and recover writes the changes again the next time (writing them is idempotent: saves are
+* upserts and objects which have already been removed are skipped), so either all or none of the changes of a
+* transaction end up in the json files.
+*
+* NOTE: The journal file should not have the extension .json, since JsonDB would read it as a collection.
+*/
+public class TransactionJournal {
+    private final File file;
+    private final ObjectMapper mapper;
+
+    public TransactionJournal(File file) {
+        this.file = file;
+        mapper = new ObjectMapper();
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    boolean commit(List<? extends Database<?>> databases) {
+        /*
+        * Writes the staged changes of the given databases through the journal. Returns false if they could not be
+        * written, in which case the journal file is left behind if some of the changes were already written.
+        */
+        if (exists() && !recover(databases)) {
+            return false;
+        }
+
+        List<Database<?>> changedDatabases = new ArrayList<>();
+
+        for (Database<?> database : databases) {
+            if (database.hasStagedChanges()) {
+                changedDatabases.add(database);
+            }
+        }
+
+        if (changedDatabases.isEmpty()) {
+            return true;
+        }
+
+        if (!write(changedDatabases)) {
+            return false;
+        }
+
+        for (Database<?> database : changedDatabases) {
+            if (!database.writeStagedChanges()) {
+                System.out.println("Failed to write the changes of " + database.getCollectionName()
+                        + ", the changes will be written from " + file + " on the next commit or start");
+                return false;
+            }
+        }
+
+        return delete();
+    }
+
+    public boolean recover(List<? extends Database<?>> databases) {
+        // Writes the changes of a journal file left behind by a crash, returns true if there was nothing to recover
+        if (!exists()) {
+            return true;
+        }
+
+        try {
+            for (JsonNode entry : mapper.readTree(file)) {
+                String collectionName = entry.get("collection").asText();
+                Database<?> database = databases.stream()
+                        .filter(d -> d.getCollectionName().equals(collectionName))
+                        .findFirst()
+                        .orElse(null);
+
+                if (database == null) {
+                    System.out.println("Failed to recover " + file + ", no database for collection " + collectionName);
+                    return false;
+                }
+
+                if (!database.writeJournaledChanges(readObjects(entry.get("removes")), readObjects(entry.get("saves")))) {
+                    return false;
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
+
+        return delete();
+    }
+
+    private boolean write(List<Database<?>> databases) {
+        // The journal is written into a temporary file which is then renamed, so a half-written journal is never read
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        ArrayNode entries = mapper.createArrayNode();
+
+        for (Database<?> database : databases) {
+            ObjectNode entry = entries.addObject();
+            entry.put("collection", database.getCollectionName());
+            entry.set("removes", writeObjects(database.getStagedRemoves()));
+            entry.set("saves", writeObjects(database.getStagedSaves()));
+        }
+
+        try (FileOutputStream out = new FileOutputStream(temporaryFile)) {
+            out.write(mapper.writeValueAsBytes(entries));
+            out.getFD().sync();
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
+
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            return true;
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
+    }
+
+    private ArrayNode writeObjects(List<?> objects) {
+        // The class of each object is stored as well, so that the object can be read back as the same class
+        ArrayNode nodes = mapper.createArrayNode();
+
+        for (Object o : objects) {
+            ObjectNode node = nodes.addObject();
+            node.put("class", o.getClass().getName());
+            node.set("object", mapper.valueToTree(o));
+        }
+
+        return nodes;
+    }
+
+    private List<Object> readObjects(JsonNode nodes) throws Exception {
+        List<Object> objects = new ArrayList<>();
+
+        for (JsonNode node : nodes) {
+            objects.add(mapper.treeToValue(node.get("object"), Class.forName(node.get("class").asText())));
+        }
+
+        return objects;
+    }
+
+    private boolean delete() {
+        try {
+            Files.deleteIfExists(file.toPath());
+
+            return true;
+        } catch (Exception e) {
+            System.out.println(e);
+
+            return false;
+        }
+    }
+}
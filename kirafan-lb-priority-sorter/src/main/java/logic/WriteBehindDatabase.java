@@ -0,0 +1,123 @@
+package logic;
+
+import io.jsondb.JsonDBTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+* Database which does not write inserted, updated and removed objects into the json file right away. Instead the
+* database stays in a transaction for its whole lifetime and the staged changes are written when the database is flushed
+* by its WriteBehindQueue.
+*
+* The changes are coalesced by id, so only the latest version of each object is written (e.g. a character which is
+* updated three times and then removed is only removed) and a flush writes the json file at most twice: once for all the
+* removed objects and once for all the inserted and updated objects. Reads see the staged changes, so DatabaseHandler
+* works the same way as with a plain Database.
+*
+* beginTransaction and commitTransaction mark the changes in between as a single transaction. The changes of an open
+* transaction stay staged in the database and the queue does not flush anything until the transaction is over, so they
+* are handed to the queue only when the transaction is committed. rollbackTransaction discards the changes staged since
+* beginTransaction, and the changes queued before the transaction are written as usual.
+*/
+public class WriteBehindDatabase<T> extends Database<T> {
+    private final WriteBehindQueue queue;
+    private boolean inUserTransaction; // Whether beginTransaction has been called and the transaction is not yet over
+
+    WriteBehindDatabase(WriteBehindQueue queue, Supplier<JsonDBTemplate> database, String collectionName) {
+        super(database, collectionName);
+        this.queue = queue;
+        super.beginTransaction();
+    }
+
+    @Override
+    public List<T> find(String jxQuery) {
+        // Queries can not be run against the staged changes, so they are written first
+        queue.flush();
+
+        return super.find(jxQuery);
+    }
+
+    /*
+    * NOTE: The queue is called only after the database has released its lock, since the queue holds its own lock while
+    * flushing the databases (calling the queue while holding the lock of the database could deadlock with the flusher)
+    */
+
+    @Override
+    public boolean insert(T t) {
+        return super.insert(t) && changeQueued();
+    }
+
+    @Override
+    public boolean update(T t) {
+        return super.update(t) && changeQueued();
+    }
+
+    @Override
+    public boolean remove(T t) {
+        return super.remove(t) && changeQueued();
+    }
+
+    @Override
+    public void beginTransaction() {
+        synchronized (this) {
+            if (inUserTransaction) {
+                return;
+            }
+
+            inUserTransaction = true;
+        }
+
+        // The savepoint is set only after the queue has stopped flushing, so no flush can write the changes it holds
+        queue.transactionStarted();
+        setSavepoint();
+    }
+
+    @Override
+    public boolean commitTransaction() {
+        if (!endUserTransaction()) {
+            System.out.println("Failed to commit the changes of " + collectionName + ", no transaction in progress");
+            return false;
+        }
+
+        releaseSavepoint();
+
+        return queue.transactionEnded();
+    }
+
+    @Override
+    public void rollbackTransaction() {
+        // The changes are discarded before the queue is allowed to flush again
+        if (endUserTransaction()) {
+            rollbackToSavepoint();
+            queue.transactionEnded();
+        }
+    }
+
+    public boolean hasPendingChanges() {
+        return hasStagedChanges();
+    }
+
+    public boolean flush() {
+        // Writes the staged changes into the json file, returns false (and keeps the changes staged) if writing fails
+        return writeStagedChanges();
+    }
+
+    private synchronized boolean endUserTransaction() {
+        boolean wasInUserTransaction = inUserTransaction;
+        inUserTransaction = false;
+
+        return wasInUserTransaction;
+    }
+
+    private boolean changeQueued() {
+        // Changes made in a transaction are handed to the queue when the transaction is committed
+        synchronized (this) {
+            if (inUserTransaction) {
+                return true;
+            }
+        }
+
+        return queue.changeQueued();
+    }
+}
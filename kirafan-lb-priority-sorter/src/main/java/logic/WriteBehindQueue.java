@@ -0,0 +1,134 @@
+package logic;
+
+import io.jsondb.JsonDBTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+* Creates WriteBehindDatabases and flushes their queued changes into the json files on a background thread.
+*
+* Durability:
+*   WRITE_BEHIND: changes are written by the background thread every flush interval, when flush is called and when
+*   the queue is closed (so changes made after the latest flush are lost if the program crashes)
+*   WRITE_THROUGH: every change (or every transaction) is written right away, like with a plain Database
+*
+* Changes made in a transaction (see DataHandler) are not flushed before the transaction has been committed. If the
+* queue has a TransactionJournal, the changes of all the databases are first written into the journal, so that a flush
+* which is interrupted by a crash is finished when the program is started again (see recover).
+*
+* The queue must be closed when the program shuts down, so that the last changes are written.
+*/
+public class WriteBehindQueue implements AutoCloseable {
+    public enum Durability {
+        WRITE_BEHIND,
+        WRITE_THROUGH;
+    }
+
+    private final List<WriteBehindDatabase<?>> databases;
+    private final TransactionJournal journal; // null if the flushes are not journaled
+    private final ScheduledExecutorService flusher;
+    private volatile Durability durability;
+    private int transactionsInProgress; // Guarded by this
+
+    public WriteBehindQueue(Durability durability, long flushIntervalMillis) {
+        this(durability, flushIntervalMillis, null);
+    }
+
+    public WriteBehindQueue(Durability durability, long flushIntervalMillis, TransactionJournal journal) {
+        this.durability = durability;
+        this.journal = journal;
+        databases = new CopyOnWriteArrayList<>();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "write-behind-flusher");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public <T> Database<T> createDatabase(JsonDBTemplate database, String collectionName) {
+        return createDatabase(() -> database, collectionName);
+    }
+
+    public <T> Database<T> createDatabase(Supplier<JsonDBTemplate> database, String collectionName) {
+        WriteBehindDatabase<T> writeBehindDatabase = new WriteBehindDatabase<>(this, database, collectionName);
+        databases.add(writeBehindDatabase);
+
+        return writeBehindDatabase;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+
+        // The changes queued before the switch are written right away as well
+        if (durability == Durability.WRITE_THROUGH) {
+            flush();
+        }
+    }
+
+    boolean changeQueued() {
+        // Called by a database after it has queued a change, returns false if writing a change right away failed
+        if (durability == Durability.WRITE_THROUGH) {
+            return flush();
+        }
+
+        return true;
+    }
+
+    synchronized void transactionStarted() {
+        transactionsInProgress++;
+    }
+
+    boolean transactionEnded() {
+        synchronized (this) {
+            transactionsInProgress--;
+        }
+
+        return changeQueued();
+    }
+
+    public synchronized boolean recover() {
+        // Finishes a journaled flush which was interrupted by a crash, call after the collections have been created
+        return journal == null || journal.recover(databases);
+    }
+
+    public synchronized boolean flush() {
+        /*
+        * Writes the queued changes of every database, returns false if writing the changes of any database failed.
+        * Nothing is written while a transaction is in progress, its changes are written once it has been committed.
+        */
+        if (transactionsInProgress > 0) {
+            return true;
+        }
+
+        if (journal != null) {
+            return journal.commit(databases);
+        }
+
+        boolean flushed = true;
+
+        for (WriteBehindDatabase<?> database : databases) {
+            if (!database.flush()) {
+                flushed = false;
+            }
+        }
+
+        return flushed;
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+}
@@ -1,10 +1,46 @@
 package logic.checks;
 
 import domain.model.GameCharacter;
+import logic.CharacterAttributes;
 
 public abstract class Check {
     public Check() {
     }
 
     public abstract int compare(GameCharacter c1, GameCharacter c2);
+
+    /*
+    * Returns the priority of a single character as a small int. A smaller key means a higher priority, and the keys of
+    * two characters always order them the same way as compare does (i.e. the sign of compare(c1, c2) is the same as the
+    * sign of Integer.compare(getPriorityKey(c1), getPriorityKey(c2))).
+    *
+    * This lets GameCharacterPriorityComparator run every check only once per character when sorting a whole list,
+    * instead of twice for every comparison made by the sorting algorithm.
+    */
+    public abstract int getPriorityKey(GameCharacter chara);
+
+    /*
+    * Returns the same key as getPriorityKey(attributes.getCharacter(ordinal)). GameCharacterPriorityComparator calls
+    * this while sorting, so that checks which only need an attribute of the character (e.g. being an event bonus
+    * character) can read it from a bit instead of looking it up (see CharacterAttributes).
+    */
+    public int getPriorityKey(CharacterAttributes attributes, int ordinal) {
+        return getPriorityKey(attributes.getCharacter(ordinal));
+    }
+
+    /*
+    * GameCharacterPriorityComparator.sort calls beginSort before it calculates the priority keys of a list and endSort
+    * after it. The characters do not change in between, so a check can use these to build indexes which are only valid
+    * for the duration of a single sort.
+    */
+    public void beginSort() {
+    }
+
+    public void endSort() {
+    }
+
+    public String getName() {
+        // Identifies the check in exported rankings (see RankingExporter), checks with a parameter include its value
+        return getClass().getSimpleName();
+    }
 }
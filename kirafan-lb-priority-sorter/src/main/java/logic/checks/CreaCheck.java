@@ -2,7 +2,7 @@ package logic.checks;
 
 import domain.CreaStatus;
 import domain.model.GameCharacter;
-import domain.model.Series;
+import logic.CharacterAttributes;
 
 public class CreaCheck extends Check {
     private CreaStatus desiredCreaStatus;
@@ -13,14 +13,15 @@ public class CreaCheck extends Check {
 
     @Override
     public int compare(GameCharacter c1, GameCharacter c2) {
-        Series c1Series = c1.getSeries();
-        Series c2Series = c2.getSeries();
+        // A character without a series has no crea status, like in CharacterAttributes
+        CreaStatus c1CreaStatus = CharacterAttributes.getCreaStatus(c1);
+        CreaStatus c2CreaStatus = CharacterAttributes.getCreaStatus(c2);
 
-        if (c1Series.getCreaStatus() == desiredCreaStatus && c2Series.getCreaStatus() != desiredCreaStatus) {
+        if (c1CreaStatus == desiredCreaStatus && c2CreaStatus != desiredCreaStatus) {
             // If c1 belongs to a series which has the desires crea status and c2 belongs to a series which doesn't
             // c1 has higher priority
             return -1;
-        } else if (c1Series.getCreaStatus() != desiredCreaStatus && c2Series.getCreaStatus() == desiredCreaStatus) {
+        } else if (c1CreaStatus != desiredCreaStatus && c2CreaStatus == desiredCreaStatus) {
             // If c2 belongs to a series which has the desired crea status and c1 belongs to a series which doesn't
             // c2 has higher priority
             return 1;
@@ -30,4 +31,19 @@ public class CreaCheck extends Check {
             return 0;
         }
     }
+
+    @Override
+    public int getPriorityKey(GameCharacter chara) {
+        return CharacterAttributes.getCreaStatus(chara) == desiredCreaStatus ? 0 : 1;
+    }
+
+    @Override
+    public int getPriorityKey(CharacterAttributes attributes, int ordinal) {
+        return attributes.hasCreaStatus(ordinal, desiredCreaStatus) ? 0 : 1;
+    }
+
+    @Override
+    public String getName() {
+        return super.getName() + "(" + desiredCreaStatus.name() + ")";
+    }
 }
@@ -2,8 +2,7 @@ package logic.checks;
 
 import domain.model.GameCharacter;
 import domain.model.GameEvent;
-
-import java.util.List;
+import logic.CharacterAttributes;
 
 public class EventBonusCheck extends Check {
     private GameEvent currentEvent;
@@ -15,13 +14,12 @@ public class EventBonusCheck extends Check {
     @Override
     public int compare(GameCharacter c1, GameCharacter c2) {
         // If there is no event currently, both characters have equal priority
-        if (currentEvent == null || currentEvent.getBonusCharacters() == null) {
+        if (currentEvent == null || currentEvent.getBonusCharacterIds() == null) {
             return 0;
         }
 
-        List<GameCharacter> bonusCharacters = currentEvent.getBonusCharacters();
-        boolean c1IsBonusCharacter = bonusCharacters.contains(c1);
-        boolean c2IsBonusCharacter = bonusCharacters.contains(c2);
+        boolean c1IsBonusCharacter = currentEvent.isBonusCharacter(c1);
+        boolean c2IsBonusCharacter = currentEvent.isBonusCharacter(c2);
 
         if (c1IsBonusCharacter&& !c2IsBonusCharacter) {
             // if c1 is a bonus character and c2 isn't then c1 has higher priority
@@ -34,4 +32,23 @@ public class EventBonusCheck extends Check {
             return 0;
         }
     }
+
+    @Override
+    public int getPriorityKey(GameCharacter chara) {
+        // If there is no event currently, all characters have equal priority
+        if (currentEvent == null || currentEvent.getBonusCharacterIds() == null) {
+            return 0;
+        }
+
+        return currentEvent.isBonusCharacter(chara) ? 0 : 1;
+    }
+
+    @Override
+    public int getPriorityKey(CharacterAttributes attributes, int ordinal) {
+        if (currentEvent == null || currentEvent.getBonusCharacterIds() == null) {
+            return 0;
+        }
+
+        return attributes.isEventBonus(ordinal) ? 0 : 1;
+    }
 }
@@ -0,0 +1,66 @@
+package logic.checks;
+
+import domain.model.GameCharacter;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+final class GroupChampions {
+    /*
+    * The best values of a single criterion (e.g. most DEF DOWN skill power or highest woke level) among the limit broken
+    * and among the non-limit broken characters of a group (e.g. an element/class combination or a series). A higher
+    * value is always better.
+    *
+    * A character is not compared against itself, so for both groups the best value of a character other than the best
+    * character is also stored (runner-up). SkillSetCheck and HighestWokeCheck build these once per group during a sort
+    * instead of comparing every character against all the others.
+    */
+    private final Champions limitBroken = new Champions();
+    private final Champions nonLimitBroken = new Champions();
+
+    GroupChampions(List<GameCharacter> characters, ToDoubleFunction<GameCharacter> value) {
+        if (characters == null) {
+            return;
+        }
+
+        for (GameCharacter chara : characters) {
+            if (chara.isLimitBroken()) {
+                limitBroken.add(chara, value.applyAsDouble(chara));
+            } else {
+                nonLimitBroken.add(chara, value.applyAsDouble(chara));
+            }
+        }
+    }
+
+    boolean isBeatenBy(GameCharacter chara, double charaValue) {
+        /*
+        * Returns true when chara's value is better than the value of every other limit broken character and at least
+        * as good as the value of every other non-limit broken character (i.e. ties are only allowed with non-limit
+        * broken characters)
+        */
+        return limitBroken.getBestValueOfOthers(chara) < charaValue && nonLimitBroken.getBestValueOfOthers(chara) <= charaValue;
+    }
+
+    private static final class Champions {
+        private GameCharacter best;
+        private double bestValue = Double.NEGATIVE_INFINITY;
+        private double runnerUpValue = Double.NEGATIVE_INFINITY;
+
+        private void add(GameCharacter chara, double charaValue) {
+            if (best == null || chara.equals(best)) {
+                bestValue = Math.max(bestValue, charaValue);
+                best = chara;
+            } else if (charaValue > bestValue) {
+                runnerUpValue = bestValue;
+                bestValue = charaValue;
+                best = chara;
+            } else {
+                runnerUpValue = Math.max(runnerUpValue, charaValue);
+            }
+        }
+
+        private double getBestValueOfOthers(GameCharacter chara) {
+            return chara.equals(best) ? runnerUpValue : bestValue;
+        }
+    }
+}
@@ -3,12 +3,13 @@ package logic.checks;
 import domain.model.GameCharacter;
 import domain.model.Series;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class HighestWokeCheck extends Check{
     private Map<Series, List<GameCharacter>> charasBySeries;
+    private Map<Series, GroupChampions> wokeLevelsIndex; // Only kept between beginSort and endSort
 
     public HighestWokeCheck(Map<Series, List<GameCharacter>> charasBySeries) {
         this.charasBySeries = charasBySeries;
@@ -32,6 +33,26 @@ public class HighestWokeCheck extends Check{
         }
     }
 
+    @Override
+    public int getPriorityKey(GameCharacter chara) {
+        return charaIsHighestWokeInSeries(chara) ? 0 : 1;
+    }
+
+    @Override
+    public void beginSort() {
+        /*
+        * Every character is compared against all other characters of her series, which makes ranking a long-running
+        * series quadratic. During a sort the highest woke levels of each series are found only once (see
+        * GroupChampions) and then shared by all the characters of the series.
+        */
+        wokeLevelsIndex = new HashMap<>();
+    }
+
+    @Override
+    public void endSort() {
+        wokeLevelsIndex = null;
+    }
+
     private boolean charaIsHighestWokeInSeries(GameCharacter chara) {
         /*
         * Returns true when:
@@ -51,19 +72,16 @@ public class HighestWokeCheck extends Check{
             return false;
         }
 
-        Series series = chara.getSeries(); // Chara's series
-        List<GameCharacter> others = charasBySeries.get(series)
-                .stream()
-                .filter(c -> !c.equals(chara))
-                .collect(Collectors.toList()); // Other characters in the same series as chara
+        return getWokeLevels(chara.getSeries()).isBeatenBy(chara, charasWokeLevel);
+    }
 
-        for (GameCharacter other : others) {
-            if ((other.getWokeLevel() >= charasWokeLevel && other.isLimitBroken())
-                    || (other.getWokeLevel() > charasWokeLevel)) {
-                return false;
-            }
+    private GroupChampions getWokeLevels(Series series) {
+        if (wokeLevelsIndex == null) {
+            // Not sorting, so there is no index to reuse
+            return new GroupChampions(charasBySeries.get(series), GameCharacter::getWokeLevel);
         }
 
-        return true;
+        return wokeLevelsIndex.computeIfAbsent(series,
+                s -> new GroupChampions(charasBySeries.get(s), GameCharacter::getWokeLevel));
     }
 }
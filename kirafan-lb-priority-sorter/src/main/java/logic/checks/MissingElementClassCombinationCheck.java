@@ -1,17 +1,13 @@
 package logic.checks;
 
 import domain.CharacterClass;
-import domain.CharacterElement;
 import domain.model.GameCharacter;
-
-import java.util.AbstractMap;
-import java.util.List;
-import java.util.Map;
+import logic.ElementClassIndex;
 
 public class MissingElementClassCombinationCheck extends Check {
-    private Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charactersByElementAndClass;
+    private ElementClassIndex charactersByElementAndClass;
 
-    public MissingElementClassCombinationCheck(Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charactersByElementAndClass) {
+    public MissingElementClassCombinationCheck(ElementClassIndex charactersByElementAndClass) {
         this.charactersByElementAndClass = charactersByElementAndClass;
     }
 
@@ -57,19 +53,22 @@ public class MissingElementClassCombinationCheck extends Check {
 
     }
 
-    private boolean limitBrokenCharacterWithSameElementAndClassExists(GameCharacter character) {
-        AbstractMap.SimpleEntry<CharacterElement, CharacterClass> charactersElementAndClass =
-                new AbstractMap.SimpleEntry<>(character.getCharacterElement(), character.getCharacterClass());
-
-        List<GameCharacter> charactersWithSameElementAndClass = charactersByElementAndClass.get(charactersElementAndClass);
-
-        for (GameCharacter characterWithSameElementAndClass : charactersWithSameElementAndClass) {
-            if (!characterWithSameElementAndClass.equals(character) && characterWithSameElementAndClass.isLimitBroken()) {
-                return true;
-            }
+    @Override
+    public int getPriorityKey(GameCharacter chara) {
+        /*
+        * Characters with an element/class combination which a currently limit broken character already has all get the
+        * same (lowest) priority. Characters with a missing element/class combination are ordered by the priority of
+        * their class (see the class priorities below).
+        */
+        if (limitBrokenCharacterWithSameElementAndClassExists(chara)) {
+            return 3;
         }
 
-        return false;
+        return getClassPriority(chara.getCharacterClass());
+    }
+
+    private boolean limitBrokenCharacterWithSameElementAndClassExists(GameCharacter character) {
+        return charactersByElementAndClass.hasLimitBrokenCharacterOtherThan(character);
     }
 
     /*
@@ -96,6 +95,16 @@ public class MissingElementClassCombinationCheck extends Check {
                 || (classIsMageOrWarrior(charactersClass) && classIsAlchemist(comparedCharactersClass));
     }
 
+    private int getClassPriority(CharacterClass characterClass) {
+        if (classIsKnightOrPriest(characterClass)) {
+            return 0;
+        } else if (classIsMageOrWarrior(characterClass)) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+
     private boolean classIsKnightOrPriest(CharacterClass characterClass) {
         return characterClass == CharacterClass.KNIGHT || characterClass == CharacterClass.PRIEST;
     }
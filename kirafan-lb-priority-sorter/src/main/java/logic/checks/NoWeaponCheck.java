@@ -2,6 +2,7 @@ package logic.checks;
 
 import domain.model.GameCharacter;
 import domain.model.Weapon;
+import logic.CharacterAttributes;
 
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,16 @@ public class NoWeaponCheck extends Check {
         }
     }
 
+    @Override
+    public int getPriorityKey(GameCharacter chara) {
+        return characterHasUniqueWeapon(chara) ? 1 : 0;
+    }
+
+    @Override
+    public int getPriorityKey(CharacterAttributes attributes, int ordinal) {
+        return attributes.hasExclusiveWeapon(ordinal) ? 1 : 0;
+    }
+
     private boolean characterHasUniqueWeapon(GameCharacter chara) {
         return weaponsByCharacter.get(chara) != null;
     }
@@ -30,7 +30,22 @@ public class PersonalPreferenceCheck extends Check{
         }
     }
 
+    @Override
+    public int getPriorityKey(GameCharacter chara) {
+        /*
+        * A higher personal preference gives a smaller key. All preferences below the given range get the same key
+        * (minimumPreference - 1 negated), since compare considers them to be equal to each other but lower than any
+        * preference within the range.
+        */
+        return -Math.max(chara.getPersonalPreference(), minimumPreference - 1);
+    }
+
     private boolean personalPreferenceIsWithinRange(int personalPreference) {
         return personalPreference >= minimumPreference;
     }
+
+    @Override
+    public String getName() {
+        return super.getName() + "(" + minimumPreference + ")";
+    }
 }
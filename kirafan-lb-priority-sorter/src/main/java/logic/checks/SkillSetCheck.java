@@ -3,16 +3,51 @@ package logic.checks;
 import domain.*;
 import domain.model.GameCharacter;
 import logic.Calculator;
+import logic.ElementClassIndex;
 import logic.Mapper;
-
-import java.util.*;
-import java.util.stream.Collectors;
+import logic.SkillPowerTable;
+import logic.SkillTotalPowersCache;
 
 public class SkillSetCheck extends Check {
-    private Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charactersByElementAndClass;
+    private static final Skill ABNORMAL_DISABLE_SELF = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_SELF, 0);
+    private static final Skill ABNORMAL_DISABLE_ALLY_SINGLE = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_SINGLE, 0);
+    private static final Skill ABNORMAL_DISABLE_ALLY_ALL = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_ALL, 0);
+    private static final Skill ABNORMAL_RECOVER_SELF = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_SELF, 0);
+    private static final Skill ABNORMAL_RECOVER_ALLY_SINGLE = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_SINGLE, 0);
+    private static final Skill ABNORMAL_RECOVER_ALLY_ALL = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_ALL, 0);
+    private static final Skill SINGLE_BARRIER_ALLY_ALL = new Skill(SkillType.BARRIER_FULL, null, SkillTarget.ALLY_ALL, 0);
+    private static final Skill TRIPLE_BARRIER_SELF = new Skill(SkillType.BARRIER_FULL_TRIPLE, null, SkillTarget.ALLY_SELF, 0);
+    private static final Skill DAMAGE_ALL_ENEMIES = new Skill(SkillType.DAMAGE, null, SkillTarget.ENEMY_ALL, 0);
+    private static final Skill DAMAGE_SINGLE_ENEMY = new Skill(SkillType.DAMAGE, null, SkillTarget.ENEMY_SINGLE, 0);
+    private static final Skill HEAL_CARD = new Skill(SkillType.HEAL_CARD, null, SkillTarget.ALLY_ALL, 0);
+
+    /*
+    * Every criterion has an int id, so that the group champions can be found from an array instead of hashing a key:
+    *   -the skill power criteria come first, one for every skill type, skill change (or none) and target (see
+    *   getSkillPowerCriterion)
+    *   -then the damage taken criteria and the max damage criterion
+    *   -then the skill amount criteria (see SkillAmount)
+    */
+    private static final SkillType[] SKILL_TYPES = SkillType.values();
+    private static final SkillChange[] SKILL_CHANGES = SkillChange.values();
+    private static final int SKILL_POWER_CRITERIA = SKILL_TYPES.length * (SKILL_CHANGES.length + 1) * 2;
+    private static final int DEF_DAMAGE_TAKEN_CRITERION = SKILL_POWER_CRITERIA;
+    private static final int MDF_DAMAGE_TAKEN_CRITERION = SKILL_POWER_CRITERIA + 1;
+    private static final int MAX_DAMAGE_CRITERION = SKILL_POWER_CRITERIA + 2;
+    private static final int FIRST_SKILL_AMOUNT_CRITERION = SKILL_POWER_CRITERIA + 3;
+
+    private ElementClassIndex charactersByElementAndClass;
+    private SkillTotalPowersCache skillTotalPowersCache;
+    // Group champions by criterion and element/class slot (see ElementClassIndex), only kept between beginSort and endSort
+    private GroupChampions[][] groupChampionsIndex;
+
+    public SkillSetCheck(ElementClassIndex charactersByElementAndClass) {
+        this(charactersByElementAndClass, Mapper.getSkillTotalPowersCache());
+    }
 
-    public SkillSetCheck(Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charactersByElementAndClass) {
+    public SkillSetCheck(ElementClassIndex charactersByElementAndClass, SkillTotalPowersCache skillTotalPowersCache) {
         this.charactersByElementAndClass = charactersByElementAndClass;
+        this.skillTotalPowersCache = skillTotalPowersCache;
     }
 
     @Override
@@ -32,6 +67,26 @@ public class SkillSetCheck extends Check {
         }
     }
 
+    @Override
+    public int getPriorityKey(GameCharacter chara) {
+        return charaHasDesiredSkillset(chara) ? 0 : 1;
+    }
+
+    @Override
+    public void beginSort() {
+        /*
+        * Every criterion compares chara against all other characters of the same element and class, which makes ranking
+        * a whole group quadratic. During a sort the best values of each group are calculated only once per criterion
+        * (see GroupChampions) and then shared by all the characters of the group.
+        */
+        groupChampionsIndex = new GroupChampions[FIRST_SKILL_AMOUNT_CRITERION + SkillAmount.VALUES.length][];
+    }
+
+    @Override
+    public void endSort() {
+        groupChampionsIndex = null;
+    }
+
     private boolean charaHasDesiredSkillset(GameCharacter chara) {
         switch (chara.getCharacterClass()) {
             case ALCHEMIST:
@@ -87,22 +142,12 @@ public class SkillSetCheck extends Check {
          *   7) Most damage all enemies skills
          */
 
-        Skill abnormalDisableSelf = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_SELF, 0);
-        Skill abnormalDisableAllySingle = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_SINGLE, 0);
-        Skill abnormalDisableAllyAll = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_ALL, 0);
-        Skill abnormalRecoverSelf = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_SELF, 0);
-        Skill abnormalRecoverAllySingle = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_SINGLE, 0);
-        Skill abnormalRecoverAllyAll = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_ALL, 0);
-        Skill singleBarrierAllyAll = new Skill(SkillType.BARRIER_FULL, null, SkillTarget.ALLY_ALL, 0);
-        Skill tripleBarrierSelfAll = new Skill(SkillType.BARRIER_FULL_TRIPLE, null, SkillTarget.ALLY_SELF, 0);
-        Skill damageAllEnemies = new Skill(SkillType.DAMAGE, null, SkillTarget.ENEMY_ALL, 0);
-
         return takesLeastDamage(chara, SkillType.DEF) || takesLeastDamage(chara, SkillType.MDF)
-                || mostSkillAmountCheck(chara, true, 1, abnormalDisableSelf, abnormalDisableAllySingle, abnormalDisableAllyAll)
-                || mostSkillAmountCheck(chara, true, 1, abnormalRecoverSelf, abnormalRecoverAllySingle, abnormalRecoverAllyAll)
-                || mostSkillAmountCheck(chara, true, 1, singleBarrierAllyAll)
-                || mostSkillAmountCheck(chara, true, 1, tripleBarrierSelfAll)
-                || mostSkillAmountCheck(chara, true, 2, damageAllEnemies);
+                || mostSkillAmountCheck(chara, SkillAmount.ABNORMAL_DISABLES)
+                || mostSkillAmountCheck(chara, SkillAmount.ABNORMAL_RECOVERS)
+                || mostSkillAmountCheck(chara, SkillAmount.SINGLE_BARRIERS_ALLY_ALL)
+                || mostSkillAmountCheck(chara, SkillAmount.TRIPLE_BARRIERS_SELF)
+                || mostSkillAmountCheck(chara, SkillAmount.ALL_ENEMY_DAMAGES_WITH_WEAPON);
     }
 
     private boolean mageHasDesiredSkillSet(GameCharacter chara) {
@@ -111,9 +156,8 @@ public class SkillSetCheck extends Check {
          *   1) Highest max damage
          *   2) Most damage ALL ENEMIES skills
          */
-        Skill damageAllEnemies = new Skill(SkillType.DAMAGE, null, SkillTarget.ENEMY_ALL, 0);
 
-        return hasHighestMaxDamage(chara) || mostSkillAmountCheck(chara, false, 2, damageAllEnemies);
+        return hasHighestMaxDamage(chara) || mostSkillAmountCheck(chara, SkillAmount.ALL_ENEMY_DAMAGES);
     }
 
     private boolean priestHasDesiredSkillSet(GameCharacter chara) {
@@ -126,17 +170,10 @@ public class SkillSetCheck extends Check {
          *   5) Most SPD UP buffs skillpower
          */
 
-        Skill healCard = new Skill(SkillType.HEAL_CARD, null, SkillTarget.ALLY_ALL, 0);
-        Skill abnormalDisableAllySingle = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_SINGLE, 0);
-        Skill abnormalDisableAllyAll = new Skill(SkillType.ABNORMAL_DISABLE, null, SkillTarget.ALLY_ALL, 0);
-        Skill abnormalRecoverAllySingle = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_SINGLE, 0);
-        Skill abnormalRecoverAllyAll = new Skill(SkillType.ABNORMAL_RECOVER, null, SkillTarget.ALLY_ALL, 0);
-        Skill singleBarrierAllyAll = new Skill(SkillType.BARRIER_FULL, null, SkillTarget.ALLY_ALL, 0);
-
-        return mostSkillAmountCheck(chara, true,1, healCard)
-                || mostSkillAmountCheck(chara, true, 1, abnormalDisableAllySingle, abnormalDisableAllyAll)
-                || mostSkillAmountCheck(chara, true,1, abnormalRecoverAllySingle, abnormalRecoverAllyAll)
-                || mostSkillAmountCheck(chara, true,1, singleBarrierAllyAll)
+        return mostSkillAmountCheck(chara, SkillAmount.HEAL_CARDS)
+                || mostSkillAmountCheck(chara, SkillAmount.ALLY_ABNORMAL_DISABLES)
+                || mostSkillAmountCheck(chara, SkillAmount.ALLY_ABNORMAL_RECOVERS)
+                || mostSkillAmountCheck(chara, SkillAmount.SINGLE_BARRIERS_ALLY_ALL)
                 || mostSkillPowerCheck(chara, SkillType.SPD, SkillChange.UP, false);
     }
 
@@ -147,10 +184,8 @@ public class SkillSetCheck extends Check {
          *   2) Most damage SINGLE ENEMY skills
          */
 
-        Skill damageSingleEnemy = new Skill(SkillType.DAMAGE, null, SkillTarget.ENEMY_SINGLE, 0);
-
         return hasHighestMaxDamage(chara)
-                || mostSkillAmountCheck(chara, false, 2, damageSingleEnemy);
+                || mostSkillAmountCheck(chara, SkillAmount.SINGLE_ENEMY_DAMAGES);
     }
 
     private boolean mostSkillPowerCheck(GameCharacter chara, SkillType skillType, SkillChange skillChange, boolean targetEnemy) {
@@ -164,41 +199,26 @@ public class SkillSetCheck extends Check {
         *   -When there is an other character who is not limit broken and has more total power of the desired skills
         */
 
-        // Other characters of the same element and class as chara which the comparisons are done against
-        List<GameCharacter> otherCharacters =
-                getCharactersOfSpecificElementAndClass(chara.getCharacterElement(), chara.getCharacterClass()).stream()
-                        .filter(c -> !chara.equals(c))
-                        .collect(Collectors.toList());
-
         // Weapons should be taken into account when counting skill power totals
-        Map<Skill, Double> charasSkillPowerTotals = Mapper.getSkillTotalPowers(chara);
-        double charasDesiredSkillsTotalPower = getAppropriateSkillPowerSum(charasSkillPowerTotals, skillType,
+        double charasDesiredSkillsTotalPower = getAppropriateSkillPowerSum(skillTotalPowersCache.get(chara), skillType,
                 skillChange, targetEnemy);
 
         if (charasDesiredSkillsTotalPower <= 0) {
             return false;
         }
 
-        for (GameCharacter other : otherCharacters) {
-            Map<Skill, Double> othersTotalSkillPowers = Mapper.getSkillTotalPowers(other);
-            double othersDesiredSkillsTotalPower = getAppropriateSkillPowerSum(othersTotalSkillPowers, skillType,
-                    skillChange, targetEnemy);
-
-            if ((other.isLimitBroken() && othersDesiredSkillsTotalPower >= charasDesiredSkillsTotalPower)
-                    || (!other.isLimitBroken() && othersDesiredSkillsTotalPower > charasDesiredSkillsTotalPower)) {
-
-                return false;
-            }
-        }
+        int criterion = getSkillPowerCriterion(skillType, skillChange, targetEnemy);
 
-        return true;
+        return getGroupChampions(chara, criterion).isBeatenBy(chara, charasDesiredSkillsTotalPower);
     }
 
-    private List<GameCharacter> getCharactersOfSpecificElementAndClass(CharacterElement charaElement, CharacterClass charaClass) {
-        return charactersByElementAndClass.get(new AbstractMap.SimpleEntry<>(charaElement, charaClass));
+    private static int getSkillPowerCriterion(SkillType skillType, SkillChange skillChange, boolean targetEnemy) {
+        int skillChangeIndex = skillChange == null ? 0 : skillChange.ordinal() + 1;
+
+        return (skillType.ordinal() * (SKILL_CHANGES.length + 1) + skillChangeIndex) * 2 + (targetEnemy ? 1 : 0);
     }
 
-    private double getAppropriateSkillPowerSum(Map<Skill, Double> skillPowerTotals, SkillType skillType,
+    private double getAppropriateSkillPowerSum(SkillPowerTable skillPowerTotals, SkillType skillType,
                                                SkillChange skillChange, boolean targetEnemy) {
 
         if (SkillType.isBuffOrDebuff(skillType)) {
@@ -252,27 +272,12 @@ public class SkillSetCheck extends Check {
             return false;
         }
 
-        long takenDamageChara = Calculator.calculateDamageTaken(chara, typeOfDefense);
+        int criterion = typeOfDefense == SkillType.DEF ? DEF_DAMAGE_TAKEN_CRITERION : MDF_DAMAGE_TAKEN_CRITERION;
 
-        // Other characters of the same element and class as chara which the comparisons are done against
-        List<GameCharacter> otherCharacters =
-                getCharactersOfSpecificElementAndClass(chara.getCharacterElement(), chara.getCharacterClass()).stream()
-                .filter(c -> !chara.equals(c))
-                .collect(Collectors.toList());
-
-        for (GameCharacter other : otherCharacters) {
-            long takenDamageOther = Calculator.calculateDamageTaken(other, typeOfDefense);
-
-            if ((other.isLimitBroken() && takenDamageOther <= takenDamageChara)
-                    || (!other.isLimitBroken() && takenDamageOther < takenDamageChara)) {
-                return false;
-            }
-        }
-
-        return true;
+        return getGroupChampions(chara, criterion).isBeatenBy(chara, getValue(criterion, chara));
     }
 
-    private boolean mostSkillAmountCheck(GameCharacter chara, boolean includeWeapon, int minAmount, Skill... skills) {
+    private boolean mostSkillAmountCheck(GameCharacter chara, SkillAmount skillAmount) {
         /*
          * Return true in the following cases:
          *   -When chara has the most amount of certain skills (at least a min amount) of her element/class combination
@@ -283,39 +288,16 @@ public class SkillSetCheck extends Check {
          *   -When there is an other character who is not limit broken and has more total amount of the desired skills
          */
 
-        long skillAmountsChara = Calculator.countAmountOfSpecificSkills(chara, includeWeapon, skills);
+        int criterion = FIRST_SKILL_AMOUNT_CRITERION + skillAmount.ordinal();
+        double skillAmountsChara = getValue(criterion, chara);
 
-        if (skillAmountsChara < minAmount) {
+        if (skillAmountsChara < skillAmount.minAmount) {
             /* chara doesn't have min amount of the specific skills (e.g. disable status effects ALL ALLIES and
             disable status effects SINGLE ALLY) */
             return false;
         }
 
-        // Other characters of the same element and class as chara which the comparisons are done against
-        List<GameCharacter> otherCharacters =
-                getCharactersOfSpecificElementAndClass(chara.getCharacterElement(), chara.getCharacterClass()).stream()
-                .filter(c -> !chara.equals(c))
-                .collect(Collectors.toList());
-
-        for (GameCharacter other : otherCharacters) {
-            long skillAmountsOther = Calculator.countAmountOfSpecificSkills(other, includeWeapon, skills);
-
-            if ((other.isLimitBroken() && skillAmountsOther >= skillAmountsChara)
-                    || (!other.isLimitBroken() && skillAmountsOther > skillAmountsChara)) {
-                /*
-                 * if there is a limit broken character who has more or equal amount of specific skills
-                 * (when compared to the inputted chara) OR:
-                 *
-                 * if there is a non-limit broken character who has more of the inputted skills (when compared to the
-                 * inputted chara)
-                 *
-                 * return false (otherwise return true)
-                 */
-                return false;
-            }
-        }
-
-        return true;
+        return getGroupChampions(chara, criterion).isBeatenBy(chara, skillAmountsChara);
     }
 
     private boolean hasHighestMaxDamage(GameCharacter chara) {
@@ -329,23 +311,78 @@ public class SkillSetCheck extends Check {
          *   -An other non-limit broken character of the same element and class causes more damage than chara
          * */
 
-        long maxDamageCausedChara = Calculator.calculateMaxDamageCaused(chara);
+        return getGroupChampions(chara, MAX_DAMAGE_CRITERION).isBeatenBy(chara, getValue(MAX_DAMAGE_CRITERION, chara));
+    }
 
-        // Other characters of the same element and class as chara which the comparisons are done against
-        List<GameCharacter> otherCharacters =
-                getCharactersOfSpecificElementAndClass(chara.getCharacterElement(), chara.getCharacterClass()).stream()
-                .filter(c -> !chara.equals(c))
-                .collect(Collectors.toList());
+    private double getValue(int criterion, GameCharacter chara) {
+        // The value of chara by which the characters are compared in the criterion (a higher value is always better)
+        if (criterion < SKILL_POWER_CRITERIA) {
+            SkillType skillType = SKILL_TYPES[criterion / ((SKILL_CHANGES.length + 1) * 2)];
+            int skillChangeIndex = criterion / 2 % (SKILL_CHANGES.length + 1);
+            SkillChange skillChange = skillChangeIndex == 0 ? null : SKILL_CHANGES[skillChangeIndex - 1];
+
+            return getAppropriateSkillPowerSum(skillTotalPowersCache.get(chara), skillType, skillChange, criterion % 2 == 1);
+        } else if (criterion == DEF_DAMAGE_TAKEN_CRITERION || criterion == MDF_DAMAGE_TAKEN_CRITERION) {
+            // The damage is negated so that the character who takes the least damage has the highest value
+            SkillType typeOfDefense = criterion == DEF_DAMAGE_TAKEN_CRITERION ? SkillType.DEF : SkillType.MDF;
+
+            return -Calculator.calculateDamageTaken(chara, skillTotalPowersCache.get(chara), typeOfDefense);
+        } else if (criterion == MAX_DAMAGE_CRITERION) {
+            return Calculator.calculateMaxDamageCaused(chara, skillTotalPowersCache.get(chara));
+        } else {
+            SkillAmount skillAmount = SkillAmount.VALUES[criterion - FIRST_SKILL_AMOUNT_CRITERION];
 
-        for (GameCharacter other : otherCharacters) {
-            long maxDamageCausedOther = Calculator.calculateMaxDamageCaused(other);
+            return Calculator.countAmountOfSpecificSkills(chara, skillAmount.includeWeapon, skillAmount.skills);
+        }
+    }
 
-            if ((other.isLimitBroken() && maxDamageCausedOther >= maxDamageCausedChara)
-                    || (!other.isLimitBroken() && maxDamageCausedOther > maxDamageCausedChara)) {
-                return false;
-            }
+    private GroupChampions getGroupChampions(GameCharacter chara, int criterion) {
+        int slot = ElementClassIndex.getSlot(chara);
+
+        if (groupChampionsIndex == null || slot < 0) {
+            // Not sorting, so there is no index to reuse
+            return new GroupChampions(charactersByElementAndClass.get(slot), c -> getValue(criterion, c));
+        }
+
+        if (groupChampionsIndex[criterion] == null) {
+            groupChampionsIndex[criterion] = new GroupChampions[ElementClassIndex.SLOTS];
+        }
+
+        GroupChampions[] groupChampionsBySlot = groupChampionsIndex[criterion];
+
+        if (groupChampionsBySlot[slot] == null) {
+            groupChampionsBySlot[slot] = new GroupChampions(charactersByElementAndClass.get(slot), c -> getValue(criterion, c));
         }
 
-        return true;
+        return groupChampionsBySlot[slot];
+    }
+
+    private enum SkillAmount {
+        /*
+        * The skill amount criteria: which skills are counted, whether the skills of the preferred weapon are counted too
+        * and how many of the skills a character must have at least
+        */
+        ABNORMAL_DISABLES(true, 1, ABNORMAL_DISABLE_SELF, ABNORMAL_DISABLE_ALLY_SINGLE, ABNORMAL_DISABLE_ALLY_ALL),
+        ABNORMAL_RECOVERS(true, 1, ABNORMAL_RECOVER_SELF, ABNORMAL_RECOVER_ALLY_SINGLE, ABNORMAL_RECOVER_ALLY_ALL),
+        ALLY_ABNORMAL_DISABLES(true, 1, ABNORMAL_DISABLE_ALLY_SINGLE, ABNORMAL_DISABLE_ALLY_ALL),
+        ALLY_ABNORMAL_RECOVERS(true, 1, ABNORMAL_RECOVER_ALLY_SINGLE, ABNORMAL_RECOVER_ALLY_ALL),
+        SINGLE_BARRIERS_ALLY_ALL(true, 1, SINGLE_BARRIER_ALLY_ALL),
+        TRIPLE_BARRIERS_SELF(true, 1, TRIPLE_BARRIER_SELF),
+        HEAL_CARDS(true, 1, HEAL_CARD),
+        ALL_ENEMY_DAMAGES_WITH_WEAPON(true, 2, DAMAGE_ALL_ENEMIES),
+        ALL_ENEMY_DAMAGES(false, 2, DAMAGE_ALL_ENEMIES),
+        SINGLE_ENEMY_DAMAGES(false, 2, DAMAGE_SINGLE_ENEMY);
+
+        private static final SkillAmount[] VALUES = values();
+
+        private final boolean includeWeapon;
+        private final int minAmount;
+        private final Skill[] skills;
+
+        SkillAmount(boolean includeWeapon, int minAmount, Skill... skills) {
+            this.includeWeapon = includeWeapon;
+            this.minAmount = minAmount;
+            this.skills = skills;
+        }
     }
 }
@@ -10,6 +10,7 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
+import logic.CheckPipeline;
 import logic.DatabaseHandler;
 import logic.GlobalListHandler;
 
@@ -86,6 +87,7 @@ public class MainWindowController extends Controller implements Initializable {
 
     private DatabaseHandler databaseHandler;
     private GlobalListHandler listHandler;
+    private CheckPipeline checkPipeline = CheckPipeline.DEFAULT;
 
     public DatabaseHandler getDatabaseHandler() {
         return databaseHandler;
@@ -95,6 +97,10 @@ public class MainWindowController extends Controller implements Initializable {
         this.databaseHandler = databaseHandler;
     }
 
+    public void setCheckPipeline(CheckPipeline checkPipeline) {
+        this.checkPipeline = checkPipeline;
+    }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Initialize ObservableLists
@@ -107,6 +113,7 @@ public class MainWindowController extends Controller implements Initializable {
 
         // Initialize ListHandler
         listHandler = new GlobalListHandler(databaseHandler.getEvent());
+        listHandler.setCheckPipeline(checkPipeline);
         listHandler.setAllCharacters(charactersAll);
         listHandler.setEventCharacters(charactersEvent);
         listHandler.setNonLimitBrokenCharacters(charactersNoLB);
@@ -0,0 +1,41 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+
+    @Test
+    public void nextId_returnsUniqueIdsInIncreasingOrder() {
+        Set<String> ids = new HashSet<>();
+        String previousId = IdGenerator.nextId();
+
+        for (int i = 0; i < 100000; i++) {
+            String id = IdGenerator.nextId();
+            assertTrue(id.compareTo(previousId) > 0);
+            assertTrue(ids.add(id));
+            previousId = id;
+        }
+    }
+
+    @Test
+    public void isGeneratedId_returnsFalse_whenIdHasBeenCreatedByAnOlderVersion() {
+        assertTrue(IdGenerator.isGeneratedId(IdGenerator.nextId()));
+        assertFalse(IdGenerator.isGeneratedId("Sat Mar 02 13:45:12 EET 2019"));
+        assertFalse(IdGenerator.isGeneratedId("1"));
+        assertFalse(IdGenerator.isGeneratedId(null));
+    }
+
+    @Test
+    public void reserve_makesNextIdGreaterThanTheReservedId() {
+        // An id created a minute after the latest id (the generator is shared by all tests, so it must not overflow)
+        long reservedId = Long.parseUnsignedLong(IdGenerator.nextId(), 16) + (60L * 1000 << 12);
+        IdGenerator.reserve(String.format("%016x", reservedId));
+
+        assertEquals(String.format("%016x", reservedId + 1), IdGenerator.nextId());
+    }
+}
@@ -0,0 +1,47 @@
+package domain.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import domain.CreaStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventTest {
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void readFromJson_readsIdsFromCopiesOfCharactersAndSeries_whenEventHasOldFormat() throws IOException {
+        String oldJson = "{\"id\":\"1\","
+                + "\"bonusCharacters\":[{\"id\":\"3\",\"name\":\"chara3\"},{\"id\":\"5\",\"name\":\"chara5\"}],"
+                + "\"availableSeries\":[{\"id\":\"2\",\"name\":\"series2\",\"creaStatus\":\"NONE\"}]}";
+
+        GameEvent event = mapper.readValue(oldJson, GameEvent.class);
+
+        assertTrue(event.hasOldFormat());
+        assertEquals(new LinkedHashSet<>(Arrays.asList("3", "5")), event.getBonusCharacterIds());
+        assertEquals(Collections.singleton("2"), event.getAvailableSeriesIds());
+
+        String newJson = mapper.writeValueAsString(event);
+        assertFalse(newJson.contains("bonusCharacters"));
+        assertFalse(newJson.contains("availableSeries\""));
+        assertFalse(mapper.readValue(newJson, GameEvent.class).hasOldFormat());
+    }
+
+    @Test
+    public void isBonusCharacter_comparesIds() {
+        Series series = new Series("series", CreaStatus.NONE, "1");
+        GameCharacter chara = new GameCharacter.Builder("chara", series, null, null).overwriteID("2").build();
+        GameCharacter copy = new GameCharacter.Builder("renamed chara", series, null, null).overwriteID("2").build();
+        GameEvent event = new GameEvent("1");
+
+        assertFalse(event.isBonusCharacter(chara));
+        event.addBonusCharacter(chara);
+        assertTrue(event.isBonusCharacter(copy));
+        assertFalse(event.isAvailableSeries(series));
+    }
+}
@@ -0,0 +1,123 @@
+package logic;
+
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.Series;
+import domain.model.Weapon;
+import io.jsondb.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NOTE: Like DatabaseTest, these tests might not work if the folder src/test/resources doesn't exist.
+
+class BulkImporterTest {
+    private static final String dbFilesLocation = "src/test/resources/bulk importer test files";
+
+    private File dbFilesFolder;
+    private CountingJsonDBTemplate template;
+    private DatabaseHandler handler;
+    private BulkImporter importer;
+
+    public BulkImporterTest() {
+        dbFilesFolder = new File(dbFilesLocation);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Util.delete(dbFilesFolder);
+        dbFilesFolder.mkdirs();
+
+        template = new CountingJsonDBTemplate(dbFilesLocation, "domain.model");
+        handler = new DatabaseHandler(new Database<>(template, "characters"), new Database<>(template, "events"),
+                new Database<>(template, "series"), new Database<>(template, "weapons"));
+        handler.initializeCollections();
+        handler.initializeEvent();
+        handler.addNewSeries(new Series("existing series", CreaStatus.COMPLETE, "1"));
+        template.resetWrites();
+
+        importer = new BulkImporter();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Util.delete(dbFilesFolder);
+    }
+
+    @Test
+    public void importAll_addsEverythingWithOneWritePerJsonFile_andResolvesReferences() {
+        assertTrue(importer.readSeries(new StringReader("name,creaStatus\n"
+                + "new series,incomplete\n"), BulkImporter.Format.CSV));
+        assertTrue(importer.readWeapons(new StringReader("[{\"name\": \"weapon\", \"offensiveStat\": 100,"
+                + " \"skills\": [\"ATK UP ALLY_SELF 24.5\"], \"exclusiveCharacter\": \"chara2\"}]"),
+                BulkImporter.Format.JSON));
+        assertTrue(importer.readCharacters(new StringReader("id,name,series,element,class,skills,preferredWeapon,wokeLevel\n"
+                + "10,chara1,existing series,Moon,WARRIOR,\"DAMAGE ENEMY_SINGLE 160; TOTTEOKI ENEMY_ALL 3759\",,1\n"
+                + "11,chara2,new series,FIRE,mage,,weapon,\n"), BulkImporter.Format.CSV));
+
+        assertTrue(importer.importAll(handler));
+
+        assertEquals(1, template.getWrites("series"));
+        assertEquals(1, template.getWrites("weapons"));
+        assertEquals(1, template.getWrites("characters"));
+        assertEquals(2, handler.getAllSeries().size());
+        assertEquals(2, handler.getAllCharacters().size());
+
+        GameCharacter chara1 = handler.getAllCharacters().stream().filter(c -> c.getId().equals("10")).findFirst().get();
+        GameCharacter chara2 = handler.getAllCharacters().stream().filter(c -> c.getId().equals("11")).findFirst().get();
+        Weapon weapon = handler.getAllWeapons().get(0);
+        assertEquals("1", chara1.getSeries().getId());
+        assertEquals(CharacterElement.MOON, chara1.getCharacterElement());
+        assertEquals(Arrays.asList(new Skill(SkillType.DAMAGE, null, SkillTarget.ENEMY_SINGLE, 160),
+                new Skill(SkillType.TOTTEOKI, null, SkillTarget.ENEMY_ALL, 3759)), chara1.getSkills());
+        assertEquals(3759, chara1.getSkills().get(1).getPower());
+        assertEquals(1, chara1.getWokeLevel());
+        assertEquals("new series", chara2.getSeries().getName());
+        assertEquals(CreaStatus.INCOMPLETE, chara2.getSeries().getCreaStatus());
+        assertEquals(weapon, chara2.getPreferredWeapon());
+        assertEquals("11", weapon.getExclusiveCharacterId());
+        assertEquals(100, weapon.getOffensiveStat());
+    }
+
+    @Test
+    public void importAll_addsNothing_whenARecordIsInvalid() {
+        assertTrue(importer.readSeries(new StringReader("name\nnew series\n"), BulkImporter.Format.CSV));
+        assertTrue(importer.readCharacters(new StringReader("name,series,element,class,skills\n"
+                + "chara1,new series,FIRE,MAGE,ATK SIDEWAYS ALLY_SELF 10\n"
+                + "chara2,missing series,EARTH,PRIEST,\n"
+                + "chara3,new series,PLASMA,PRIEST,\n"), BulkImporter.Format.CSV));
+
+        assertFalse(importer.importAll(handler));
+
+        assertEquals(3, importer.getErrors().size());
+        assertTrue(importer.getErrors().get(0).startsWith("characters line 2: skill"));
+        assertEquals(0, template.getWrites());
+        assertEquals(1, handler.getAllSeries().size());
+        assertTrue(handler.getAllCharacters().isEmpty());
+    }
+
+    @Test
+    public void readSeries_readsQuotedValuesWithLineBreaks() {
+        assertTrue(importer.readSeries(new StringReader("name,creaStatus\n"
+                + "\"first\n\"\"quoted\"\"\nseries\",incomplete\n"
+                + "second series,nonexistent\n"), BulkImporter.Format.CSV));
+
+        assertEquals(Arrays.asList("first\n\"quoted\"\nseries", "second series"), importer.getSeries().stream()
+                .map(Series::getName)
+                .collect(Collectors.toList()));
+        assertEquals(1, importer.getErrors().size());
+        assertTrue(importer.getErrors().get(0).startsWith("series line 5: "));
+    }
+
+    @Test
+    public void parseCsvLine_readsQuotedValues() {
+        assertEquals(Arrays.asList("a", "b, \"c\"", ""), BulkImporter.parseCsvLine("a,\"b, \"\"c\"\"\","));
+    }
+}
@@ -7,12 +7,13 @@ import domain.model.Weapon;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class CalculatorTest {
-    private Map<Skill, Double> skillPowerTotals;
+    private SkillPowerTable skillPowerTotals;
     private GameCharacter chara1;
     private GameCharacter chara2;
     private GameCharacter chara3;
@@ -29,7 +30,7 @@ class CalculatorTest {
 
     @BeforeEach
     public void setUp() {
-        skillPowerTotals = new HashMap<>();
+        skillPowerTotals = new SkillPowerTable();
         Series series = new Series("series", null);
         chara1 = new GameCharacter.Builder("warrior", series, CharacterElement.EARTH, CharacterClass.WARRIOR)
                 .offensiveStatIs(2938)
@@ -1222,4 +1223,112 @@ class CalculatorTest {
         assertTrue(acceptableResult(227 + 18, defResultAfterChanges));
         assertTrue(acceptableResult(1095 + 89, mdfResultAfterChanges));
      }
-}
\ No newline at end of file
+
+    @Test
+    public void arithmeticFunctions_returnTheSameResultsAsTheBigDecimalVersions() {
+        Random random = new Random(1);
+
+        for (int i = 0; i < 100000; i++) {
+            // Skill powers, stats and multipliers with up to 4 decimals (and some doubles with a lot more decimals)
+            double a = Math.round(random.nextDouble() * 2000000 - 1000000) / 10000.0;
+            double b = Math.round(random.nextDouble() * 100000) / 100.0;
+            double c = random.nextInt(80000);
+            double d = random.nextDouble() * 10;
+
+            assertEquals(Calculator.sumDoublesWithBigDecimals(a, b, c, d), Calculator.sumDoubles(a, b, c, d));
+            assertEquals(Calculator.sumDoublesWithBigDecimals(a, b, c), Calculator.sumDoubles(a, b, c));
+            assertEquals(Calculator.multiplyDoublesWithBigDecimals(a, b, c, d), Calculator.multiplyDoubles(a, b, c, d));
+            assertEquals(Calculator.multiplyDoublesWithBigDecimals(a, b, c), Calculator.multiplyDoubles(a, b, c));
+            assertEquals(Calculator.sumDoublesWithBigDecimals(a, b, c, d, a), Calculator.sum(a, b, c, d, a));
+            assertEquals(Calculator.sumDoublesWithBigDecimals(a, b, c, d), Calculator.sum(a, b, c, d));
+            assertEquals(Calculator.sumDoublesWithBigDecimals(a, b, c), Calculator.sum(a, b, c));
+            assertEquals(Calculator.sumDoublesWithBigDecimals(a, d), Calculator.sum(a, d));
+            assertEquals(Calculator.multiplyDoublesWithBigDecimals(a, b, c), Calculator.multiply(a, b, c));
+            assertEquals(Calculator.multiplyDoublesWithBigDecimals(a, d), Calculator.multiply(a, d));
+            assertEquals(Calculator.divideDoublesWithBigDecimals(a, b), Calculator.divideDoubles(a, b));
+            assertEquals(Calculator.divideDoublesWithBigDecimals(c, a), Calculator.divideDoubles(c, a));
+            assertEquals(Calculator.divideDoublesWithBigDecimals(d, c), Calculator.divideDoubles(d, c));
+            assertEquals(Calculator.negateWithBigDecimal(a), Calculator.negate(a));
+        }
+    }
+
+    @Test
+    public void arithmeticFunctions_roundCorrectly() {
+        assertEquals(0.3, Calculator.sumDoubles(0.1, 0.2));
+        assertEquals(0.0001, Calculator.sumDoubles(0.00005));
+        assertEquals(-0.0001, Calculator.sumDoubles(-0.00005));
+        assertEquals(0.0, Calculator.sumDoubles(0.00004999));
+        assertEquals(0.06, Calculator.multiplyDoubles(0.2, 0.3));
+        assertEquals(0.3, Calculator.sum(0.1, 0.2));
+        assertEquals(0.06, Calculator.multiply(0.2, 0.3));
+        assertEquals(0.0, Calculator.multiply(-0.2, 0));
+        assertEquals(0.6667, Calculator.divideDoubles(2, 3));
+        assertEquals(-0.6667, Calculator.divideDoubles(-2, 3));
+        assertEquals(0.0, Calculator.divideDoubles(1, 0));
+        assertEquals(0.0, Calculator.negate(-0.0));
+    }
+
+    @Test
+    public void damageFunctions_returnTheSameResults_withStatsAndSkillTotals_asWithCharacters() {
+        chara1.setPreferredWeapon(weapon1);
+        chara2.getSkills().add(new Skill(SkillType.MAT, SkillChange.UP, SkillTarget.ALLY_SELF, 30.5));
+        chara3.setPreferredWeapon(weapon2);
+        chara3.getSkills().add(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ALLY_ALL, 20));
+
+        // The results of the damage functions before the enemies were replaced with EnemyProfiles
+        assertEquals(44071, Calculator.calculateMaxDamageCaused(chara1));
+        assertEquals(33664, Calculator.calculateMaxDamageCaused(chara2));
+        assertEquals(352, Calculator.calculateDamageTaken(chara3, SkillType.DEF));
+        assertEquals(747, Calculator.calculateDamageTaken(chara3, SkillType.MDF));
+
+        assertEquals(Calculator.calculateMaxDamageCaused(chara1), Calculator.calculateMaxDamageCaused(
+                CharacterClass.WARRIOR, CharacterElement.EARTH, 2938 + 90, Mapper.getSkillTotalPowers(chara1), 46.95));
+        assertEquals(Calculator.calculateMaxDamageCaused(chara2), Calculator.calculateMaxDamageCaused(
+                CharacterClass.MAGE, CharacterElement.WIND, 2745, Mapper.getSkillTotalPowers(chara2), 37.59));
+        assertEquals(0, Calculator.calculateMaxDamageCaused(CharacterClass.KNIGHT, CharacterElement.WIND, 2745,
+                Mapper.getSkillTotalPowers(chara2), 37.59));
+
+        assertEquals(Calculator.calculateDamageTaken(chara3, SkillType.DEF), Calculator.calculateDamageTaken(
+                CharacterElement.MOON, 5196 + 200, Mapper.getSkillTotalPowers(chara3), SkillType.DEF));
+        assertEquals(Calculator.calculateDamageTaken(chara3, SkillType.MDF), Calculator.calculateDamageTaken(
+                CharacterElement.MOON, 3816 + 200, Mapper.getSkillTotalPowers(chara3), SkillType.MDF));
+        assertEquals(0, Calculator.calculateDamageTaken(CharacterElement.MOON, 5196, Mapper.getSkillTotalPowers(chara3),
+                SkillType.ATK));
+    }
+
+    @Test
+    public void damageFunctions_doNotAllocate_whenTheValuesFitTheFastPath() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        chara1.setPreferredWeapon(weapon1);
+        chara1.getSkills().add(new Skill(SkillType.NEXT_ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 35.5));
+        chara1.getSkills().add(new Skill(SkillType.CRIT_DAMAGE, SkillChange.UP, SkillTarget.ALLY_ALL, 15.25));
+        chara1.getSkills().add(new Skill(SkillType.WEAK_ELEMENT_BONUS, SkillChange.UP, SkillTarget.ALLY_SINGLE, 20));
+        chara1.getSkills().add(new Skill(SkillType.DEF, SkillChange.DOWN, SkillTarget.ENEMY_ALL, 12.5));
+        chara3.getSkills().add(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ALLY_ALL, 20.75));
+        SkillPowerTable chara1SkillTotalPowers = Mapper.getSkillTotalPowers(chara1);
+        SkillPowerTable chara3SkillTotalPowers = Mapper.getSkillTotalPowers(chara3);
+        long damage = 0;
+
+        // Warm up, so that neither class loading nor the first calls are measured
+        for (int i = 0; i < 20000; i++) {
+            damage += Calculator.calculateMaxDamageCaused(CharacterClass.WARRIOR, CharacterElement.EARTH, 3028,
+                    chara1SkillTotalPowers, 46.95);
+            damage += Calculator.calculateDamageTaken(CharacterElement.MOON, 5396, chara3SkillTotalPowers, SkillType.DEF);
+        }
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < 10000; i++) {
+            damage += Calculator.calculateMaxDamageCaused(CharacterClass.WARRIOR, CharacterElement.EARTH, 3028,
+                    chara1SkillTotalPowers, 46.95);
+            damage += Calculator.calculateDamageTaken(CharacterElement.MOON, 5396, chara3SkillTotalPowers, SkillType.DEF);
+        }
+
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // A single varargs array per calculation would already allocate hundreds of kilobytes
+        assertTrue(damage > 0);
+        assertTrue(allocated < 10000, allocated + " bytes were allocated");
+    }
+}
@@ -0,0 +1,90 @@
+package logic;
+
+import domain.CharacterClass;
+import domain.CharacterElement;
+import domain.CreaStatus;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import logic.checks.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharacterAttributesTest {
+    @Test
+    public void getPriorityKey_returnsTheSameKeys_withAndWithoutTheAttributes() {
+        Series completeSeries = new Series("Series 1", CreaStatus.COMPLETE, "1");
+        Series incompleteSeries = new Series("Series 2", CreaStatus.INCOMPLETE, "2");
+        Series seriesWithoutStatus = new Series("Series 3", null, "3");
+        List<GameCharacter> charas = new ArrayList<>();
+
+        for (int i = 0; i < 7; i++) {
+            // The last character has no series at all
+            Series series = i == 6 ? null : i % 3 == 0 ? completeSeries : i % 3 == 1 ? incompleteSeries : seriesWithoutStatus;
+            charas.add(new GameCharacter.Builder("chara" + i, series, CharacterElement.FIRE, CharacterClass.MAGE)
+                    .overwriteID(Integer.toString(i))
+                    .build());
+        }
+
+        GameEvent event = new GameEvent("event");
+        event.setBonusCharacters(new ArrayList<>(Arrays.asList(charas.get(1), charas.get(4))));
+        List<Weapon> weapons = Collections.singletonList(new Weapon.Builder("weapon").overwriteID("1")
+                .isExclusiveTo(charas.get(2)).build());
+        Map<GameCharacter, Weapon> weaponsByChara = Mapper.getWeaponsByExclusiveCharacter(weapons);
+
+        CharacterAttributes attributes = new CharacterAttributes(charas, event, weaponsByChara);
+        List<Check> checks = Arrays.asList(new EventBonusCheck(event), new NoWeaponCheck(weaponsByChara),
+                new CreaCheck(CreaStatus.COMPLETE), new CreaCheck(CreaStatus.INCOMPLETE), new CreaCheck(null));
+
+        assertEquals(7, attributes.size());
+
+        for (Check check : checks) {
+            for (int ordinal = 0; ordinal < attributes.size(); ordinal++) {
+                assertSame(charas.get(ordinal), attributes.getCharacter(ordinal));
+                assertEquals(check.getPriorityKey(charas.get(ordinal)), check.getPriorityKey(attributes, ordinal));
+            }
+        }
+
+        assertTrue(attributes.isEventBonus(4));
+        assertTrue(attributes.hasExclusiveWeapon(2));
+        assertFalse(attributes.hasExclusiveWeapon(3));
+        assertTrue(attributes.hasCreaStatus(5, null));
+        assertTrue(attributes.hasCreaStatus(6, null));
+        assertEquals(0, new CreaCheck(null).compare(charas.get(5), charas.get(6)));
+    }
+
+    @Test
+    public void attributes_areLookedUpOnlyForTheCharactersAskedFor() {
+        Series series = new Series("Series 1", CreaStatus.COMPLETE, "1");
+        List<GameCharacter> charas = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            charas.add(new GameCharacter.Builder("chara" + i, series, CharacterElement.FIRE, CharacterClass.MAGE)
+                    .overwriteID(Integer.toString(i))
+                    .build());
+        }
+
+        List<GameCharacter> askedCharas = new ArrayList<>();
+        GameEvent event = new GameEvent("event") {
+            @Override
+            public boolean isBonusCharacter(GameCharacter character) {
+                askedCharas.add(character);
+
+                return super.isBonusCharacter(character);
+            }
+        };
+        event.setBonusCharacters(new ArrayList<>(Arrays.asList(charas.get(3))));
+
+        CharacterAttributes attributes = new CharacterAttributes(charas, event, new HashMap<>());
+        assertTrue(askedCharas.isEmpty());
+
+        assertTrue(attributes.isEventBonus(3));
+        assertTrue(attributes.isEventBonus(3));
+        assertFalse(attributes.isEventBonus(1));
+        assertEquals(Arrays.asList(charas.get(3), charas.get(1)), askedCharas);
+    }
+}
@@ -0,0 +1,78 @@
+package logic;
+
+import domain.CharacterClass;
+import domain.CharacterElement;
+import domain.CreaStatus;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckPipelineTest {
+    private GameCharacterPriorityComparator createComparator(CheckPipeline pipeline, List<GameCharacter> charas,
+                                                             GameEvent event) {
+        ElementClassIndex charasByElementAndClass = new ElementClassIndex();
+        Map<Series, List<GameCharacter>> charasBySeries = new HashMap<>();
+
+        for (GameCharacter chara : charas) {
+            charasByElementAndClass.add(chara);
+            charasBySeries.computeIfAbsent(chara.getSeries(), s -> new ArrayList<>()).add(chara);
+        }
+
+        return new GameCharacterPriorityComparator(pipeline, charasByElementAndClass, charasBySeries,
+                new HashMap<GameCharacter, Weapon>(), event);
+    }
+
+    @Test
+    public void parse_readsChecksInOrder_andIgnoresCommentsAndEmptyLines() throws IOException {
+        CheckPipeline pipeline = CheckPipeline.parse(new StringReader("# favourites first\n"
+                + "PersonalPreferenceCheck 9\n"
+                + "\n"
+                + "  CreaCheck INCOMPLETE  \n"
+                + "EventBonusCheck\n"));
+
+        assertNotNull(pipeline);
+        assertEquals(3, pipeline.size());
+        assertEquals(Arrays.asList("PersonalPreferenceCheck(9)", "CreaCheck(INCOMPLETE)", "EventBonusCheck"),
+                createComparator(pipeline, new ArrayList<>(), new GameEvent("event")).getCheckNames());
+    }
+
+    @Test
+    public void parse_returnsNull_whenARuleIsInvalid() throws IOException {
+        assertNull(CheckPipeline.parse(new StringReader("EventBonusCheck\nUnknownCheck\n")));
+        assertNull(CheckPipeline.parse(new StringReader("PersonalPreferenceCheck\n")));
+        assertNull(CheckPipeline.parse(new StringReader("CreaCheck HALF\n")));
+        assertNull(CheckPipeline.parse(new StringReader("NoWeaponCheck 1\n")));
+        assertNull(CheckPipeline.parse(new StringReader("# no checks\n")));
+    }
+
+    @Test
+    public void sort_usesTheOrderOfThePipeline() throws IOException {
+        Series series = new Series("series", CreaStatus.INCOMPLETE, "1");
+        GameCharacter eventChara = new GameCharacter.Builder("chara1", series, CharacterElement.FIRE, CharacterClass.MAGE)
+                .overwriteID("1")
+                .personalPreferenceIs(1)
+                .build();
+        GameCharacter favouriteChara = new GameCharacter.Builder("chara2", series, CharacterElement.WIND, CharacterClass.MAGE)
+                .overwriteID("2")
+                .personalPreferenceIs(10)
+                .build();
+        List<GameCharacter> charas = new ArrayList<>(Arrays.asList(eventChara, favouriteChara));
+        GameEvent event = new GameEvent("event");
+        event.addBonusCharacter(eventChara);
+
+        createComparator(CheckPipeline.DEFAULT, charas, event).sort(charas);
+        assertEquals(Arrays.asList(eventChara, favouriteChara), charas);
+
+        CheckPipeline favouritesFirst = CheckPipeline.parse(new StringReader("PersonalPreferenceCheck 9\nEventBonusCheck\n"));
+        createComparator(favouritesFirst, charas, event).sort(charas);
+        assertEquals(Arrays.asList(favouriteChara, eventChara), charas);
+    }
+}
@@ -0,0 +1,95 @@
+package logic;
+
+import io.jsondb.JsonDBTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+* JsonDBTemplate which counts how many times each json file is written (batch operations may call the single object
+* ones internally, so only the outermost operation is counted) and which can be made to fail the next write into a
+* json file (e.g. to simulate a crash in the middle of writing a transaction).
+*/
+class CountingJsonDBTemplate extends JsonDBTemplate {
+    private final Map<String, Integer> writes;
+    private String failingCollectionName;
+    private boolean writing;
+
+    CountingJsonDBTemplate(String dbFilesLocation, String modelPackage) {
+        super(dbFilesLocation, modelPackage);
+        writes = new HashMap<>();
+    }
+
+    int getWrites() {
+        return writes.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    int getWrites(String collectionName) {
+        return writes.getOrDefault(collectionName, 0);
+    }
+
+    void resetWrites() {
+        writes.clear();
+    }
+
+    void failNextWrite(String collectionName) {
+        failingCollectionName = collectionName;
+    }
+
+    private <R> R write(String collectionName, Supplier<R> operation) {
+        if (writing) {
+            return operation.get();
+        }
+
+        if (collectionName.equals(failingCollectionName)) {
+            failingCollectionName = null;
+            throw new IllegalStateException("Failed to write " + collectionName);
+        }
+
+        writes.merge(collectionName, 1, Integer::sum);
+        writing = true;
+
+        try {
+            return operation.get();
+        } finally {
+            writing = false;
+        }
+    }
+
+    @Override
+    public <T> void insert(Object objectToSave, String collectionName) {
+        write(collectionName, () -> {
+            super.insert(objectToSave, collectionName);
+            return null;
+        });
+    }
+
+    @Override
+    public <T> void save(Object objectToSave, String collectionName) {
+        write(collectionName, () -> {
+            super.save(objectToSave, collectionName);
+            return null;
+        });
+    }
+
+    @Override
+    public <T> T remove(Object objectToRemove, String collectionName) {
+        return write(collectionName, () -> super.remove(objectToRemove, collectionName));
+    }
+
+    @Override
+    public <T> void upsert(Collection<? extends T> batchToSave, String collectionName) {
+        write(collectionName, () -> {
+            super.upsert(batchToSave, collectionName);
+            return null;
+        });
+    }
+
+    @Override
+    public <T> List<T> remove(Collection<? extends T> batchToRemove, String collectionName) {
+        return write(collectionName, () -> super.remove(batchToRemove, collectionName));
+    }
+}
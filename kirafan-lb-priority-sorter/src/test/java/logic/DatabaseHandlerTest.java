@@ -0,0 +1,275 @@
+package logic;
+
+import domain.CharacterClass;
+import domain.CharacterElement;
+import domain.CreaStatus;
+import domain.IdGenerator;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import io.jsondb.JsonDBTemplate;
+import io.jsondb.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NOTE: Like DatabaseTest, these tests might not work if the folder src/test/resources doesn't exist.
+
+class DatabaseHandlerTest {
+    private static final String dbFilesLocation = "src/test/resources/database handler test files";
+    private static final String modelPackage = "domain.model";
+
+    private File dbFilesFolder;
+    private File journalFile;
+    private CountingJsonDBTemplate template;
+    private DatabaseHandler handler;
+    private Series series1;
+    private Series series2;
+    private GameCharacter chara6;
+
+    public DatabaseHandlerTest() {
+        dbFilesFolder = new File(dbFilesLocation);
+        journalFile = new File(dbFilesFolder, "transactions.journal");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // Files left behind by an interrupted test run are removed first
+        Util.delete(dbFilesFolder);
+        dbFilesFolder.mkdirs();
+
+        template = new CountingJsonDBTemplate(dbFilesLocation, modelPackage);
+        handler = createHandler();
+        handler.initializeCollections();
+        handler.initializeEvent();
+
+        series1 = new Series("series1", CreaStatus.NONE, "1");
+        series2 = new Series("series2", CreaStatus.NONE, "2");
+        handler.addNewSeries(series1);
+        handler.addNewSeries(series2);
+        handler.addEventSeries(series1);
+
+        Weapon weapon1 = null;
+
+        // Characters 1-5 belong to series1 and each has an exclusive weapon
+        for (int i = 1; i <= 5; i++) {
+            GameCharacter chara = new GameCharacter.Builder("chara" + i, series1, CharacterElement.FIRE, CharacterClass.MAGE)
+                    .overwriteID(Integer.toString(i))
+                    .build();
+            Weapon weapon = new Weapon.Builder("weapon" + i)
+                    .overwriteID(Integer.toString(i))
+                    .isExclusiveTo(chara)
+                    .build();
+            handler.addNewCharacter(chara);
+            handler.addNewWeapon(weapon);
+
+            if (i == 1) {
+                handler.addEventCharacter(chara);
+                weapon1 = weapon;
+            }
+        }
+
+        // Character 6 belongs to series2 and prefers the exclusive weapon of character 1
+        chara6 = new GameCharacter.Builder("chara6", series2, CharacterElement.WATER, CharacterClass.KNIGHT)
+                .overwriteID("6")
+                .prefersWeapon(weapon1)
+                .build();
+        handler.addNewCharacter(chara6);
+
+        template.resetWrites();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Util.delete(dbFilesFolder);
+    }
+
+    private DatabaseHandler createHandler() {
+        return new DatabaseHandler(new Database<>(template, "characters"), new Database<>(template, "events"),
+                new Database<>(template, "series"), new Database<>(template, "weapons"));
+    }
+
+    private <T> List<String> readIdsFromJson(String collectionName) {
+        // A new template reads the json file again, so it only sees the changes which have been written
+        List<T> objects = new JsonDBTemplate(dbFilesLocation, modelPackage).findAll(collectionName);
+
+        return objects.stream()
+                .map(Database::getId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private void assertSeries1IsDeleted(DatabaseHandler handler) {
+        assertEquals(Arrays.asList("2"), readIdsFromJson("series"));
+        assertEquals(Arrays.asList("6"), readIdsFromJson("characters"));
+        assertTrue(readIdsFromJson("weapons").isEmpty());
+        assertNull(handler.getAllCharacters().get(0).getPreferredWeapon());
+
+        GameEvent event = handler.getEvent();
+        assertTrue(event.getAvailableSeriesIds().isEmpty());
+        assertTrue(event.getBonusCharacterIds().isEmpty());
+    }
+
+    @Test
+    public void deleteSeries_writesEveryJsonFileOnlyOnceOrTwice() {
+        assertTrue(handler.deleteSeries(series1));
+
+        assertEquals(1, template.getWrites("series"));
+        assertEquals(2, template.getWrites("characters")); // Characters 1-5 are removed and character 6 is updated
+        assertEquals(1, template.getWrites("weapons"));
+        assertEquals(1, template.getWrites("events"));
+        assertSeries1IsDeleted(handler);
+    }
+
+    @Test
+    public void deleteSeries_isWrittenCompletelyOnTheNextStart_whenWritingIsInterrupted() {
+        handler.setTransactionJournal(new TransactionJournal(journalFile));
+
+        // The characters and the event are written before the series, which fails like in a crash
+        template.failNextWrite("series");
+        assertFalse(handler.deleteSeries(series1));
+        assertTrue(journalFile.exists());
+        assertEquals(Arrays.asList("1", "2"), readIdsFromJson("series"));
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5"), readIdsFromJson("weapons"));
+
+        DatabaseHandler restartedHandler = createHandler();
+        restartedHandler.setTransactionJournal(new TransactionJournal(journalFile));
+        restartedHandler.initializeCollections();
+        restartedHandler.initializeEvent();
+
+        assertFalse(journalFile.exists());
+        assertSeries1IsDeleted(restartedHandler);
+    }
+
+    @Test
+    public void addAll_writesNothing_whenAnInsertFails() {
+        Series series3 = new Series("series3", CreaStatus.NONE, "3");
+        List<GameCharacter> charas = Arrays.asList(
+                new GameCharacter.Builder("chara7", series3, CharacterElement.WIND, CharacterClass.PRIEST)
+                        .overwriteID("7").build(),
+                new GameCharacter.Builder("chara8", series3, CharacterElement.WIND, CharacterClass.PRIEST)
+                        .overwriteID("8").build(),
+                // The third character can not be inserted, since its id already exists
+                new GameCharacter.Builder("chara1 again", series3, CharacterElement.WIND, CharacterClass.PRIEST)
+                        .overwriteID("1").build(),
+                new GameCharacter.Builder("chara9", series3, CharacterElement.WIND, CharacterClass.PRIEST)
+                        .overwriteID("9").build());
+        List<Weapon> weapons = Arrays.asList(new Weapon.Builder("weapon7").overwriteID("7").build());
+
+        WriteBehindQueue queue = new WriteBehindQueue(WriteBehindQueue.Durability.WRITE_BEHIND, 60 * 60 * 1000);
+        DatabaseHandler writeBehindHandler = new DatabaseHandler(queue.createDatabase(template, "characters"),
+                queue.createDatabase(template, "events"), queue.createDatabase(template, "series"),
+                queue.createDatabase(template, "weapons"));
+
+        try {
+            for (DatabaseHandler h : Arrays.asList(handler, writeBehindHandler)) {
+                assertFalse(h.addAll(Arrays.asList(series3), charas, weapons));
+                assertTrue(queue.flush());
+
+                assertEquals(0, template.getWrites());
+                assertEquals(Arrays.asList("1", "2"), readIdsFromJson("series"));
+                assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6"), readIdsFromJson("characters"));
+                assertEquals(Arrays.asList("1", "2", "3", "4", "5"), readIdsFromJson("weapons"));
+                assertEquals(2, h.getAllSeries().size());
+                assertEquals(6, h.getAllCharacters().size());
+            }
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    public void migrateIds_givesNewIdsAndRewritesReferences_whenIdsHaveBeenCreatedByAnOlderVersion() {
+        assertTrue(handler.migrateIds());
+
+        List<String> characterIds = readIdsFromJson("characters");
+        assertEquals(6, characterIds.size());
+        assertTrue(characterIds.stream().allMatch(IdGenerator::isGeneratedId));
+        assertTrue(readIdsFromJson("series").stream().allMatch(IdGenerator::isGeneratedId));
+        assertTrue(readIdsFromJson("weapons").stream().allMatch(IdGenerator::isGeneratedId));
+
+        GameCharacter migratedChara1 = findCharacter("chara1");
+        GameCharacter migratedChara6 = findCharacter("chara6");
+        Weapon migratedWeapon1 = handler.getAllWeapons().stream()
+                .filter(w -> w.getName().equals("weapon1"))
+                .findFirst().get();
+        assertEquals(migratedChara1.getId(), migratedWeapon1.getExclusiveCharacterId());
+        assertEquals(migratedWeapon1.getId(), migratedChara6.getPreferredWeapon().getId());
+        assertEquals(migratedChara1.getId(), migratedChara6.getPreferredWeapon().getExclusiveCharacterId());
+        assertEquals(migratedChara1.getSeries().getId(), handler.getEventSeries().get(0).getId());
+        assertEquals(Arrays.asList(migratedChara1), handler.getEventCharacters());
+
+        // Ids which already have the new format are kept
+        template.resetWrites();
+        assertTrue(handler.migrateIds());
+        assertEquals(characterIds, readIdsFromJson("characters"));
+    }
+
+    @Test
+    public void migrateIds_writesNothing_whenMigratingFailsWithWriteBehind() {
+        WriteBehindQueue queue = new WriteBehindQueue(WriteBehindQueue.Durability.WRITE_BEHIND, 60 * 60 * 1000);
+        Database<GameEvent> eventDatabase = queue.createDatabase(template, "events");
+        DatabaseHandler writeBehindHandler = new DatabaseHandler(queue.createDatabase(template, "characters"),
+                eventDatabase, queue.createDatabase(template, "series"), queue.createDatabase(template, "weapons"));
+        writeBehindHandler.initializeEvent();
+
+        try {
+            // The event can not be updated after it has been removed, so the migration fails at the end
+            assertTrue(eventDatabase.remove(writeBehindHandler.getEvent()));
+            assertFalse(writeBehindHandler.migrateIds());
+            assertTrue(queue.flush());
+
+            assertEquals(0, template.getWrites("characters"));
+            assertEquals(0, template.getWrites("series"));
+            assertEquals(0, template.getWrites("weapons"));
+            assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6"), readIdsFromJson("characters"));
+            assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6"), writeBehindHandler.getAllCharacters().stream()
+                    .map(GameCharacter::getId)
+                    .sorted()
+                    .collect(Collectors.toList()));
+        } finally {
+            queue.close();
+        }
+    }
+
+    @Test
+    public void migrateIds_isTriedAgainOnTheNextStart_whenMigratingFails() {
+        File snapshotFile = new File(dbFilesFolder, Snapshot.FILE_NAME);
+        Database<GameEvent> eventDatabase = new Database<>(template, "events");
+        DatabaseHandler failingHandler = new DatabaseHandler(new Database<>(template, "characters"), eventDatabase,
+                new Database<>(template, "series"), new Database<>(template, "weapons"));
+        failingHandler.initializeEvent();
+
+        // The event can not be updated after it has been removed, so the migration fails at the end
+        assertTrue(eventDatabase.remove(failingHandler.getEvent()));
+        assertFalse(failingHandler.migrateIds());
+
+        // Stopping the program writes no snapshot, so the next start reads the json files instead of a snapshot
+        assertFalse(failingHandler.writeSnapshot(snapshotFile, dbFilesFolder));
+        assertNull(Snapshot.open(snapshotFile, dbFilesFolder));
+
+        template = new CountingJsonDBTemplate(dbFilesLocation, modelPackage);
+        DatabaseHandler restartedHandler = createHandler();
+        restartedHandler.initializeCollections();
+        restartedHandler.initializeEvent();
+
+        assertTrue(restartedHandler.migrateIds());
+        assertTrue(readIdsFromJson("characters").stream().allMatch(IdGenerator::isGeneratedId));
+        assertTrue(restartedHandler.writeSnapshot(snapshotFile, dbFilesFolder));
+        assertNotNull(Snapshot.open(snapshotFile, dbFilesFolder));
+    }
+
+    private GameCharacter findCharacter(String name) {
+        return handler.getAllCharacters().stream()
+                .filter(c -> c.getName().equals(name))
+                .findFirst().get();
+    }
+}
@@ -0,0 +1,68 @@
+package logic;
+
+import domain.CharacterClass;
+import domain.CharacterElement;
+import domain.CreaStatus;
+import domain.model.GameCharacter;
+import domain.model.Series;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElementClassIndexTest {
+    private Series series = new Series("series", CreaStatus.NONE, "1");
+
+    @Test
+    public void getSlot_givesEveryElementClassCombinationItsOwnSlot() {
+        boolean[] usedSlots = new boolean[ElementClassIndex.SLOTS];
+
+        for (CharacterElement element : CharacterElement.values()) {
+            for (CharacterClass characterClass : CharacterClass.values()) {
+                int slot = ElementClassIndex.getSlot(element, characterClass);
+                assertFalse(usedSlots[slot]);
+                usedSlots[slot] = true;
+            }
+        }
+
+        assertEquals(-1, ElementClassIndex.getSlot(null, CharacterClass.MAGE));
+        assertEquals(-1, ElementClassIndex.getSlot(CharacterElement.FIRE, null));
+    }
+
+    @Test
+    public void addAndRemove_keepGroupsAndLimitBrokenFlagsUpToDate() {
+        GameCharacter chara1 = new GameCharacter.Builder("chara1", series, CharacterElement.FIRE, CharacterClass.MAGE)
+                .overwriteID("1")
+                .limitBroken(true)
+                .build();
+        GameCharacter chara2 = new GameCharacter.Builder("chara2", series, CharacterElement.FIRE, CharacterClass.MAGE)
+                .overwriteID("2")
+                .build();
+        ElementClassIndex index = new ElementClassIndex();
+        index.add(chara1);
+        index.add(chara2);
+
+        assertEquals(1, index.size());
+        assertEquals(Arrays.asList(chara1, chara2), index.get(CharacterElement.FIRE, CharacterClass.MAGE));
+        assertTrue(index.get(CharacterElement.FIRE, CharacterClass.KNIGHT).isEmpty());
+        assertTrue(index.hasLimitBrokenCharacterOtherThan(chara2));
+        assertFalse(index.hasLimitBrokenCharacterOtherThan(chara1));
+
+        // Like PriorityRanker, the edited character is removed from its old slot and added back
+        int oldSlot = ElementClassIndex.getSlot(chara1);
+        chara1.setLimitBroken(false);
+        chara1.setCharacterElement(CharacterElement.SUN);
+        index.remove(oldSlot, chara1);
+        index.add(chara1);
+
+        assertEquals(2, index.size());
+        assertEquals(Arrays.asList(chara2), index.get(CharacterElement.FIRE, CharacterClass.MAGE));
+        assertEquals(Arrays.asList(chara1), index.get(CharacterElement.SUN, CharacterClass.MAGE));
+        assertFalse(index.hasLimitBrokenCharacterOtherThan(chara2));
+
+        index.remove(ElementClassIndex.getSlot(chara2), chara2);
+        index.remove(ElementClassIndex.getSlot(chara1), chara1);
+        assertTrue(index.isEmpty());
+    }
+}
@@ -5,6 +5,9 @@ import domain.model.GameCharacter;
 import domain.model.GameEvent;
 import domain.model.Series;
 import domain.model.Weapon;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
@@ -31,20 +34,10 @@ class GameCharacterPriorityComparatorTest {
         List<GameCharacter> nonLimitBrokenCharas = new ArrayList<>(Arrays.asList(chara1, chara2, chara3));
 //        List<GameCharacter> allCharas = new ArrayList<>(Arrays.asList(chara1, chara2, chara3));
 //        List<Weapon> weapons = new ArrayList<>();
-        Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> charasByElementAndClass
-                = new HashMap<>();
-
-        charasByElementAndClass.put(
-                new AbstractMap.SimpleEntry<>(CharacterElement.FIRE, CharacterClass.ALCHEMIST),
-                new ArrayList<>(Collections.singletonList(chara1)));
-
-        charasByElementAndClass.put(
-                new AbstractMap.SimpleEntry<>(CharacterElement.WIND, CharacterClass.PRIEST),
-                new ArrayList<>(Collections.singletonList(chara2)));
-
-        charasByElementAndClass.put(
-                new AbstractMap.SimpleEntry<>(CharacterElement.EARTH, CharacterClass.PRIEST),
-                new ArrayList<>(Collections.singletonList(chara3)));
+        ElementClassIndex charasByElementAndClass = new ElementClassIndex();
+        charasByElementAndClass.add(chara1);
+        charasByElementAndClass.add(chara2);
+        charasByElementAndClass.add(chara3);
 
         Map<Series, List<GameCharacter>> charasBySeries = new HashMap<>();
         charasBySeries.put(series1, new ArrayList<>(Arrays.asList(chara1, chara2, chara3)));
@@ -79,8 +72,8 @@ class GameCharacterPriorityComparatorTest {
         ///
         // TESTING THE FIRST PersonalPreferenceCheck (>=9)
         //
-        event.getBonusCharacters().add(chara3);
-        event.getBonusCharacters().add(chara1);
+        event.addBonusCharacter(chara3);
+        event.addBonusCharacter(chara1);
         chara3.setPersonalPreference(10);
         chara1.setPersonalPreference(9);
         Collections.sort(nonLimitBrokenCharas, comparator);
@@ -104,11 +97,9 @@ class GameCharacterPriorityComparatorTest {
                 .limitBroken(true)
                 .build();
 
-        charasByElementAndClass.get(new AbstractMap.SimpleEntry<>(chara2.getCharacterElement(), chara2.getCharacterClass()))
-                .add(chara4);
+        charasByElementAndClass.add(chara4);
 
-        charasByElementAndClass.get(new AbstractMap.SimpleEntry<>(chara3.getCharacterElement(), chara3.getCharacterClass()))
-                .add(chara5);
+        charasByElementAndClass.add(chara5);
 
         charasBySeries.get(series1).addAll(new ArrayList<>(Arrays.asList(chara4, chara5)));
         chara1.setPersonalPreference(10);
@@ -130,8 +121,7 @@ class GameCharacterPriorityComparatorTest {
                 .limitBroken(true)
                 .build();
 
-        charasByElementAndClass.get(new AbstractMap.SimpleEntry<>(chara1.getCharacterElement(), chara1.getCharacterClass()))
-                .add(chara6);
+        charasByElementAndClass.add(chara6);
 
         charasBySeries.get(series1).add(chara6);
 
@@ -286,4 +276,180 @@ class GameCharacterPriorityComparatorTest {
         assertEquals(chara3, nonLimitBrokenCharas.get(1));
         assertEquals(chara1, nonLimitBrokenCharas.get(2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sort_ordersCharacters_theSameWayAsCollectionsSort() {
+        Series series1 = new Series("Series 1", CreaStatus.INCOMPLETE, "1");
+        Series series2 = new Series("Series 2", CreaStatus.COMPLETE, "2");
+        Series series3 = new Series("Series 3", CreaStatus.NONE, "3");
+        Series[] series = {series1, series2, series3};
+        CharacterElement[] elements = CharacterElement.values();
+        CharacterClass[] classes = CharacterClass.values();
+        List<GameCharacter> allCharas = new ArrayList<>();
+
+        for (int i = 0; i < 60; i++) {
+            GameCharacter chara = new GameCharacter.Builder("chara" + i, series[i % 3], elements[(i / 3) % 6], classes[i % 5])
+                    .overwriteID(Integer.toString(i))
+                    .limitBroken(i % 7 == 0)
+                    .personalPreferenceIs(i % 11)
+                    .wokeLevelIs(i % 4)
+                    .defenseIs(3000 + i)
+                    .magicDefenseIs(3000 - i)
+                    .offensiveStatIs(2500 + (i % 9) * 10)
+                    .withSkill(new Skill(SkillType.TOTTEOKI, null, SkillTarget.ENEMY_SINGLE, 3000 + (i % 5) * 100))
+                    .withSkill(new Skill(SkillType.DEF, SkillChange.DOWN, SkillTarget.ENEMY_ALL, i % 3 * 10))
+                    .build();
+
+            allCharas.add(chara);
+        }
+
+        GameEvent event = new GameEvent("event");
+        event.setBonusCharacters(new ArrayList<>(Arrays.asList(allCharas.get(5), allCharas.get(17), allCharas.get(42))));
+
+        List<Weapon> weapons = new ArrayList<>(Arrays.asList(
+                new Weapon.Builder("weapon1").overwriteID("1").isExclusiveTo(allCharas.get(3)).build(),
+                new Weapon.Builder("weapon2").overwriteID("2").isExclusiveTo(allCharas.get(10)).build()
+        ));
+
+        GameCharacterPriorityComparator comparator = new GameCharacterPriorityComparator(
+                Mapper.getCharactersByElementAndClass(allCharas), Mapper.getCharactersBySeries(allCharas),
+                Mapper.getWeaponsByExclusiveCharacter(weapons), event);
+
+        List<GameCharacter> expected = new ArrayList<>(allCharas);
+        expected.add(null);
+        Collections.sort(expected, comparator);
+
+        List<GameCharacter> actual = new ArrayList<>(allCharas);
+        actual.add(null);
+        comparator.sort(actual);
+
+        assertEquals(expected, actual);
+        assertNull(actual.get(actual.size() - 1));
+    }
+
+    @Test
+    public void enableMetrics_countsInvocationsAndDecisionsOfEveryCheck() {
+        Series series1 = new Series("Series 1", CreaStatus.NONE, "1");
+        GameCharacter chara1 = new GameCharacter.Builder("chara1", series1, CharacterElement.FIRE, CharacterClass.MAGE)
+                .overwriteID("1")
+                .build();
+        GameCharacter chara2 = new GameCharacter.Builder("chara2", series1, CharacterElement.FIRE, CharacterClass.MAGE)
+                .overwriteID("2")
+                .personalPreferenceIs(9)
+                .build();
+        GameCharacter chara3 = new GameCharacter.Builder("chara3", series1, CharacterElement.FIRE, CharacterClass.MAGE)
+                .overwriteID("3")
+                .build();
+        List<GameCharacter> allCharas = new ArrayList<>(Arrays.asList(chara1, chara2, chara3));
+        GameEvent event = new GameEvent("event");
+        event.addBonusCharacter(chara3);
+
+        GameCharacterPriorityComparator comparator = new GameCharacterPriorityComparator(
+                Mapper.getCharactersByElementAndClass(allCharas), Mapper.getCharactersBySeries(allCharas),
+                new HashMap<>(), event);
+        SortMetrics metrics = comparator.enableMetrics(false);
+
+        comparator.sort(allCharas);
+
+        assertEquals(Arrays.asList(chara3, chara2, chara1), allCharas);
+        assertEquals(1, metrics.getSorts());
+        assertEquals("EventBonusCheck", metrics.getCheckNames().get(0));
+        assertEquals("PersonalPreferenceCheck(9)", metrics.getCheckNames().get(1));
+
+        for (int i = 0; i < metrics.getCheckNames().size(); i++) {
+            assertEquals(3, metrics.getInvocations(i)); // One priority key per character
+        }
+
+        // Every comparison of the sort was decided by the event bonus or the first personal preference check
+        long comparisons = metrics.getTies();
+
+        for (int i = 0; i < metrics.getCheckNames().size(); i++) {
+            comparisons += metrics.getDecisions(i);
+        }
+
+        assertTrue(metrics.getDecisions(0) > 0);
+        assertTrue(metrics.getDecisions(1) > 0);
+        assertEquals(comparisons, metrics.getDecisions(0) + metrics.getDecisions(1));
+
+        metrics.reset();
+        assertEquals(-1, comparator.compare(chara3, chara1));
+        assertEquals(1, metrics.getInvocations(0));
+        assertEquals(1, metrics.getDecisions(0));
+        assertEquals(0, metrics.getInvocations(1));
+    }
+
+    @Test
+    public void sortByTiers_ordersCharacters_theSameWayAsSort_withoutRunningEveryCheckForEveryCharacter() {
+        CreaStatus[] creaStatuses = CreaStatus.values();
+        CharacterElement[] elements = CharacterElement.values();
+        CharacterClass[] classes = CharacterClass.values();
+        List<GameCharacter> allCharas = new ArrayList<>();
+
+        for (int i = 0; i < 120; i++) {
+            Series series = new Series("Series " + i % 6, creaStatuses[i % 6 % creaStatuses.length], Integer.toString(i % 6));
+            allCharas.add(new GameCharacter.Builder("chara" + i, series, elements[(i / 5) % 6], classes[i % 5])
+                    .overwriteID(Integer.toString(i))
+                    .personalPreferenceIs(i % 11)
+                    .wokeLevelIs(i % 4)
+                    .withSkill(new Skill(SkillType.DEF, SkillChange.DOWN, SkillTarget.ENEMY_ALL, i % 3 * 10))
+                    .build());
+        }
+
+        GameEvent event = new GameEvent("event");
+        event.setBonusCharacters(new ArrayList<>(Arrays.asList(allCharas.get(5), allCharas.get(17))));
+
+        GameCharacterPriorityComparator comparator = new GameCharacterPriorityComparator(
+                Mapper.getCharactersByElementAndClass(allCharas), Mapper.getCharactersBySeries(allCharas),
+                new HashMap<>(), event);
+        allCharas.add(60, null);
+
+        List<GameCharacter> expected = new ArrayList<>(allCharas);
+        comparator.sort(expected);
+
+        SortMetrics metrics = comparator.enableMetrics(false);
+        List<GameCharacter> actual = new ArrayList<>(allCharas);
+        comparator.sortByTiers(actual);
+
+        assertEquals(expected, actual);
+        assertNull(actual.get(actual.size() - 1));
+        assertEquals(120, metrics.getInvocations(0));
+
+        // Every check after the first one is run only for the characters which are still tied
+        long invocations = 0;
+
+        for (int i = 1; i < metrics.getCheckNames().size(); i++) {
+            assertTrue(metrics.getInvocations(i) <= 120);
+            invocations += metrics.getInvocations(i);
+        }
+
+        assertTrue(invocations < 120 * (metrics.getCheckNames().size() - 1));
+        assertTrue(metrics.getInvocations(metrics.getCheckNames().size() - 1) < 120);
+    }
+
+    @Test
+    public void sortByTiers_changesAnObservableListOnlyOnce() {
+        Series series = new Series("Series 1", CreaStatus.INCOMPLETE, "1");
+        List<GameCharacter> allCharas = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            allCharas.add(new GameCharacter.Builder("chara" + i, series, CharacterElement.FIRE, CharacterClass.MAGE)
+                    .overwriteID(Integer.toString(i))
+                    .personalPreferenceIs(i)
+                    .build());
+        }
+
+        GameCharacterPriorityComparator comparator = new GameCharacterPriorityComparator(
+                Mapper.getCharactersByElementAndClass(allCharas), Mapper.getCharactersBySeries(allCharas),
+                new HashMap<>(), new GameEvent("event"));
+        ObservableList<GameCharacter> charas = FXCollections.observableArrayList(allCharas);
+        int[] changes = new int[1];
+        charas.addListener((ListChangeListener<GameCharacter>) change -> changes[0]++);
+
+        comparator.sortByTiers(charas);
+
+        List<GameCharacter> expected = new ArrayList<>(allCharas);
+        comparator.sort(expected);
+        assertEquals(expected, charas);
+        assertEquals(1, changes[0]);
+    }
+}
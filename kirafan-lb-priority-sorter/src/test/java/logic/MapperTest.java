@@ -50,12 +50,11 @@ class MapperTest {
 
     @Test
     public void getCharactersByElementAndClass_mapsCharactersCorrectly() {
-        Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> map =
-                Mapper.getCharactersByElementAndClass(charaList);
+        ElementClassIndex map = Mapper.getCharactersByElementAndClass(charaList);
 
-        List<GameCharacter> sunAlchemists = map.get(new AbstractMap.SimpleEntry<>(CharacterElement.SUN, CharacterClass.ALCHEMIST));
-        List<GameCharacter> sunWarriors = map.get(new AbstractMap.SimpleEntry<>(CharacterElement.SUN, CharacterClass.WARRIOR));
-        List<GameCharacter> moonAlchemists = map.get(new AbstractMap.SimpleEntry<>(CharacterElement.MOON, CharacterClass.ALCHEMIST));
+        List<GameCharacter> sunAlchemists = map.get(CharacterElement.SUN, CharacterClass.ALCHEMIST);
+        List<GameCharacter> sunWarriors = map.get(CharacterElement.SUN, CharacterClass.WARRIOR);
+        List<GameCharacter> moonAlchemists = map.get(CharacterElement.MOON, CharacterClass.ALCHEMIST);
 
         assertEquals(3, map.size());
         assertEquals(2, sunAlchemists.size());
@@ -192,13 +191,13 @@ class MapperTest {
         skills.add(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ENEMY_SINGLE, 10.33));
         skills.add(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ENEMY_SINGLE, 10.333));
         chara1.setSkills(skills);
-        Map<Skill, Double> map = Mapper.getSkillTotalPowers(chara1);
+        SkillPowerTable map = Mapper.getSkillTotalPowers(chara1);
 
         assertEquals(16.0, map.get(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ALLY_SINGLE, 0)));
         assertEquals(30.49, map.get(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ALLY_ALL, 0)));
         assertEquals(10.108, map.get(new Skill(SkillType.DEF, SkillChange.DOWN, SkillTarget.ALLY_ALL, 0)));
         assertEquals(20.663, map.get(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ENEMY_SINGLE, 0)));
-        assertEquals(null, map.get(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ALLY_SELF, 0)));
+        assertEquals(0.0, map.get(new Skill(SkillType.DEF, SkillChange.UP, SkillTarget.ALLY_SELF, 0)));
     }
 
     @Test
@@ -213,10 +212,38 @@ class MapperTest {
         skills.add(new Skill(SkillType.NEXT_MAT, SkillChange.DOWN, SkillTarget.ALLY_SELF, 11.556));
         skills.add(new Skill(SkillType.NEXT_MAT, SkillChange.DOWN, SkillTarget.ALLY_SELF, 11.554));
         chara2.setSkills(skills);
-        Map<Skill, Double> map = Mapper.getSkillTotalPowers(chara2);
+        SkillPowerTable map = Mapper.getSkillTotalPowers(chara2);
 
         assertEquals(10.202, map.get(new Skill(SkillType.NEXT_ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 0)));
         assertEquals(10.3, map.get(new Skill(SkillType.NEXT_ATK, SkillChange.UP, SkillTarget.ALLY_ALL, 0)));
         assertEquals(11.556, map.get(new Skill(SkillType.NEXT_MAT, SkillChange.DOWN, SkillTarget.ALLY_SELF, 0)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getCharacterTotalSkillPowers_returnsCachedTotals_untilSkillsOrPreferredWeaponChange() {
+        Skill atkUp = new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 0);
+        chara1.setSkills(new ArrayList<>(Arrays.asList(new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 10.0))));
+        SkillPowerTable map = Mapper.getSkillTotalPowers(chara1);
+
+        assertSame(map, Mapper.getSkillTotalPowers(chara1));
+        assertEquals(10.0, map.get(atkUp));
+
+        chara1.getSkills().add(new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 5.0));
+        map = Mapper.getSkillTotalPowers(chara1);
+        assertEquals(15.0, map.get(atkUp));
+
+        Weapon weapon = new Weapon.Builder("weapon")
+                .withSkills(new ArrayList<>(Arrays.asList(new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 20.0))))
+                .build();
+        chara1.setPreferredWeapon(weapon);
+        map = Mapper.getSkillTotalPowers(chara1);
+        assertEquals(35.0, map.get(atkUp));
+
+        weapon.setSkills(new ArrayList<>());
+        map = Mapper.getSkillTotalPowers(chara1);
+        assertEquals(15.0, map.get(atkUp));
+
+        Mapper.invalidateSkillTotalPowers(chara1);
+        assertNotSame(map, Mapper.getSkillTotalPowers(chara1));
+    }
+}
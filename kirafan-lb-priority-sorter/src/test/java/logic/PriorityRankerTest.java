@@ -0,0 +1,173 @@
+package logic;
+
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityRankerTest {
+    private List<GameCharacter> allCharas;
+    private List<GameCharacter> nonLimitBrokenCharas;
+    private List<Weapon> weapons;
+    private GameEvent event;
+    private PriorityRanker ranker;
+
+    @BeforeEach
+    public void setUp() {
+        CharacterElement[] elements = CharacterElement.values();
+        CharacterClass[] classes = CharacterClass.values();
+        CreaStatus[] creaStatuses = CreaStatus.values();
+        allCharas = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            Series series = new Series("Series " + i % 10, creaStatuses[i % 10 % creaStatuses.length], Integer.toString(i % 10));
+            GameCharacter chara = new GameCharacter.Builder("chara" + i, series, elements[(i / 5) % 6], classes[i % 5])
+                    .overwriteID(Integer.toString(i))
+                    .limitBroken(i % 7 == 0)
+                    .personalPreferenceIs(i % 11)
+                    .wokeLevelIs(i % 4)
+                    .defenseIs(3000 + i)
+                    .magicDefenseIs(3000 - i)
+                    .offensiveStatIs(2500 + (i % 9) * 10)
+                    .withSkill(new Skill(SkillType.TOTTEOKI, null, SkillTarget.ENEMY_SINGLE, 3000 + (i % 5) * 100))
+                    .withSkill(new Skill(SkillType.DEF, SkillChange.DOWN, SkillTarget.ENEMY_ALL, i % 3 * 10))
+                    .build();
+
+            allCharas.add(chara);
+        }
+
+        event = new GameEvent("event");
+        event.setBonusCharacters(new ArrayList<>(Arrays.asList(allCharas.get(5), allCharas.get(17))));
+        weapons = new ArrayList<>(Collections.singletonList(
+                new Weapon.Builder("weapon1").overwriteID("1").isExclusiveTo(allCharas.get(3)).build()));
+        nonLimitBrokenCharas = allCharas.stream()
+                .filter(c -> !c.isLimitBroken())
+                .collect(Collectors.toList());
+
+        ranker = new PriorityRanker(event);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+    }
+
+    private void assertRankedLikeAFullSort() {
+        // Every character must have a priority key which is at least the key of the previous character
+        GameCharacterPriorityComparator comparator = new GameCharacterPriorityComparator(
+                Mapper.getCharactersByElementAndClass(allCharas), Mapper.getCharactersBySeries(allCharas),
+                Mapper.getWeaponsByExclusiveCharacter(weapons), event);
+
+        for (int i = 1; i < nonLimitBrokenCharas.size(); i++) {
+            int[] previousKey = comparator.getPriorityKey(nonLimitBrokenCharas.get(i - 1));
+            int[] key = comparator.getPriorityKey(nonLimitBrokenCharas.get(i));
+
+            assertTrue(GameCharacterPriorityComparator.comparePriorityKeys(previousKey, key) <= 0,
+                    nonLimitBrokenCharas.get(i - 1) + " should not be before " + nonLimitBrokenCharas.get(i));
+        }
+    }
+
+    @Test
+    public void rank_sortsTheWholeList_onTheFirstCall() {
+        assertRankedLikeAFullSort();
+    }
+
+    @Test
+    public void rank_repositionsCharacters_whenACharacterIsEditedInPlace() {
+        GameCharacter chara = allCharas.get(23);
+        chara.setPersonalPreference(10);
+        chara.setCharacterElement(CharacterElement.MOON);
+        ranker.characterChanged(chara);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+
+        // Only the two event bonus characters have a higher priority
+        assertEquals(chara, nonLimitBrokenCharas.get(2));
+        assertRankedLikeAFullSort();
+    }
+
+    @Test
+    public void rank_repositionsTheRestOfTheGroup_whenACharacterIsLimitBroken() {
+        for (int i : new int[] {1, 2, 3, 4, 6, 8}) {
+            GameCharacter chara = allCharas.get(i);
+            chara.setLimitBroken(true);
+            nonLimitBrokenCharas.remove(chara);
+            ranker.characterChanged(chara);
+            ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+
+            assertRankedLikeAFullSort();
+        }
+    }
+
+    @Test
+    public void rank_repositionsCharacters_whenEventBonusCharactersOrExclusiveWeaponsChange() {
+        GameCharacter chara1 = allCharas.get(44);
+        GameCharacter chara2 = allCharas.get(5);
+        event.addBonusCharacter(chara1);
+        event.removeBonusCharacter(chara2);
+        ranker.characterKeyChanged(chara1);
+        ranker.characterKeyChanged(chara2);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+        assertRankedLikeAFullSort();
+
+        Weapon weapon = weapons.get(0);
+        weapon.setExclusiveCharacter(allCharas.get(17));
+        ranker.weaponChanged(weapon);
+
+        Weapon newWeapon = new Weapon.Builder("weapon2").overwriteID("2").isExclusiveTo(allCharas.get(55)).build();
+        weapons.add(newWeapon);
+        ranker.weaponChanged(newWeapon);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+        assertRankedLikeAFullSort();
+
+        weapons.remove(newWeapon);
+        ranker.weaponRemoved(newWeapon);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+        assertRankedLikeAFullSort();
+    }
+
+    @Test
+    public void rank_keepsTheExclusiveWeapon_whenACharacterHasAnotherExclusiveWeaponLeft() {
+        GameCharacter chara = allCharas.get(3);
+        Weapon secondWeapon = new Weapon.Builder("weapon2").overwriteID("2").isExclusiveTo(chara).build();
+        weapons.add(secondWeapon);
+        ranker.weaponChanged(secondWeapon);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+        assertRankedLikeAFullSort();
+
+        Weapon firstWeapon = weapons.remove(0);
+        ranker.weaponRemoved(firstWeapon);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+        assertRankedLikeAFullSort();
+
+        // Moving the last exclusive weapon to another character leaves chara without one
+        secondWeapon.setExclusiveCharacter(allCharas.get(4));
+        ranker.weaponChanged(secondWeapon);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+        assertRankedLikeAFullSort();
+    }
+
+    @Test
+    public void rank_keepsTheListSorted_whenCharactersAreAddedAndRemoved() {
+        GameCharacter removed = allCharas.get(12);
+        allCharas.remove(removed);
+        nonLimitBrokenCharas.remove(removed);
+        ranker.characterRemoved(removed);
+
+        GameCharacter added = new GameCharacter.Builder("new", allCharas.get(0).getSeries(), CharacterElement.FIRE, CharacterClass.KNIGHT)
+                .overwriteID("new")
+                .wokeLevelIs(5)
+                .build();
+        allCharas.add(added);
+        nonLimitBrokenCharas.add(added);
+        ranker.characterChanged(added);
+        ranker.rank(nonLimitBrokenCharas, allCharas, weapons);
+
+        assertFalse(nonLimitBrokenCharas.contains(removed));
+        assertTrue(nonLimitBrokenCharas.contains(added));
+        assertRankedLikeAFullSort();
+    }
+}
@@ -0,0 +1,109 @@
+package logic;
+
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingEngineTest {
+    private RankingEngine.Account createAccount(int accountNumber) {
+        /*
+        * Every account has characters with the same ids (like accounts created from the same exported data would), but
+        * the characters' stats and skills depend on the account
+        */
+        Random random = new Random(accountNumber);
+        CharacterElement[] elements = CharacterElement.values();
+        CharacterClass[] classes = CharacterClass.values();
+        List<GameCharacter> charas = new ArrayList<>();
+
+        for (int i = 0; i < 60; i++) {
+            Series series = new Series("Series " + i % 6, CreaStatus.values()[i % 3], Integer.toString(i % 6));
+            charas.add(new GameCharacter.Builder("chara" + i, series, elements[random.nextInt(6)], classes[random.nextInt(5)])
+                    .overwriteID(Integer.toString(i))
+                    .limitBroken(random.nextInt(4) == 0)
+                    .personalPreferenceIs(random.nextInt(11))
+                    .wokeLevelIs(random.nextInt(5))
+                    .offensiveStatIs(2000 + random.nextInt(1000))
+                    .defenseIs(2000 + random.nextInt(1000))
+                    .magicDefenseIs(2000 + random.nextInt(1000))
+                    .withSkill(new Skill(SkillType.TOTTEOKI, null, SkillTarget.ENEMY_SINGLE, 2000 + random.nextInt(2000)))
+                    .withSkill(new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, random.nextInt(50)))
+                    .build());
+        }
+
+        List<Weapon> weapons = new ArrayList<>(Collections.singletonList(
+                new Weapon.Builder("weapon").overwriteID("1").isExclusiveTo(charas.get(random.nextInt(60))).build()));
+        GameEvent event = new GameEvent("1");
+        event.addBonusCharacter(charas.get(random.nextInt(60)));
+
+        return new RankingEngine.Account("account" + accountNumber, charas, weapons, event);
+    }
+
+    @Test
+    public void rankAll_returnsTheSameRankingsAsRankingTheAccountsOneByOne() {
+        List<RankingEngine.Account> accounts = new ArrayList<>();
+        List<List<GameCharacter>> expectedRankings = new ArrayList<>();
+
+        for (int i = 0; i < 40; i++) {
+            RankingEngine.Account account = createAccount(i);
+            accounts.add(createAccount(i));
+            expectedRankings.add(RankingExporter.rank(account.getCharacters(), account.getWeapons(), account.getEvent()));
+        }
+
+        List<List<GameCharacter>> rankings;
+
+        try (RankingEngine engine = new RankingEngine(4)) {
+            rankings = engine.rankAll(accounts);
+        }
+
+        assertEquals(accounts.size(), rankings.size());
+
+        for (int i = 0; i < accounts.size(); i++) {
+            List<GameCharacter> ranking = rankings.get(i);
+            List<GameCharacter> expectedRanking = expectedRankings.get(i);
+            assertEquals(expectedRanking.size(), ranking.size());
+
+            for (int j = 0; j < ranking.size(); j++) {
+                // The ids are the same in every account, so the characters must also come from the right account
+                GameCharacter chara = ranking.get(j);
+                assertEquals(expectedRanking.get(j).getId(), chara.getId());
+                assertTrue(accounts.get(i).getCharacters().stream().anyMatch(c -> c == chara));
+            }
+        }
+    }
+
+    @Test
+    public void rankAll_doesNotChangeTheWeaponsOfTheAccounts() {
+        RankingEngine.Account account = createAccount(1);
+        RankingEngine.Account sameAccount = createAccount(1);
+
+        // Weapons read from the json files only have the id of their exclusive character
+        Weapon weapon = account.getWeapons().get(0);
+        weapon.setExclusiveCharacter(null);
+        List<GameCharacter> expectedRanking = RankingExporter.rank(sameAccount.getCharacters(), sameAccount.getWeapons(),
+                sameAccount.getEvent());
+
+        try (RankingEngine engine = new RankingEngine(2)) {
+            assertEquals(expectedRanking, engine.rankAll(Collections.singletonList(account)).get(0));
+        }
+
+        assertNull(weapon.getExclusiveCharacter());
+    }
+
+    @Test
+    public void rankAll_throws_whenAnAccountCanNotBeRanked() {
+        List<RankingEngine.Account> accounts = Arrays.asList(createAccount(1),
+                new RankingEngine.Account("broken account", null, new ArrayList<>(), new GameEvent("1")));
+
+        try (RankingEngine engine = new RankingEngine(2)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> engine.rankAll(accounts));
+            assertTrue(e.getMessage().contains("broken account"));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package logic;
+
+import domain.CharacterClass;
+import domain.CharacterElement;
+import domain.CreaStatus;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingExporterTest {
+    private GameCharacter chara1;
+    private GameCharacter chara2;
+    private GameCharacter chara3;
+    private List<GameCharacter> allCharas;
+    private GameEvent event;
+
+    public RankingExporterTest() {
+        Series series = new Series("Series, \"the\" first", CreaStatus.NONE, "1");
+        chara1 = new GameCharacter.Builder("chara1", series, CharacterElement.FIRE, CharacterClass.WARRIOR)
+                .overwriteID("1")
+                .personalPreferenceIs(5)
+                .build();
+
+        chara2 = new GameCharacter.Builder("chara2", series, CharacterElement.WATER, CharacterClass.MAGE)
+                .overwriteID("2")
+                .personalPreferenceIs(9)
+                .wokeLevelIs(2)
+                .build();
+
+        chara3 = new GameCharacter.Builder("chara3", series, CharacterElement.FIRE, CharacterClass.WARRIOR)
+                .overwriteID("3")
+                .limitBroken(true)
+                .build();
+
+        allCharas = new ArrayList<>(Arrays.asList(chara1, chara2, chara3));
+        event = new GameEvent("1");
+    }
+
+    @Test
+    public void rank_returnsNonLimitBrokenCharactersInPriorityOrder() {
+        List<GameCharacter> rankedCharas = RankingExporter.rank(allCharas, new ArrayList<Weapon>(), event);
+
+        assertEquals(Arrays.asList(chara2, chara1), rankedCharas);
+    }
+
+    @Test
+    public void rank_returnsTheSameOrderAsTheGui_whenACharacterHasAnExclusiveWeapon() {
+        // chara1 and chara4 are tied until NoWeaponCheck, which ranks chara1 (with an exclusive weapon) below chara4
+        GameCharacter chara4 = new GameCharacter.Builder("chara4", chara1.getSeries(), CharacterElement.FIRE,
+                CharacterClass.WARRIOR)
+                .overwriteID("4")
+                .personalPreferenceIs(5)
+                .build();
+        allCharas.add(chara4);
+
+        // Weapons read from the json files only have the id of their exclusive character
+        Weapon weapon = new Weapon.Builder("weapon").overwriteID("1").isExclusiveTo(chara1).build();
+        weapon.setExclusiveCharacter(null);
+        Weapon guiWeapon = new Weapon.Builder("weapon").overwriteID("1").isExclusiveTo(chara1).build();
+        guiWeapon.setExclusiveCharacter(null);
+
+        // The GUI assigns the exclusive characters when it loads the lists (see GlobalListHandler)
+        List<Weapon> guiWeapons = new ArrayList<>(Arrays.asList(guiWeapon));
+        List<GameCharacter> guiCharas = new ArrayList<>(Arrays.asList(chara1, chara2, chara4));
+        Mapper.assignExclusiveCharactersToWeapons(allCharas, guiWeapons);
+        new PriorityRanker(event).rank(guiCharas, allCharas, guiWeapons);
+
+        List<GameCharacter> rankedCharas = RankingExporter.rank(allCharas, new ArrayList<>(Arrays.asList(weapon)), event);
+
+        assertEquals(Arrays.asList(chara2, chara4, chara1), guiCharas);
+        assertEquals(guiCharas, rankedCharas);
+    }
+
+    @Test
+    public void export_writesCsvWithHeaderAndEscapedValues() {
+        StringWriter writer = new StringWriter();
+
+        assertTrue(RankingExporter.export(Arrays.asList(chara2, chara1), RankingExporter.Format.CSV, writer));
+
+        String[] lines = writer.toString().split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertEquals("rank,id,name,series,element,class,personal preference,woke level", lines[0]);
+        assertEquals("1,2,chara2,\"Series, \"\"the\"\" first\",Water,Mage,9,2", lines[1]);
+        assertEquals("2,1,chara1,\"Series, \"\"the\"\" first\",Fire,Warrior,5,0", lines[2]);
+    }
+
+    @Test
+    public void export_writesJsonArrayInRankOrder() {
+        StringWriter writer = new StringWriter();
+
+        assertTrue(RankingExporter.export(Arrays.asList(chara2, chara1), RankingExporter.Format.JSON, writer));
+
+        String json = writer.toString().replaceAll("\\s", "");
+        assertTrue(json.startsWith("[{\"rank\":1,\"id\":\"2\",\"name\":\"chara2\",\"series\":\"Series,\\\"the\\\"first\","));
+        assertTrue(json.contains("{\"rank\":2,\"id\":\"1\",\"name\":\"chara1\""));
+        assertTrue(json.endsWith("\"personalPreference\":5,\"wokeLevel\":0}]"));
+    }
+
+    @Test
+    public void export_writesTheDecidingCheckOfEachCharacter() {
+        GameCharacter chara4 = new GameCharacter.Builder("chara4", chara1.getSeries(), CharacterElement.WIND,
+                CharacterClass.KNIGHT)
+                .overwriteID("4")
+                .personalPreferenceIs(5)
+                .build();
+        allCharas.add(chara4);
+        event.addBonusCharacter(chara1);
+        RankingExporter.Ranking ranking = RankingExporter.rankWithReasons(allCharas, new ArrayList<Weapon>(), event);
+        StringWriter writer = new StringWriter();
+
+        assertTrue(RankingExporter.export(ranking, RankingExporter.Format.CSV, writer));
+
+        String[] lines = writer.toString().split(System.lineSeparator());
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].endsWith(",woke level,decided by"));
+        assertTrue(lines[1].startsWith("1,1,chara1,") && lines[1].endsWith(",5,0,"));
+        assertTrue(lines[2].startsWith("2,2,chara2,") && lines[2].endsWith(",EventBonusCheck"));
+        assertTrue(lines[3].startsWith("3,4,chara4,") && lines[3].endsWith(",PersonalPreferenceCheck(9)"));
+    }
+
+    @Test
+    public void export_writesOneJsonObjectPerLine_whenFormatIsNdjson() {
+        StringWriter writer = new StringWriter();
+        RankingExporter.Ranking ranking = RankingExporter.rankWithReasons(allCharas, new ArrayList<Weapon>(), event);
+
+        assertTrue(RankingExporter.export(ranking, RankingExporter.Format.NDJSON, writer));
+
+        String[] lines = writer.toString().split(System.lineSeparator());
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"rank\":1,\"id\":\"2\""));
+        assertTrue(lines[0].endsWith("\"decidedBy\":\"\"}"));
+        assertTrue(lines[1].endsWith("\"decidedBy\":\"PersonalPreferenceCheck(9)\"}"));
+    }
+}
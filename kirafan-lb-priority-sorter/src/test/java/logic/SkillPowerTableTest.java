@@ -0,0 +1,36 @@
+package logic;
+
+import domain.Skill;
+import domain.SkillChange;
+import domain.SkillTarget;
+import domain.SkillType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkillPowerTableTest {
+    @Test
+    public void get_returnsZero_whenSkillHasNotBeenAdded() {
+        SkillPowerTable table = new SkillPowerTable();
+
+        assertEquals(0.0, table.get(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF));
+        assertEquals(0.0, table.get(null, SkillChange.UP, SkillTarget.ALLY_SELF));
+        assertEquals(0.0, table.get(SkillType.ATK, SkillChange.UP, null));
+    }
+
+    @Test
+    public void get_returnsPowerOnlyForTheSameTypeChangeAndTarget() {
+        SkillPowerTable table = new SkillPowerTable();
+        table.put(new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 0), 10.5);
+        table.put(new Skill(SkillType.TIMID, null, SkillTarget.ENEMY_ALL, 0), 20.0);
+        table.put(new Skill(null, SkillChange.UP, SkillTarget.ALLY_SELF, 0), 30.0); // Type is null, not stored
+
+        assertEquals(10.5, table.get(new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 99)));
+        assertEquals(0.0, table.get(SkillType.ATK, SkillChange.DOWN, SkillTarget.ALLY_SELF));
+        assertEquals(0.0, table.get(SkillType.ATK, null, SkillTarget.ALLY_SELF));
+        assertEquals(0.0, table.get(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SINGLE));
+        assertEquals(0.0, table.get(SkillType.MAT, SkillChange.UP, SkillTarget.ALLY_SELF));
+        assertEquals(20.0, table.get(SkillType.TIMID, null, SkillTarget.ENEMY_ALL));
+        assertEquals(0.0, table.get(SkillType.TIMID, SkillChange.UP, SkillTarget.ENEMY_ALL));
+    }
+}
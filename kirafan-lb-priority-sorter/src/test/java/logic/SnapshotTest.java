@@ -0,0 +1,199 @@
+package logic;
+
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import io.jsondb.JsonDBTemplate;
+import io.jsondb.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NOTE: Like DatabaseTest, these tests might not work if the folder src/test/resources doesn't exist.
+
+class SnapshotTest {
+    private static final String dbFilesLocation = "src/test/resources/snapshot test files";
+
+    private File dbFilesFolder;
+    private File snapshotFile;
+    private Series series;
+    private Weapon weapon;
+    private GameCharacter chara;
+    private GameEvent event;
+
+    public SnapshotTest() {
+        dbFilesFolder = new File(dbFilesLocation);
+        snapshotFile = new File(dbFilesFolder, Snapshot.FILE_NAME);
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Util.delete(dbFilesFolder);
+        dbFilesFolder.mkdirs();
+
+        // Only the lengths and modification times of the json files matter to the snapshot
+        for (String collectionName : Arrays.asList("series", "characters", "weapons", "events")) {
+            writeIntoFile(new File(dbFilesFolder, collectionName + ".json"), "{\"schemaVersion\":\"1.0\"}\n");
+        }
+
+        series = new Series("series", CreaStatus.INCOMPLETE, "1");
+        weapon = new Weapon.Builder("weapon")
+                .overwriteID("2")
+                .offensiveStatIs(100)
+                .withSkill(new Skill(SkillType.ATK, SkillChange.UP, SkillTarget.ALLY_SELF, 24.5))
+                .build();
+        chara = new GameCharacter.Builder("chara", series, CharacterElement.MOON, CharacterClass.WARRIOR)
+                .overwriteID("3")
+                .withSkill(new Skill(SkillType.TOTTEOKI, null, SkillTarget.ENEMY_ALL, 3759))
+                .prefersWeapon(weapon)
+                .wokeLevelIs(2)
+                .personalPreferenceIs(7)
+                .build();
+        weapon.setExclusiveCharacterId(chara.getId());
+        event = new GameEvent("1");
+        event.addBonusCharacter(chara);
+        event.addAvailableSeries(series);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Util.delete(dbFilesFolder);
+    }
+
+    private void writeIntoFile(File file, String text) throws IOException {
+        try (FileWriter writer = new FileWriter(file, true)) {
+            writer.write(text);
+        }
+    }
+
+    private Snapshot writeAndOpen() {
+        assertTrue(Snapshot.write(snapshotFile, dbFilesFolder, Arrays.asList(series), Arrays.asList(chara),
+                Arrays.asList(weapon), Arrays.asList(event)));
+
+        return Snapshot.open(snapshotFile, dbFilesFolder);
+    }
+
+    @Test
+    public void open_returnsCopiesOfTheWrittenObjects() {
+        Snapshot snapshot = writeAndOpen();
+        assertNotNull(snapshot);
+
+        GameCharacter readChara = snapshot.getAllCharacters().get(0);
+        assertNotSame(chara, readChara);
+        assertNotSame(readChara, snapshot.getAllCharacters().get(0)); // Every read decodes a new copy
+        assertEquals("chara", readChara.getName());
+        assertEquals(series, readChara.getSeries());
+        assertEquals(CreaStatus.INCOMPLETE, readChara.getSeries().getCreaStatus());
+        assertEquals(CharacterElement.MOON, readChara.getCharacterElement());
+        assertEquals(CharacterClass.WARRIOR, readChara.getCharacterClass());
+        assertEquals(chara.getSkills(), readChara.getSkills());
+        assertNull(readChara.getSkills().get(0).getChange());
+        assertEquals(3759, readChara.getSkills().get(0).getPower());
+        assertEquals(weapon, readChara.getPreferredWeapon());
+        assertEquals(2, readChara.getWokeLevel());
+        assertEquals(7, readChara.getPersonalPreference());
+        assertFalse(readChara.isLimitBroken());
+
+        Weapon readWeapon = snapshot.getAllWeapons().get(0);
+        assertEquals(100, readWeapon.getOffensiveStat());
+        assertEquals(24.5, readWeapon.getSkills().get(0).getPower());
+        assertEquals("3", readWeapon.getExclusiveCharacterId());
+        assertNull(readWeapon.getExclusiveCharacter());
+
+        GameEvent readEvent = snapshot.getEvents().get(0);
+        assertEquals(Collections.singleton("3"), readEvent.getBonusCharacterIds());
+        assertEquals(Collections.singleton("1"), readEvent.getAvailableSeriesIds());
+        assertEquals(Arrays.asList(series), snapshot.getAllSeries());
+    }
+
+    @Test
+    public void findById_returnsACopyOfTheObjectWithTheId() {
+        GameCharacter chara2 = new GameCharacter.Builder("chara2", series, CharacterElement.SUN, CharacterClass.MAGE)
+                .overwriteID("4")
+                .build();
+        assertTrue(Snapshot.write(snapshotFile, dbFilesFolder, Arrays.asList(series), Arrays.asList(chara, chara2),
+                Arrays.asList(weapon), Arrays.asList(event)));
+        Snapshot snapshot = Snapshot.open(snapshotFile, dbFilesFolder);
+
+        assertEquals("chara2", snapshot.getAllCharacters().findById("4").getName());
+        assertNotSame(snapshot.getAllCharacters().findById("4"), snapshot.getAllCharacters().findById("4"));
+        assertNull(snapshot.getAllCharacters().findById("2")); // The id of the weapon
+        assertEquals(weapon, snapshot.getAllWeapons().findById("2"));
+
+        // A database which uses the snapshot finds its objects through the index
+        Database<GameCharacter> characterDatabase = new Database<>(() -> null, "characters");
+        characterDatabase.useSnapshot(snapshot.getAllCharacters());
+        assertEquals("chara", characterDatabase.findById("3").getName());
+        assertNull(characterDatabase.findById("5"));
+    }
+
+    @Test
+    public void open_returnsNull_whenSnapshotDoesNotExistOrAJsonFileHasChanged() throws IOException {
+        assertNull(Snapshot.open(snapshotFile, dbFilesFolder));
+        assertNotNull(writeAndOpen());
+
+        writeIntoFile(new File(dbFilesFolder, "weapons.json"), "{\"id\":\"4\"}\n");
+
+        assertNull(Snapshot.open(snapshotFile, dbFilesFolder));
+        assertFalse(Snapshot.isFresh(snapshotFile, dbFilesFolder));
+    }
+
+    @Test
+    public void initializeFromSnapshot_reservesTheIdsOfTheSnapshot() {
+        // An id created a minute after the latest id, as if the clock had been turned back since it was created
+        String futureId = String.format("%016x", Long.parseUnsignedLong(IdGenerator.nextId(), 16) + (60L * 1000 << 12));
+        chara.setId(futureId);
+        Snapshot snapshot = writeAndOpen();
+
+        DatabaseHandler handler = new DatabaseHandler(new Database<>(() -> null, "characters"),
+                new Database<>(() -> null, "events"), new Database<>(() -> null, "series"),
+                new Database<>(() -> null, "weapons"));
+        handler.initializeFromSnapshot(snapshot);
+
+        assertTrue(IdGenerator.nextId().compareTo(futureId) > 0);
+    }
+
+    @Test
+    public void initializeFromSnapshot_readsNoJsonFiles_untilSomethingIsWritten() {
+        Snapshot snapshot = writeAndOpen();
+        int[] templateRequests = new int[1];
+        JsonDBTemplate template = new JsonDBTemplate(dbFilesLocation, "domain.model");
+        template.createCollection("series");
+        template.insert(series, "series");
+
+        DatabaseHandler handler = new DatabaseHandler(
+                new Database<>(() -> null, "characters"),
+                new Database<>(() -> null, "events"),
+                new Database<>(() -> {
+                    templateRequests[0]++;
+                    return template;
+                }, "series"),
+                new Database<>(() -> null, "weapons"));
+        handler.initializeFromSnapshot(snapshot);
+
+        assertEquals(Arrays.asList(chara), handler.getAllCharacters());
+        assertEquals(Arrays.asList(chara), handler.getEventCharacters());
+        assertEquals(Arrays.asList(weapon), handler.getAllWeapons());
+        assertEquals(Arrays.asList(series), handler.getAllSeries());
+        assertEquals(0, templateRequests[0]);
+
+        Series newSeries = new Series("new series", CreaStatus.NONE, "4");
+        assertTrue(handler.addNewSeries(newSeries));
+        assertTrue(templateRequests[0] > 0);
+
+        List<Series> allSeries = handler.getAllSeries();
+        Collections.sort(allSeries, (s1, s2) -> s1.getId().compareTo(s2.getId()));
+        assertEquals(Arrays.asList(series, newSeries), allSeries);
+    }
+}
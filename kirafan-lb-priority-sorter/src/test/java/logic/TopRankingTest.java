@@ -0,0 +1,69 @@
+package logic;
+
+import domain.*;
+import domain.model.GameCharacter;
+import domain.model.GameEvent;
+import domain.model.Series;
+import domain.model.Weapon;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopRankingTest {
+    private List<GameCharacter> charas;
+    private GameCharacterPriorityComparator comparator;
+
+    @BeforeEach
+    public void setUp() {
+        CharacterElement[] elements = CharacterElement.values();
+        CharacterClass[] classes = CharacterClass.values();
+        CreaStatus[] creaStatuses = CreaStatus.values();
+        charas = new ArrayList<>();
+
+        // Many characters have equal priority, so the order of ties is tested as well
+        for (int i = 0; i < 150; i++) {
+            Series series = new Series("Series " + i % 8, creaStatuses[i % 8 % creaStatuses.length], Integer.toString(i % 8));
+            GameCharacter chara = new GameCharacter.Builder("chara" + i, series, elements[(i / 5) % 6], classes[i % 5])
+                    .overwriteID(Integer.toString(i))
+                    .personalPreferenceIs(i % 4 * 3)
+                    .wokeLevelIs(i % 3)
+                    .build();
+
+            charas.add(chara);
+        }
+
+        GameEvent event = new GameEvent("event");
+        event.setBonusCharacters(new ArrayList<>(Arrays.asList(charas.get(40), charas.get(99))));
+        comparator = new GameCharacterPriorityComparator(Mapper.getCharactersByElementAndClass(charas),
+                Mapper.getCharactersBySeries(charas), new HashMap<GameCharacter, Weapon>(), event);
+    }
+
+    @Test
+    public void selectTop_returnsTheSameCharactersAsAFullSort() {
+        List<GameCharacter> sortedCharas = new ArrayList<>(charas);
+        comparator.sort(sortedCharas);
+
+        for (int k : new int[]{0, 1, 10, 149, 150, 200}) {
+            TopRanking topRanking = comparator.selectTop(charas, k);
+            List<GameCharacter> topAndRemainder = new ArrayList<>(topRanking.getTop());
+            topAndRemainder.addAll(topRanking.getRemainder());
+
+            assertEquals(sortedCharas.subList(0, Math.min(k, charas.size())), topRanking.getTop());
+            assertEquals(sortedCharas, topAndRemainder);
+        }
+    }
+
+    @Test
+    public void selectTop_doesNotChangeTheGivenList() {
+        List<GameCharacter> originalCharas = new ArrayList<>(charas);
+
+        TopRanking topRanking = comparator.selectTop(charas, 5);
+
+        assertEquals(originalCharas, charas);
+        assertEquals(150, topRanking.size());
+        assertEquals(145, topRanking.getRemainder().size());
+    }
+}
@@ -0,0 +1,183 @@
+package logic;
+
+import io.jsondb.JsonDBTemplate;
+import io.jsondb.Util;
+import logic.model.mock_Series;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NOTE: Like DatabaseTest, these tests might not work if the folder src/test/resources doesn't exist.
+
+class WriteBehindQueueTest {
+    private static final String dbFilesLocation = "src/test/resources/write behind test files";
+    private static final String modelPackage = "logic.model";
+
+    private File dbFilesFolder;
+    private CountingJsonDBTemplate template;
+    private WriteBehindQueue queue;
+    private Database<mock_Series> seriesDatabase;
+
+    public WriteBehindQueueTest() {
+        dbFilesFolder = new File(dbFilesLocation);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // Files left behind by an interrupted test run are removed first
+        Util.delete(dbFilesFolder);
+        dbFilesFolder.mkdirs();
+
+        template = new CountingJsonDBTemplate(dbFilesLocation, modelPackage);
+        Database<mock_Series> plainDatabase = new Database<>(template, "series");
+        plainDatabase.createCollection();
+        plainDatabase.insert(new mock_Series("1", "series1", mock_Series.Status.COMPLETE));
+        template.resetWrites();
+
+        queue = new WriteBehindQueue(WriteBehindQueue.Durability.WRITE_BEHIND, 60 * 60 * 1000);
+        seriesDatabase = queue.createDatabase(template, "series");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queue.close();
+        Util.delete(dbFilesFolder);
+    }
+
+    private List<mock_Series> readSeriesFromJson() {
+        // A new template reads the json file again, so it only sees the changes which have been written
+        return new JsonDBTemplate(dbFilesLocation, modelPackage).findAll("series");
+    }
+
+    @Test
+    public void flush_writesQueuedChangesWithOneWritePerOperationType() {
+        for (int i = 2; i <= 51; i++) {
+            assertTrue(seriesDatabase.insert(new mock_Series(Integer.toString(i), "series" + i, mock_Series.Status.NONE)));
+        }
+
+        assertTrue(seriesDatabase.update(new mock_Series("1", "renamed series1", mock_Series.Status.INCOMPLETE)));
+
+        for (int i = 2; i <= 11; i++) {
+            assertTrue(seriesDatabase.remove(new mock_Series(Integer.toString(i), "series" + i, mock_Series.Status.NONE)));
+        }
+
+        // Nothing has been written yet, but the database already returns the queued changes
+        assertEquals(0, template.getWrites());
+        assertEquals(1, readSeriesFromJson().size());
+        assertEquals(41, seriesDatabase.findAll().size());
+        assertEquals("renamed series1", seriesDatabase.findById("1").getName());
+        assertNull(seriesDatabase.findById("2"));
+
+        // Series 2-11 were never written, so only the inserted and updated series are written (with a single upsert)
+        assertTrue(queue.flush());
+        assertEquals(1, template.getWrites());
+        assertEquals(41, readSeriesFromJson().size());
+
+        assertTrue(seriesDatabase.remove(new mock_Series("1", "renamed series1", mock_Series.Status.INCOMPLETE)));
+        assertTrue(seriesDatabase.remove(new mock_Series("12", "series12", mock_Series.Status.NONE)));
+        assertTrue(seriesDatabase.update(new mock_Series("13", "renamed series13", mock_Series.Status.NONE)));
+        assertTrue(seriesDatabase.update(new mock_Series("14", "renamed series14", mock_Series.Status.NONE)));
+
+        assertTrue(queue.flush());
+        assertEquals(3, template.getWrites()); // One remove and one upsert
+        assertEquals(39, readSeriesFromJson().size());
+
+        // Flushing without queued changes writes nothing
+        assertTrue(queue.flush());
+        assertEquals(3, template.getWrites());
+    }
+
+    @Test
+    public void insertUpdateAndRemove_failLikeInDatabase_whenIdAlreadyExistsOrDoesNotExist() {
+        mock_Series series1 = new mock_Series("1", "series1", mock_Series.Status.COMPLETE);
+        mock_Series series2 = new mock_Series("2", "series2", mock_Series.Status.NONE);
+
+        assertFalse(seriesDatabase.insert(series1)); // Already in the json file
+        assertFalse(seriesDatabase.update(series2)); // Not in the json file nor queued
+        assertFalse(seriesDatabase.remove(series2));
+
+        assertTrue(seriesDatabase.insert(series2));
+        assertFalse(seriesDatabase.insert(series2)); // Already queued
+        assertTrue(seriesDatabase.remove(series2));
+        assertFalse(seriesDatabase.remove(series2)); // Already removed
+
+        assertTrue(seriesDatabase.remove(series1));
+        assertFalse(seriesDatabase.update(series1));
+        assertTrue(seriesDatabase.insert(series1)); // Removing and inserting again replaces the series
+
+        assertTrue(queue.flush());
+        assertEquals(1, template.getWrites());
+        assertEquals(1, readSeriesFromJson().size());
+    }
+
+    @Test
+    public void rollbackTransaction_discardsOnlyTheChangesOfTheTransaction() {
+        assertTrue(seriesDatabase.insert(new mock_Series("2", "series2", mock_Series.Status.NONE)));
+
+        seriesDatabase.beginTransaction();
+        assertTrue(seriesDatabase.insert(new mock_Series("3", "series3", mock_Series.Status.NONE)));
+        assertTrue(seriesDatabase.update(new mock_Series("1", "renamed series1", mock_Series.Status.INCOMPLETE)));
+        assertTrue(seriesDatabase.remove(new mock_Series("2", "series2", mock_Series.Status.NONE)));
+
+        // Nothing is written while the transaction is open
+        assertTrue(queue.flush());
+        assertEquals(0, template.getWrites());
+
+        seriesDatabase.rollbackTransaction();
+
+        assertNull(seriesDatabase.findById("3"));
+        assertNotNull(seriesDatabase.findById("2"));
+        assertEquals("series1", seriesDatabase.findById("1").getName());
+
+        // The series queued before the transaction is still written
+        assertTrue(queue.flush());
+        assertEquals(1, template.getWrites());
+        assertEquals(2, readSeriesFromJson().size());
+    }
+
+    @Test
+    public void queuedChanges_areNotChangedByChangingTheQueuedOrReadObjects() {
+        mock_Series series2 = new mock_Series("2", "series2", mock_Series.Status.NONE);
+        assertTrue(seriesDatabase.insert(series2));
+
+        // The caller can keep changing its own objects without calling update
+        series2.setName("changed series2");
+        seriesDatabase.findById("2").setName("changed series2");
+        seriesDatabase.findAll().forEach(s -> s.setStatus(mock_Series.Status.COMPLETE));
+
+        assertEquals(new mock_Series("2", "series2", mock_Series.Status.NONE), seriesDatabase.findById("2"));
+        assertTrue(queue.flush());
+        assertTrue(readSeriesFromJson().contains(new mock_Series("2", "series2", mock_Series.Status.NONE)));
+    }
+
+    @Test
+    public void writeThrough_writesEveryChangeRightAway() {
+        seriesDatabase.insert(new mock_Series("2", "series2", mock_Series.Status.NONE));
+        assertEquals(0, template.getWrites());
+
+        // Switching to write through writes the changes queued before the switch as well
+        queue.setDurability(WriteBehindQueue.Durability.WRITE_THROUGH);
+        assertEquals(1, template.getWrites());
+        assertEquals(2, readSeriesFromJson().size());
+
+        seriesDatabase.insert(new mock_Series("3", "series3", mock_Series.Status.NONE));
+        seriesDatabase.remove(new mock_Series("1", "series1", mock_Series.Status.COMPLETE));
+        assertEquals(3, template.getWrites());
+        assertEquals(2, readSeriesFromJson().size());
+    }
+
+    @Test
+    public void close_writesQueuedChanges() {
+        seriesDatabase.insert(new mock_Series("2", "series2", mock_Series.Status.NONE));
+        assertEquals(1, readSeriesFromJson().size());
+
+        queue.close();
+
+        assertEquals(2, readSeriesFromJson().size());
+    }
+}
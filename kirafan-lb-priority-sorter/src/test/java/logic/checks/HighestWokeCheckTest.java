@@ -168,4 +168,68 @@ class HighestWokeCheckTest {
         assertEquals(1, check.compare(chara3, chara1));
         assertEquals(0, check.compare(chara2, chara4));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getPriorityKey_comparesTheBestLimitBrokenCharacter_againstTheRunnerUp() {
+        chara1 = new GameCharacter.Builder("chara1", series1, CharacterElement.WATER, CharacterClass.WARRIOR)
+                .overwriteID("1")
+                .wokeLevelIs(4)
+                .limitBroken(true)
+                .build();
+
+        chara2 = new GameCharacter.Builder("chara2", series1, CharacterElement.MOON, CharacterClass.ALCHEMIST)
+                .overwriteID("2")
+                .wokeLevelIs(4)
+                .limitBroken(true)
+                .build();
+
+        chara3 = new GameCharacter.Builder("chara3", series1, CharacterElement.SUN, CharacterClass.KNIGHT)
+                .overwriteID("3")
+                .wokeLevelIs(3)
+                .build();
+
+        chara4 = new GameCharacter.Builder("chara4", series2, CharacterElement.FIRE, CharacterClass.MAGE)
+                .overwriteID("4")
+                .wokeLevelIs(5)
+                .limitBroken(true)
+                .build();
+
+        chara5 = new GameCharacter.Builder("chara5", series2, CharacterElement.EARTH, CharacterClass.PRIEST)
+                .overwriteID("5")
+                .wokeLevelIs(2)
+                .build();
+
+        // series4 has no characters in the map
+        Series series4 = new Series("Series 4", null, "4");
+        GameCharacter chara6 = new GameCharacter.Builder("chara6", series4, CharacterElement.WIND, CharacterClass.WARRIOR)
+                .overwriteID("6")
+                .wokeLevelIs(1)
+                .build();
+
+        addCharasToTheMap(chara1, chara2, chara3, chara4, chara5);
+
+        // chara1 and chara2 tie as limit broken characters, so neither is the highest woke of series1 (nor is chara3)
+        // chara4 is the only limit broken character of series2 and has a higher woke level than chara5
+        // chara6 is the only character of her series
+        List<Integer> expectedKeys = Arrays.asList(1, 1, 1, 0, 1, 0);
+        List<GameCharacter> characters = Arrays.asList(chara1, chara2, chara3, chara4, chara5, chara6);
+        List<Integer> keys = new ArrayList<>();
+        characters.forEach(c -> keys.add(check.getPriorityKey(c)));
+        assertEquals(expectedKeys, keys);
+
+        // The same woke levels must be used during a sort
+        keys.clear();
+        check.beginSort();
+        characters.forEach(c -> keys.add(check.getPriorityKey(c)));
+        assertEquals(0, check.compare(chara1, chara2));
+        assertEquals(1, check.compare(chara2, chara4));
+        check.endSort();
+        assertEquals(expectedKeys, keys);
+
+        // after lowering chara2's woke level, chara1 has the undisputed highest woke level of series1
+        chara2.setWokeLevel(3);
+        assertEquals(0, check.getPriorityKey(chara1));
+        assertEquals(1, check.getPriorityKey(chara2));
+        assertEquals(1, check.getPriorityKey(chara3));
+    }
+}
@@ -5,6 +5,7 @@ import domain.CharacterElement;
 import domain.CreaStatus;
 import domain.model.GameCharacter;
 import domain.model.Series;
+import logic.ElementClassIndex;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
@@ -13,7 +14,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class MissingElementClassCombinationCheckTest {
     private MissingElementClassCombinationCheck check;
-    private Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> map;
+    private ElementClassIndex map;
     private Series series;
     // Characters with non-existing element/class combinations
     private GameCharacter cA;
@@ -164,7 +165,7 @@ class MissingElementClassCombinationCheckTest {
     }
 
     private void initializeMap() {
-        map = new HashMap<>();
+        map = new ElementClassIndex();
 
         // Limit broken characters which are not referenced directly during testing
         GameCharacter c1 = new GameCharacter.Builder("c1", series, CharacterElement.FIRE, CharacterClass.KNIGHT)
@@ -229,18 +230,8 @@ class MissingElementClassCombinationCheckTest {
         limitBrokenCharacters.forEach(character -> putToMap(character, map));
     }
 
-    private void putToMap(GameCharacter character, Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> map) {
-        AbstractMap.SimpleEntry<CharacterElement, CharacterClass> elementAndClass =
-                new AbstractMap.SimpleEntry<>(character.getCharacterElement(), character.getCharacterClass());
-
-        List<GameCharacter> list = map.get(elementAndClass);
-
-        if (list == null) {
-            list = new ArrayList<>();
-        }
-
-        list.add(character);
-        map.put(elementAndClass, list);
+    private void putToMap(GameCharacter character, ElementClassIndex map) {
+        map.add(character);
     }
 
     @Test
@@ -388,4 +379,18 @@ class MissingElementClassCombinationCheckTest {
         assertEquals(0, check.compare(cG, cJ)); // Mage vs Warrior
         assertEquals(0, check.compare(cJ, cG)); // Warrior vs Mage
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getPriorityKey_ordersCharacters_theSameWayAsCompare() {
+        List<GameCharacter> characters = Arrays.asList(
+                cA, cB, cC, cD, cE, cF, cG, cH, cI, cJ, cK, cL, cM, cN, cO, cP, cQ, cR, cS, cT, cU, cV, cW, cX, cY
+        );
+
+        for (GameCharacter c1 : characters) {
+            for (GameCharacter c2 : characters) {
+                assertEquals(check.compare(c1, c2),
+                        Integer.compare(check.getPriorityKey(c1), check.getPriorityKey(c2)));
+            }
+        }
+    }
+}
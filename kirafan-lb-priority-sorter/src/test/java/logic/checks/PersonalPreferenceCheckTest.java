@@ -109,4 +109,19 @@ class PersonalPreferenceCheckTest {
         assertEquals(0, check.compare(cE, cD)); // cD has a preference of 7 which is NOT within the range and higher than cE's
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getPriorityKey_ordersCharacters_theSameWayAsCompare() {
+        GameCharacter[] characters = {cA, cB, cC, cD, cE, cF};
+
+        for (int minimumPreference = -1; minimumPreference <= 10; minimumPreference++) {
+            PersonalPreferenceCheck check = new PersonalPreferenceCheck(minimumPreference);
+
+            for (GameCharacter c1 : characters) {
+                for (GameCharacter c2 : characters) {
+                    assertEquals(check.compare(c1, c2),
+                            Integer.compare(check.getPriorityKey(c1), check.getPriorityKey(c2)));
+                }
+            }
+        }
+    }
+}
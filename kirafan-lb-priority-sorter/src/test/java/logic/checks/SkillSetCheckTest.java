@@ -3,6 +3,7 @@ package logic.checks;
 import domain.*;
 import domain.model.GameCharacter;
 import domain.model.Series;
+import logic.ElementClassIndex;
 
 import java.util.*;
 
@@ -209,19 +210,19 @@ class SkillSetCheckTest {
 
         List<GameCharacter> waterWarriors = new ArrayList<>(Arrays.asList(warrior1, warrior2, warrior3, warrior5));
 
-        Map<AbstractMap.SimpleEntry<CharacterElement, CharacterClass>, List<GameCharacter>> map = new HashMap<>();
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.FIRE, CharacterClass.ALCHEMIST), fireAlchemists);
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.WIND, CharacterClass.ALCHEMIST), new ArrayList<>(Collections.singletonList(alchemist4)));
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.MOON, CharacterClass.KNIGHT),moonKnights);
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.WATER, CharacterClass.KNIGHT), waterKnights);
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.SUN, CharacterClass.KNIGHT), new ArrayList<>(Collections.singletonList(knight8)));
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.SUN, CharacterClass.MAGE), sunMages);
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.EARTH, CharacterClass.MAGE), earthMages);
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.MOON, CharacterClass.MAGE), new ArrayList<>(Collections.singletonList(mage6)));
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.WIND, CharacterClass.PRIEST), windPriests);
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.WATER, CharacterClass.PRIEST), new ArrayList<>(Collections.singletonList(priest4)));
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.WATER, CharacterClass.WARRIOR), waterWarriors);
-        map.put(new AbstractMap.SimpleEntry<>(CharacterElement.WIND, CharacterClass.WARRIOR), new ArrayList<>(Collections.singletonList(warrior4)));
+        ElementClassIndex map = new ElementClassIndex();
+        fireAlchemists.forEach(map::add);
+        map.add(alchemist4);
+        moonKnights.forEach(map::add);
+        waterKnights.forEach(map::add);
+        map.add(knight8);
+        sunMages.forEach(map::add);
+        earthMages.forEach(map::add);
+        map.add(mage6);
+        windPriests.forEach(map::add);
+        map.add(priest4);
+        waterWarriors.forEach(map::add);
+        map.add(warrior4);
 
         check = new SkillSetCheck(map);
     }
@@ -1232,4 +1233,34 @@ class SkillSetCheckTest {
         // warrior has the biggest max damage out of all wind warrior (because she is the only one)
         assertEquals(1, check.compare(priest4, warrior4));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getPriorityKey_returnsTheSameKeys_withAndWithoutTheGroupChampionIndex() {
+        alchemist1.setLimitBroken(true);
+        alchemist1.setSkills(new ArrayList<>(Collections.singletonList(new Skill(SkillType.DEF, SkillChange.DOWN, SkillTarget.ENEMY_ALL, 25))));
+        alchemist3.setSkills(new ArrayList<>(Collections.singletonList(new Skill(SkillType.DEF, SkillChange.DOWN, SkillTarget.ENEMY_ALL, 25))));
+        alchemist2.setSkills(new ArrayList<>(Collections.singletonList(new Skill(SkillType.SPD, SkillChange.DOWN, SkillTarget.ENEMY_ALL, 10))));
+        knight1.getSkills().add(new Skill(SkillType.BARRIER_FULL, null, SkillTarget.ALLY_ALL, 0));
+        knight2.getSkills().add(new Skill(SkillType.BARRIER_FULL, null, SkillTarget.ALLY_ALL, 0));
+        warrior2.setOffensiveStat(5000);
+
+        List<GameCharacter> characters = Arrays.asList(alchemist1, alchemist2, alchemist3, alchemist4, knight1, knight2,
+                knight3, knight5, knight6, knight7, knight8, mage1, mage2, mage3, mage4, mage5, mage6, priest1, priest2,
+                priest3, priest4, warrior1, warrior2, warrior3, warrior4);
+        List<Integer> keysWithoutIndex = new ArrayList<>();
+        List<Integer> keysWithIndex = new ArrayList<>();
+        characters.forEach(c -> keysWithoutIndex.add(check.getPriorityKey(c)));
+
+        check.beginSort();
+        characters.forEach(c -> keysWithIndex.add(check.getPriorityKey(c)));
+        check.endSort();
+
+        assertEquals(keysWithoutIndex, keysWithIndex);
+        assertEquals(0, check.getPriorityKey(alchemist1));
+        assertEquals(1, check.getPriorityKey(alchemist3));
+
+        // The index is thrown away after the sort, so later changes are taken into account
+        alchemist1.setLimitBroken(false);
+        assertEquals(0, check.getPriorityKey(alchemist3));
+    }
+}